@@ -0,0 +1,96 @@
+package spec.io;
+
+import java.util.Hashtable;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times SpecFormat.getArrayOfSetBit on the bitmask record of a 65536 channel spectrum, with a
+ * fraction density of the bits set ... against the decoding it replaced, a lookup of the set bits
+ * of each byte in a Hashtable of boxed bytes (the setBitTable that was in SpecFormat).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SetBitBenchmark {
+  /** the fraction of the bits that are set ... sparse and dense masks */
+  @Param({"0.01", "0.1", "0.9"})
+  public double density;
+
+  private byte[] arrayOfBitmaskRecord;
+  private int numNonZeroElements;
+  private int[] arrayOfSetBit;
+
+  /** the set bits of each byte, from bit 7 down to bit 0, by the byte */
+  private Hashtable setBitTable;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(1);
+    arrayOfBitmaskRecord = new byte[65536 / 8];
+    for (int i = 0; i < arrayOfBitmaskRecord.length * 8; i++) {
+      if (random.nextDouble() < density) arrayOfBitmaskRecord[i / 8] |= (byte) (1 << (i % 8));
+    }
+
+    numNonZeroElements = 0;
+    for (int i = 0; i < arrayOfBitmaskRecord.length; i++) {
+      numNonZeroElements += Integer.bitCount(arrayOfBitmaskRecord[i] & 0xff);
+    }
+    arrayOfSetBit = new int[numNonZeroElements];
+
+    setBitTable = new Hashtable(270, 0.97f);
+    for (int b = -128; b < 128; b++) {
+      byte[] bits = new byte[Integer.bitCount(b & 0xff)];
+      int k = 0;
+      for (int bitnum = 7; bitnum >= 0; bitnum--) {
+        if ((b & (1 << bitnum)) != 0) bits[k++] = (byte) bitnum;
+      }
+      setBitTable.put(Byte.valueOf((byte) b), bits);
+    }
+  }
+
+  @Benchmark
+  public int[] getArrayOfSetBit() {
+    return SpecFormat.getArrayOfSetBit(arrayOfBitmaskRecord, numNonZeroElements);
+  }
+
+  /** into an array that is kept, as the spc readers do */
+  @Benchmark
+  public int getArrayOfSetBitInto() {
+    return SpecFormat.getArrayOfSetBit(arrayOfBitmaskRecord, arrayOfSetBit);
+  }
+
+  /**
+   * the decoding before ... Byte.valueOf stands in for the new Byte of each lookup, so this is the
+   * old cost less the boxing
+   */
+  @Benchmark
+  public int[] getArrayOfSetBitBefore() {
+    int[] arrayOfSetBit = new int[numNonZeroElements];
+    int k = 0;
+
+    for (int i = 0; i < arrayOfBitmaskRecord.length; i++) {
+      byte[] temp = (byte[]) setBitTable.get(Byte.valueOf(arrayOfBitmaskRecord[i]));
+      for (int j = 0; j < temp.length; j++) {
+        arrayOfSetBit[k] = ((i * 8) + temp[j]);
+        k++;
+      }
+    }
+
+    return (arrayOfSetBit);
+  }
+}
@@ -0,0 +1,95 @@
+package spec.io;
+
+import java.io.File;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import spec.spectrum.SpecChannel;
+import spec.spectrum.Spectrum;
+
+/**
+ * Times the buffered read of spc files (OneDimFilter.read and TwoDimFilter.read) against the
+ * original one through a RandomAccessFile (readUsingRandomAccessFile) ... on a 16384 channel and
+ * a 1024 by 1024 channel spectrum, with a fraction density of the channels not zero. The files
+ * are written once, to the temporary directory, and are in the page cache while they are read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SpcReadBenchmark {
+  /** the fraction of the channels that are not zero ... sparse and dense spectra */
+  @Param({"0.02", "1.0"})
+  public double density;
+
+  private File oneDimFile;
+  private File twoDimFile;
+
+  @Setup
+  public void setUp() throws Exception {
+    Random random = new Random(1);
+    SpecFormat_spc format = new SpecFormat_spc();
+
+    int[] oneDimCount = getCounts(16384, random);
+    oneDimFile = File.createTempFile("SpcReadBenchmark", ".spc");
+    format.write(
+        oneDimFile,
+        new Spectrum.OneDim(
+            "one", new Date(), new SpecChannel.OneDim(oneDimCount.length, oneDimCount)));
+
+    int[] twoDimCount = getCounts(1024 * 1024, random);
+    twoDimFile = File.createTempFile("SpcReadBenchmark", ".spc");
+    format.write(
+        twoDimFile,
+        new Spectrum.TwoDim("two", new Date(), new SpecChannel.TwoDim(1024, 1024, twoDimCount)));
+  }
+
+  @TearDown
+  public void tearDown() {
+    oneDimFile.delete();
+    twoDimFile.delete();
+  }
+
+  @Benchmark
+  public Spectrum readOneDim() throws Exception {
+    return SpecFormat_spc.OneDimFilter.read(oneDimFile);
+  }
+
+  @Benchmark
+  public Spectrum readOneDimUsingRandomAccessFile() throws Exception {
+    return SpecFormat_spc.OneDimFilter.readUsingRandomAccessFile(oneDimFile);
+  }
+
+  @Benchmark
+  public Spectrum readTwoDim() throws Exception {
+    return SpecFormat_spc.TwoDimFilter.read(twoDimFile);
+  }
+
+  @Benchmark
+  public Spectrum readTwoDimUsingRandomAccessFile() throws Exception {
+    return SpecFormat_spc.TwoDimFilter.readUsingRandomAccessFile(twoDimFile);
+  }
+
+  /** counts up to 5000 in a fraction density of numChannels channels, the rest zero */
+  private int[] getCounts(int numChannels, Random random) {
+    int[] count = new int[numChannels];
+    for (int i = 0; i < numChannels; i++) {
+      if (random.nextDouble() < density) count[i] = 1 + random.nextInt(5000);
+    }
+    return count;
+  }
+}
@@ -0,0 +1,111 @@
+package spec.lib.graph;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times the draw of a 65536 point X to Y dataset, in each render method, onto a 1000 by 500 image
+ * ... with the lines collected into paths (batchDraw) and drawn one call at a time, with and
+ * without the error bars, and with and without antialiasing (Graph.qualityHints). The dataset has
+ * the default line attribute, so without antialiasing the points are also thinned
+ * (DatasetXtoYRenderer.thinPoints). Runs headless.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true"})
+public class XtoYBatchDrawBenchmark {
+  @Param({"true", "false"})
+  public boolean batchDraw;
+
+  @Param({"false", "true"})
+  public boolean antialias;
+
+  @Param({"false", "true"})
+  public boolean showError;
+
+  private DatasetXtoY.Integer diagonal;
+  private DatasetXtoY.Integer horizontalVertical;
+  private DatasetXtoY.Integer verticalHorizontal;
+  private BufferedImage image;
+  private Dimension dim;
+
+  @Setup
+  public void setUp() throws Exception {
+    Random random = new Random(1);
+    int n = 65536;
+    int[] x = new int[n];
+    int[] y = new int[n];
+    double[] error = new double[n];
+    for (int i = 0; i < n; i++) {
+      x[i] = i;
+      y[i] = (int) (1000 * Math.exp(-Math.pow((i - n / 2) / (n / 100.0), 2))) + random.nextInt(50);
+      error[i] = Math.sqrt(y[i] + 1);
+    }
+
+    diagonal = getDataset(x, y, error, DatasetXtoYRenderer.DIAGONAL);
+    horizontalVertical = getDataset(x, y, error, DatasetXtoYRenderer.HORIZONTAL_VERTICAL);
+    verticalHorizontal = getDataset(x, y, error, DatasetXtoYRenderer.VERTICAL_HORIZONTAL);
+
+    image = new BufferedImage(1000, 500, BufferedImage.TYPE_INT_RGB);
+    dim = new Dimension(1000, 500);
+  }
+
+  @Benchmark
+  public BufferedImage drawDiagonal() {
+    return draw(diagonal);
+  }
+
+  @Benchmark
+  public BufferedImage drawHorizontalVertical() {
+    return draw(horizontalVertical);
+  }
+
+  @Benchmark
+  public BufferedImage drawVerticalHorizontal() {
+    return draw(verticalHorizontal);
+  }
+
+  private DatasetXtoY.Integer getDataset(int[] x, int[] y, double[] error, int renderMethod)
+      throws Exception {
+    DatasetXtoY.Integer dataset =
+        new DatasetXtoY.Integer(x, y, renderMethod, new Point2D.Float(0f, 0f));
+    dataset.setErrorInY(error);
+    dataset.setShowError(showError);
+    dataset.renderer.setBatchDraw(batchDraw);
+
+    dataset.getAxisX().axisMin = 0;
+    dataset.getAxisX().axisMax = x.length;
+    dataset.getAxisY().axisMin = 0;
+    dataset.getAxisY().axisMax = 1200;
+    return dataset;
+  }
+
+  private BufferedImage draw(DatasetXtoY dataset) {
+    Graphics2D g = image.createGraphics();
+    if (antialias) g.setRenderingHints(Graph.qualityHints);
+    g.setColor(Color.white);
+    g.fillRect(0, 0, dim.width, dim.height);
+    dataset.draw(g, dim);
+    g.dispose();
+    return image;
+  }
+}
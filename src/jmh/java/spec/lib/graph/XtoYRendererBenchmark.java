@@ -0,0 +1,207 @@
+package spec.lib.graph;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times the draw of a 65536 point X to Y dataset onto a 1000 by 500 image by the one drawing loop
+ * of DatasetXtoYRenderer, against the loops of the renderers it replaced (one class for each
+ * render method, which worked out the position of each point as it went) ... copied into
+ * BeforeRenderer, for ERROR_DUPLICATE. Both pick the points to draw the same way and draw through
+ * drawLine, so only the loops differ. Without antialiasing, and runs headless.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true"})
+public class XtoYRendererBenchmark {
+  /** DIAGONAL, HORIZONTAL_VERTICAL or VERTICAL_HORIZONTAL */
+  @Param({"11", "12", "13"})
+  public int renderMethod;
+
+  @Param({"false", "true"})
+  public boolean showError;
+
+  private DatasetXtoY.Integer dataset;
+  private DatasetXtoY.Integer datasetBefore;
+  private BufferedImage image;
+  private Dimension dim;
+
+  @Setup
+  public void setUp() throws Exception {
+    Random random = new Random(1);
+    int n = 65536;
+    int[] x = new int[n];
+    int[] y = new int[n];
+    double[] error = new double[n];
+    for (int i = 0; i < n; i++) {
+      x[i] = i;
+      y[i] = (int) (1000 * Math.exp(-Math.pow((i - n / 2) / (n / 100.0), 2))) + random.nextInt(50);
+      error[i] = Math.sqrt(y[i] + 1);
+    }
+
+    dataset = getDataset(x, y, error);
+    datasetBefore = getDataset(x, y, error);
+    datasetBefore.setRenderer(new BeforeRenderer(datasetBefore, renderMethod));
+    datasetBefore.setData();
+    datasetBefore.setShowError(showError);
+
+    image = new BufferedImage(1000, 500, BufferedImage.TYPE_INT_RGB);
+    dim = new Dimension(1000, 500);
+  }
+
+  @Benchmark
+  public BufferedImage draw() {
+    return draw(dataset);
+  }
+
+  @Benchmark
+  public BufferedImage drawBefore() {
+    return draw(datasetBefore);
+  }
+
+  private DatasetXtoY.Integer getDataset(int[] x, int[] y, double[] error) throws Exception {
+    DatasetXtoY.Integer dataset =
+        new DatasetXtoY.Integer(x, y, renderMethod, new Point2D.Float(0f, 0f));
+    dataset.setErrorInY(error);
+    dataset.setShowError(showError);
+
+    dataset.getAxisX().axisMin = 0;
+    dataset.getAxisX().axisMax = x.length;
+    dataset.getAxisY().axisMin = 0;
+    dataset.getAxisY().axisMax = 1200;
+    return dataset;
+  }
+
+  private BufferedImage draw(DatasetXtoY dataset) {
+    Graphics2D g = image.createGraphics();
+    g.setColor(Color.white);
+    g.fillRect(0, 0, dim.width, dim.height);
+    dataset.draw(g, dim);
+    g.dispose();
+    return image;
+  }
+
+  /**
+   * the drawDup loops of DatasetXtoYRendererIntegerDiag, HV and VH ... the points to draw are
+   * picked by initDraw, but their positions are left to the loops
+   */
+  static class BeforeRenderer extends DatasetXtoYRenderer.Integer {
+    protected Point2D.Float p0 = new Point2D.Float();
+    protected Point2D.Float p1 = new Point2D.Float();
+
+    BeforeRenderer(DatasetXtoY.Integer datasetI, int renderMethod) {
+      super(datasetI, renderMethod);
+    }
+
+    protected void setDrawPoints() {}
+
+    public void draw(Graphics2D g, Dimension dim) {
+      this.initDraw(g, dim);
+
+      if (datasetI.optionalStartPoint != null) {
+        p0.x = datasetI.optionalStartPoint.x;
+        p0.y = datasetI.optionalStartPoint.y;
+      } else if (datasetI.numDataPoints > 0) {
+        p0.x = (float) ((datasetI.xdata[0] - xAxis.axisMin) / xAxisRange * w);
+        // use (h-1) to accomodate the (0,0) starting position
+        p0.y = (float) ((yAxis.axisMax - datasetI.ydata[0]) / yAxisRange * (h - 1));
+      }
+
+      switch (renderMethod) {
+        case HORIZONTAL_VERTICAL:
+          drawHorizontalVertical(g);
+          break;
+        case VERTICAL_HORIZONTAL:
+          drawVerticalHorizontal(g);
+          break;
+        case DIAGONAL:
+        default:
+          drawDiagonal(g);
+          break;
+      }
+
+      finishDraw(g);
+    }
+
+    private void drawDiagonal(Graphics2D g) {
+      for (int k = 0; k < numDrawPoints; k++) {
+        int i = drawIndex[k];
+        // translate these points to conform to the java rendering model
+        p1.x = (float) ((datasetI.xdata[i] - xAxis.axisMin) / xAxisRange * w);
+        p1.y = (float) ((yAxis.axisMax - datasetI.ydata[i]) / yAxisRange * (h - 1));
+
+        drawLine(g, p0.x, p0.y, p1.x, p1.y);
+        if (showErrorInY && (datasetI.errorInY != null)) {
+          float errorDist = (float) (datasetI.errorInY[i] / yAxisRange * h);
+          drawLine(g, p1.x, p1.y, p1.x, p1.y - errorDist);
+          drawLine(g, p1.x, p1.y, p1.x, p1.y + errorDist);
+        }
+
+        // substitute this point for p1 so we do not have to calculate it again
+        p0.x = p1.x;
+        p0.y = p1.y;
+      }
+    }
+
+    private void drawHorizontalVertical(Graphics2D g) {
+      for (int k = 0; k < numDrawPoints; k++) {
+        int i = drawIndex[k];
+        // translate these points to conform to the java rendering model
+        p1.x = (float) ((datasetI.xdata[i] - xAxis.axisMin) / xAxisRange * w);
+        p1.y = (float) ((yAxis.axisMax - datasetI.ydata[i]) / yAxisRange * (h - 1));
+
+        drawLine(g, p0.x, p0.y, p1.x, p0.y);
+        drawLine(g, p1.x, p0.y, p1.x, p1.y);
+        if (showErrorInY && (datasetI.errorInY != null)) {
+          float errorDist = (float) (datasetI.errorInY[i] / yAxisRange * h);
+          drawLine(g, (p0.x + p1.x) / 2, p0.y, (p0.x + p1.x) / 2, p0.y - errorDist);
+          drawLine(g, (p0.x + p1.x) / 2, p0.y, (p0.x + p1.x) / 2, p0.y + errorDist);
+        }
+
+        // substitute this point for p1 so we do not have to calculate it again
+        p0.x = p1.x;
+        p0.y = p1.y;
+      }
+    }
+
+    private void drawVerticalHorizontal(Graphics2D g) {
+      for (int k = 0; k < numDrawPoints; k++) {
+        int i = drawIndex[k];
+        // translate these points to conform to the java rendering model
+        p1.x = (float) ((datasetI.xdata[i] - xAxis.axisMin) / xAxisRange * w);
+        p1.y = (float) ((yAxis.axisMax - datasetI.ydata[i]) / yAxisRange * (h - 1));
+
+        drawLine(g, p0.x, p0.y, p0.x, p1.y);
+        drawLine(g, p0.x, p1.y, p1.x, p1.y);
+        if (showErrorInY && (datasetI.errorInY != null)) {
+          float errorDist = (float) (datasetI.errorInY[i] / yAxisRange * h);
+          drawLine(g, (p0.x + p1.x) / 2, p1.y, (p0.x + p1.x) / 2, p1.y - errorDist);
+          drawLine(g, (p0.x + p1.x) / 2, p1.y, (p0.x + p1.x) / 2, p1.y + errorDist);
+        }
+
+        // substitute this point for p1 so we do not have to calculate it again
+        p0.x = p1.x;
+        p0.y = p1.y;
+      }
+    }
+  }
+}
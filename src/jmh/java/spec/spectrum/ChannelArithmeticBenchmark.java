@@ -0,0 +1,103 @@
+package spec.spectrum;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times the add and multiply kernels of ChannelArithmetic on the flat arrays of a size by size
+ * spectrum ... on the vector API (the jmh task starts the JVM with the module), on the scalar loops
+ * (in a JVM with the spec.spectrum.vectorKernels property turned off), and as the loops of
+ * ManipulateSpectrum were before ChannelArithmetic. All on one thread, without RowBlocks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g"})
+public class ChannelArithmeticBenchmark {
+  @Param({"1024", "4096"})
+  public int size;
+
+  private int[] count1;
+  private double[] uncertainty1;
+  private int[] count2;
+  private double[] uncertainty2;
+  private int[] count;
+  private double[] uncertainty;
+
+  @Setup
+  public void setUp() {
+    int numChannels = size * size;
+    count1 = new int[numChannels];
+    uncertainty1 = new double[numChannels];
+    count2 = new int[numChannels];
+    uncertainty2 = new double[numChannels];
+    count = new int[numChannels];
+    uncertainty = new double[numChannels];
+
+    Random random = new Random(1);
+    for (int i = 0; i < numChannels; i++) {
+      count1[i] = random.nextInt(1000);
+      count2[i] = random.nextInt(1000) + 1;
+      uncertainty1[i] = Math.sqrt(count1[i]);
+      uncertainty2[i] = Math.sqrt(count2[i]);
+    }
+  }
+
+  @Benchmark
+  public void add() {
+    ChannelArithmetic.apply(
+        ChannelArithmetic.ADD, count1, uncertainty1, count2, uncertainty2, count, uncertainty);
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = {"-Xmx3g", "-Dspec.spectrum.vectorKernels=false"})
+  public void addScalar() {
+    add();
+  }
+
+  /** the add loop of ManipulateSpectrum before ChannelArithmetic */
+  @Benchmark
+  public void addBefore() {
+    for (int i = 0; i < count.length; i++) {
+      uncertainty[i] =
+          Math.sqrt((uncertainty1[i] * uncertainty1[i]) + (uncertainty2[i] * uncertainty2[i]));
+      count[i] = count1[i] + count2[i];
+    }
+  }
+
+  @Benchmark
+  public void multiply() {
+    ChannelArithmetic.apply(
+        ChannelArithmetic.MULTIPLY, count1, uncertainty1, count2, uncertainty2, count, uncertainty);
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = {"-Xmx3g", "-Dspec.spectrum.vectorKernels=false"})
+  public void multiplyScalar() {
+    multiply();
+  }
+
+  /** the multiply loop of ManipulateSpectrum before ChannelArithmetic */
+  @Benchmark
+  public void multiplyBefore() {
+    for (int i = 0; i < count.length; i++) {
+      uncertainty[i] =
+          Math.sqrt(
+              Math.pow(count2[i] * uncertainty1[i], 2) + Math.pow(count1[i] * uncertainty2[i], 2));
+      count[i] = count1[i] * count2[i];
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package spec.spectrum;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times the add and multiply kernels of ChannelArithmetic on the arrays of a 16384 channel
+ * 1-dimensional spectrum, as ChannelArithmeticBenchmark does for 2-dimensional ones ... on the
+ * vector API, on the scalar loops, and as the loops of ManipulateSpectrum.OneDim were before
+ * ChannelArithmetic. The results go into separate arrays, the kernel the in place apply of
+ * Spectrum.OneDim runs too, so that the counts do not grow from one call to the next.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ChannelArithmeticOneDimBenchmark {
+  public static final int NUM_CHANNELS = 16384;
+
+  private int[] count1;
+  private double[] uncertainty1;
+  private int[] count2;
+  private double[] uncertainty2;
+  private int[] count;
+  private double[] uncertainty;
+
+  @Setup
+  public void setUp() {
+    count1 = new int[NUM_CHANNELS];
+    uncertainty1 = new double[NUM_CHANNELS];
+    count2 = new int[NUM_CHANNELS];
+    uncertainty2 = new double[NUM_CHANNELS];
+    count = new int[NUM_CHANNELS];
+    uncertainty = new double[NUM_CHANNELS];
+
+    Random random = new Random(1);
+    for (int i = 0; i < NUM_CHANNELS; i++) {
+      count1[i] = random.nextInt(1000);
+      count2[i] = random.nextInt(1000) + 1;
+      uncertainty1[i] = Math.sqrt(count1[i]);
+      uncertainty2[i] = Math.sqrt(count2[i]);
+    }
+  }
+
+  @Benchmark
+  public void add() {
+    ChannelArithmetic.apply(
+        ChannelArithmetic.ADD, count1, uncertainty1, count2, uncertainty2, count, uncertainty);
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = {"-Dspec.spectrum.vectorKernels=false"})
+  public void addScalar() {
+    add();
+  }
+
+  /** the add loop of ManipulateSpectrum.OneDim before ChannelArithmetic */
+  @Benchmark
+  public void addBefore() {
+    for (int i = 0; i < NUM_CHANNELS; i++) {
+      uncertainty[i] =
+          Math.sqrt((uncertainty1[i] * uncertainty1[i]) + (uncertainty2[i] * uncertainty2[i]));
+      count[i] = count1[i] + count2[i];
+    }
+  }
+
+  @Benchmark
+  public void multiply() {
+    ChannelArithmetic.apply(
+        ChannelArithmetic.MULTIPLY, count1, uncertainty1, count2, uncertainty2, count, uncertainty);
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = {"-Dspec.spectrum.vectorKernels=false"})
+  public void multiplyScalar() {
+    multiply();
+  }
+
+  /** the multiply loop of ManipulateSpectrum.OneDim before ChannelArithmetic */
+  @Benchmark
+  public void multiplyBefore() {
+    for (int i = 0; i < NUM_CHANNELS; i++) {
+      uncertainty[i] =
+          Math.sqrt(
+              Math.pow(count2[i] * uncertainty1[i], 2) + Math.pow(count1[i] * uncertainty2[i], 2));
+      count[i] = count1[i] * count2[i];
+    }
+  }
+}
@@ -2,7 +2,19 @@ package spec.io;
 
 import java.io.File;
 import java.lang.reflect.Method;
-import java.util.Hashtable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
 import javax.swing.JList;
 import javax.swing.JOptionPane;
 import spec.main.SpecConstants;
@@ -33,46 +45,270 @@ public abstract class SpecFormat {
     else return null;
   }
 
-  /** Tries to get the appropriate format ... or null if it couln't get one */
+  /**
+   * Tries to get the appropriate format ... or null if it couln't get one. The header of the file
+   * is probed first (see probe (Path)), which is cheap enough to call on every file in a
+   * directory. A file the probe turns down (an spt file whose header lines run past PROBE_LENGTH
+   * bytes, say) is then checked by formatAndDimension of each format, the one matching the file
+   * extension first, which reads as much of the file as it needs. Only a dimension of 1 or 2 is
+   * taken from these checks, as the probe does.
+   */
   public static SpecFormatAndDim getSuitableFormat(File file) {
-    String supportedExtension = null;
-    int tempSpecDimension = -1;
-    SpecFormat[] formats = new SpecFormat[SpecConstants.SPEC_FORMAT.length];
-
-    for (int i = 0; i < formats.length; i++) {
-      formats[i] = getInstance(SpecConstants.SPEC_FORMAT[i]);
+    try {
+      SpecHeader specHeader = probe(file.toPath());
+      return new SpecFormatAndDim(
+          getInstance(specHeader.getExtension()), specHeader.getSpecDimension());
+    } catch (SpecFormat.IOException e) {
+      // not in the head of the file ... fall back on the full check below
     }
 
-    for (int i = 0; i < formats.length; i++) {
-      if (file.getName().endsWith(SpecConstants.SPEC_FORMAT[i])) {
+    String[] extensions = SpecConstants.SPEC_FORMAT;
+    for (int pass = 0; pass < 2; pass++) {
+      for (int i = 0; i < extensions.length; i++) {
+        if (file.getName().endsWith(extensions[i]) != (pass == 0)) continue;
+
+        SpecFormat specFormat = getInstance(extensions[i]);
         try {
-          supportedExtension = SpecConstants.SPEC_FORMAT[i];
-          tempSpecDimension = formats[i].formatAndDimension(file);
-          return new SpecFormatAndDim(formats[i], tempSpecDimension);
-        } catch (Exception e) {
-          System.out.println(e.getMessage());
-          e.printStackTrace();
+          int specDimension = specFormat.formatAndDimension(file);
+          if (specDimension == 1 || specDimension == 2)
+            return new SpecFormatAndDim(specFormat, specDimension);
+        } catch (SpecFormat.IOException e) {
+          // does not fit this format ... try the next one
         }
       }
-      break;
     }
 
-    for (int i = 0; i < formats.length; i++) {
-      if (supportedExtension != null && supportedExtension == SpecConstants.SPEC_FORMAT[i])
-        continue;
+    return null;
+  }
+
+  /** number of probed headers kept in the probe cache */
+  public static final int PROBE_CACHE_SIZE = 4096;
+
+  /** number of bytes read from the beginning of a file by probe (Path) */
+  public static final int PROBE_LENGTH = 1024;
+
+  /** cache of probed headers, keyed by absolute path ... least recently used entries go first */
+  private static final Map probeCache =
+      Collections.synchronizedMap(
+          new LinkedHashMap(64, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry eldest) {
+              return size() > PROBE_CACHE_SIZE;
+            }
+          });
+
+  /**
+   * Reads just the header of a spectrum file (the first PROBE_LENGTH bytes, in a single read) and
+   * returns what it says about the spectrum, without decoding any channels. The format whose
+   * extension matches the file name is tried first, then the others.
+   *
+   * <p>Results (including files which fit no format) are cached by path, and reused for as long as
+   * the modification time and size of the file stay the same.
+   *
+   * @exception SpecFormat.IOException thrown if the file cannot be read or fits no format
+   */
+  public static SpecHeader probe(Path path) throws SpecFormat.IOException {
+    Path key = path.toAbsolutePath().normalize();
+    long lastModified;
+    long size;
+
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+      lastModified = attributes.lastModifiedTime().toMillis();
+      size = attributes.size();
+    } catch (java.io.IOException e) {
+      throw new SpecFormat.IOException("Could not read the file: " + key, e);
+    }
+
+    ProbeCacheEntry entry = (ProbeCacheEntry) probeCache.get(key);
+    if (entry == null || entry.lastModified != lastModified || entry.size != size) {
+      entry = new ProbeCacheEntry(lastModified, size, probeUncached(key));
+      probeCache.put(key, entry);
+    }
+
+    if (entry.specHeader == null)
+      throw new SpecFormat.IOException(
+          "The file: " + key.getFileName() + " did not fit a spectrum format");
+
+    return entry.specHeader;
+  }
+
+  /** removes all the cached headers ... probe (Path) will read every file again */
+  public static void clearProbeCache() {
+    probeCache.clear();
+  }
 
+  /** reads the head of the file and asks each format for its header ... or null if none fit */
+  private static SpecHeader probeUncached(Path path) throws SpecFormat.IOException {
+    ByteBuffer head = ByteBuffer.allocate(PROBE_LENGTH);
+
+    try {
+      FileChannel theChannel = FileChannel.open(path, StandardOpenOption.READ);
       try {
-        tempSpecDimension = formats[i].formatAndDimension(file);
-        return new SpecFormatAndDim(formats[i], tempSpecDimension);
-      } catch (Exception e) {
-        System.out.println(e.getMessage());
-        e.printStackTrace();
+        while (head.hasRemaining()) {
+          if (theChannel.read(head) < 0) break;
+        }
+      } finally {
+        theChannel.close();
+      }
+    } catch (java.io.IOException e) {
+      throw new SpecFormat.IOException("Could not read the file: " + path, e);
+    }
+
+    head.flip();
+    head.order(ByteOrder.LITTLE_ENDIAN);
+
+    String fileName = path.getFileName().toString();
+    String[] extensions = SpecConstants.SPEC_FORMAT;
+
+    // the format matching the file extension gets the first try
+    for (int pass = 0; pass < 2; pass++) {
+      for (int i = 0; i < extensions.length; i++) {
+        if (fileName.endsWith(extensions[i]) != (pass == 0)) continue;
+
+        try {
+          return getInstance(extensions[i]).probeHeader(head.duplicate().order(head.order()));
+        } catch (SpecFormat.IOException e) {
+          // does not fit this format ... try the next one
+        }
       }
     }
 
     return null;
   }
 
+  /**
+   * Decodes the header from the head of a file (at most PROBE_LENGTH bytes, little-endian by
+   * default). Formats which can recognize their files from the header alone override this.
+   *
+   * @exception SpecFormat.IOException thrown if the head does not fit this format
+   */
+  protected SpecHeader probeHeader(ByteBuffer head) throws SpecFormat.IOException {
+    throw new SpecFormat.IOException("This format cannot be probed");
+  }
+
+  /** number of bytes of the checksum footer (see appendChecksum (Path)) */
+  public static final int CHECKSUM_FOOTER_LENGTH = 24;
+
+  /** the bytes the checksum footer starts with */
+  private static final byte[] CHECKSUM_MAGIC = {'S', 'P', 'E', 'C', 'C', 'R', 'C', '1'};
+
+  /**
+   * Appends a checksum footer to a spectrum file ... CHECKSUM_MAGIC, the length of the file before
+   * the footer (a long) and the CRC32 of those bytes (a long), little-endian. The binary formats
+   * only read the parts of the file their header points to, so a file with a footer still reads as
+   * before, also with programs that know nothing of it ... the text formats stop at the footer (see
+   * getLengthBeforeChecksum (FileChannel)).
+   */
+  public static void appendChecksum(Path path) throws java.io.IOException {
+    FileChannel theChannel =
+        FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      long length = theChannel.size();
+      ByteBuffer footer = ByteBuffer.allocate(CHECKSUM_FOOTER_LENGTH);
+      footer.order(ByteOrder.LITTLE_ENDIAN);
+      footer.put(CHECKSUM_MAGIC);
+      footer.putLong(length);
+      footer.putLong(getChecksum(theChannel, length));
+      footer.flip();
+      while (footer.hasRemaining()) {
+        theChannel.write(footer, length + footer.position());
+      }
+    } finally {
+      theChannel.close();
+    }
+  }
+
+  /**
+   * Checks a spectrum file against its checksum footer (see appendChecksum (Path)), without
+   * decoding any of it ... one pass of CRC32 over the file. Returns true if the file has a
+   * footer and matches it, and false if it has no footer.
+   *
+   * @exception SpecFormat.IOException thrown if the file cannot be read, or does not match its
+   *     footer ... it was changed after it was written
+   */
+  public static boolean checkChecksum(Path path) throws SpecFormat.IOException {
+    try {
+      FileChannel theChannel = FileChannel.open(path, StandardOpenOption.READ);
+      try {
+        ByteBuffer footer = readChecksumFooter(theChannel);
+        if (footer == null) return false;
+
+        long length = footer.getLong();
+        long checksum = footer.getLong();
+        if (length != theChannel.size() - CHECKSUM_FOOTER_LENGTH
+            || checksum != getChecksum(theChannel, length))
+          throw new SpecFormat.IOException(
+              "The file: " + path.getFileName() + " does not match its checksum");
+        return true;
+      } finally {
+        theChannel.close();
+      }
+    } catch (java.io.IOException e) {
+      throw new SpecFormat.IOException("Could not read the file: " + path, e);
+    }
+  }
+
+  /**
+   * the length of the spectrum in a file ... the size of the file, less the checksum footer if it
+   * has one whose length fits the file. The footer is not checked against the file here, that is
+   * what checkChecksum (Path) is for.
+   */
+  public static long getLengthBeforeChecksum(FileChannel theChannel) throws java.io.IOException {
+    long size = theChannel.size();
+    ByteBuffer footer = readChecksumFooter(theChannel);
+    if (footer != null && footer.getLong() == size - CHECKSUM_FOOTER_LENGTH)
+      return size - CHECKSUM_FOOTER_LENGTH;
+    return size;
+  }
+
+  /**
+   * the footer at the end of the channel, positioned after CHECKSUM_MAGIC ... or null if the
+   * channel does not end with one
+   */
+  private static ByteBuffer readChecksumFooter(FileChannel theChannel) throws java.io.IOException {
+    long size = theChannel.size();
+    if (size < CHECKSUM_FOOTER_LENGTH) return null;
+
+    ByteBuffer footer = ByteBuffer.allocate(CHECKSUM_FOOTER_LENGTH);
+    footer.order(ByteOrder.LITTLE_ENDIAN);
+    long footerOffset = size - CHECKSUM_FOOTER_LENGTH;
+    while (footer.hasRemaining()) {
+      if (theChannel.read(footer, footerOffset + footer.position()) < 0) break;
+    }
+    footer.flip();
+    if (footer.remaining() < CHECKSUM_FOOTER_LENGTH) return null;
+
+    byte[] magic = new byte[CHECKSUM_MAGIC.length];
+    footer.get(magic);
+    if (!(Arrays.equals(magic, CHECKSUM_MAGIC))) return null;
+    return footer;
+  }
+
+  /** number of bytes read from the file at a time to work out its checksum */
+  public static final int CHECKSUM_BUFFER_SIZE = 1 << 16;
+
+  /**
+   * the CRC32 of the first length bytes of the channel, read a buffer at a time ... not through a
+   * mapping, which would keep the file open until it is garbage collected, and on Windows stop
+   * SpectrumWriter moving the file it has just checksummed over the spectrum file
+   */
+  private static long getChecksum(FileChannel theChannel, long length) throws java.io.IOException {
+    CRC32 crc = new CRC32();
+    ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(CHECKSUM_BUFFER_SIZE, length));
+    long position = 0;
+    while (position < length) {
+      buffer.clear();
+      buffer.limit((int) Math.min(buffer.capacity(), length - position));
+      int numRead = theChannel.read(buffer, position);
+      if (numRead < 0)
+        throw new java.io.EOFException("The file ends before the length of its checksum");
+      buffer.flip();
+      crc.update(buffer);
+      position += numRead;
+    }
+    return crc.getValue();
+  }
+
   /**
    * Tries to get the appropriate format ... or null if it couln't get one.
    *
@@ -184,47 +420,60 @@ public abstract class SpecFormat {
    * we can never tell how big these values can get ... like in the error I got
    */
   public static int[] getArrayOfSetBit(byte[] arrayOfBitmaskRecord, int numNonZeroElements) {
-
     int[] arrayOfSetBit = new int[numNonZeroElements];
+    getArrayOfSetBit(arrayOfBitmaskRecord, arrayOfSetBit);
+    return (arrayOfSetBit);
+  }
 
+  /**
+   * Writes the position of each set bit in the bitmask record into the passed arrayOfSetBit, and
+   * returns the number of positions written (never more than arrayOfSetBit.length).
+   *
+   * <p>The positions come out in the order the channel values are stored in the file: bytes in
+   * ascending order, and within each byte from bit 7 down to bit 0 ... so bit b of byte i is the
+   * channel (i * 8) + b. The bitmask is walked 8 bytes at a time as a big-endian long, which puts
+   * byte 0 bit 7 at the top of the word, so Long.numberOfLeadingZeros gives the set bits in
+   * exactly that order, and an empty word (the common case in sparse spectra) is skipped in one
+   * comparison. Nothing is allocated.
+   */
+  public static int getArrayOfSetBit(byte[] arrayOfBitmaskRecord, int[] arrayOfSetBit) {
+    int numWordBytes = (arrayOfBitmaskRecord.length / 8) * 8;
+    int max = arrayOfSetBit.length;
     int k = 0;
 
-    for (int i = 0; i < arrayOfBitmaskRecord.length; i++) {
-      byte[] temp = (byte[]) setBitTable.get(new Byte(arrayOfBitmaskRecord[i]));
-      for (int j = 0; j < temp.length; j++) {
-        arrayOfSetBit[k] = ((i * 8) + temp[j]);
+    for (int i = 0; i < numWordBytes && k < max; i = i + 8) {
+      long word =
+          ((long) (arrayOfBitmaskRecord[i] & 0xff) << 56)
+              | ((long) (arrayOfBitmaskRecord[i + 1] & 0xff) << 48)
+              | ((long) (arrayOfBitmaskRecord[i + 2] & 0xff) << 40)
+              | ((long) (arrayOfBitmaskRecord[i + 3] & 0xff) << 32)
+              | ((long) (arrayOfBitmaskRecord[i + 4] & 0xff) << 24)
+              | ((long) (arrayOfBitmaskRecord[i + 5] & 0xff) << 16)
+              | ((long) (arrayOfBitmaskRecord[i + 6] & 0xff) << 8)
+              | ((long) (arrayOfBitmaskRecord[i + 7] & 0xff));
+
+      while (word != 0 && k < max) {
+        int lz = Long.numberOfLeadingZeros(word);
+        arrayOfSetBit[k] = ((i + (lz >>> 3)) * 8) + (7 - (lz & 7));
         k++;
+        // clear the bit just found
+        word &= ~(0x8000000000000000L >>> lz);
       }
     }
 
-    return (arrayOfSetBit);
-  }
-
-  /*
-  * *******************************************
-  * ALTERNATIVE WAY TO CHECK FOR SET BITS
-  * *******************************************
-  private final int[] getSet (byte bits)
-  {
-  int[] setbit = new int [8];
-  int setbitOffset = 0;
-
-  for (int bitnum = 0; bitnum < 7; bitnum++) {
-  if ( (bits & (1 << bitnum)) != 0) {
-  setbit [setbitOffset] = bitnum;
-  setbitOffset++;
-  }
-  }
-
-  int returnBit = new int [setbitOffset];
-  for (int i = 0; i < setbitOffset; i++) {
-  returnBit [i] = setbit [i];
-  }
+    // the few trailing bytes which do not fill a long
+    for (int i = numWordBytes; i < arrayOfBitmaskRecord.length && k < max; i++) {
+      int bits = arrayOfBitmaskRecord[i] & 0xff;
+      for (int bitnum = 7; bitnum >= 0 && k < max; bitnum--) {
+        if ((bits & (1 << bitnum)) != 0) {
+          arrayOfSetBit[k] = (i * 8) + bitnum;
+          k++;
+        }
+      }
+    }
 
-  return returnBit;
+    return k;
   }
-  * *******************************************
-  */
 
   public static class IOException extends java.lang.Exception {
     public IOException(String msg) {
@@ -236,6 +485,100 @@ public abstract class SpecFormat {
     }
   }
 
+  /**
+   * What the header of a spectrum file says about the spectrum ... returned by probe (Path). It is
+   * immutable, so the cached instances can be handed out freely.
+   */
+  public static final class SpecHeader {
+    private final String extension;
+    private final String specName;
+    private final Date specDate;
+    private final int specDimension;
+    private final int[] specShape;
+    private final int loadFormat;
+    private final int numNonZeroElements;
+
+    /**
+     * specShape is {xLength} for one dimensional spectra and {yLength, xLength} for two dimensional
+     * spectra ... the same order as the spec shapes of the SpecChannel
+     */
+    public SpecHeader(
+        String extension,
+        String specName,
+        Date specDate,
+        int specDimension,
+        int[] specShape,
+        int loadFormat,
+        int numNonZeroElements) {
+      this.extension = extension;
+      this.specName = specName;
+      this.specDate = (specDate == null) ? null : new Date(specDate.getTime());
+      this.specDimension = specDimension;
+      this.specShape = specShape.clone();
+      this.loadFormat = loadFormat;
+      this.numNonZeroElements = numNonZeroElements;
+    }
+
+    /** the extension of the format that recognized the file */
+    public String getExtension() {
+      return extension;
+    }
+
+    public String getSpecName() {
+      return specName;
+    }
+
+    /** the date in the header ... or null if it could not be parsed */
+    public Date getSpecDate() {
+      return (specDate == null) ? null : new Date(specDate.getTime());
+    }
+
+    public int getSpecDimension() {
+      return specDimension;
+    }
+
+    public int[] getSpecShape() {
+      return specShape.clone();
+    }
+
+    public int getLoadFormat() {
+      return loadFormat;
+    }
+
+    /** the number of non-zero channels ... or -1 if the format does not record it */
+    public int getNumNonZeroElements() {
+      return numNonZeroElements;
+    }
+
+    public String toString() {
+      StringBuffer sb = new StringBuffer();
+      sb.append(specName);
+      sb.append(" : ");
+      sb.append(specDimension);
+      sb.append("D : ");
+      for (int i = 0; i < specShape.length; i++) {
+        if (i > 0) sb.append(" X ");
+        sb.append(specShape[i]);
+      }
+      sb.append(" channels");
+      return sb.toString();
+    }
+  }
+
+  /** an entry in the probe cache ... the header, with the file attributes it was read with */
+  private static final class ProbeCacheEntry {
+    final long lastModified;
+    final long size;
+    /** null if the file did not fit any format */
+    final SpecHeader specHeader;
+
+    ProbeCacheEntry(long lastModified, long size, SpecHeader specHeader) {
+      this.lastModified = lastModified;
+      this.size = size;
+      this.specHeader = specHeader;
+    }
+  }
+
   /**
    * Encapsulates the specFormat and the dimension ... ... returned by calls to getSuitableFormat
    * (File)
@@ -249,270 +592,4 @@ public abstract class SpecFormat {
       this.dim = dim;
     }
   }
-
-  /*
-    Lookup table that finds which bits are set in a particular byte
-    static initializer for it at bottom of file
-  */
-  public static Hashtable setBitTable = new Hashtable(270, 0.97f);
-
-  // static initializer so this setBitTable is only loaded once
-  static {
-    setBitTable.put(new Byte((byte) -128), new byte[] {7});
-    setBitTable.put(new Byte((byte) -127), new byte[] {7, 0});
-    setBitTable.put(new Byte((byte) -126), new byte[] {7, 1});
-    setBitTable.put(new Byte((byte) -125), new byte[] {7, 1, 0});
-    setBitTable.put(new Byte((byte) -124), new byte[] {7, 2});
-    setBitTable.put(new Byte((byte) -123), new byte[] {7, 2, 0});
-    setBitTable.put(new Byte((byte) -122), new byte[] {7, 2, 1});
-    setBitTable.put(new Byte((byte) -121), new byte[] {7, 2, 1, 0});
-    setBitTable.put(new Byte((byte) -120), new byte[] {7, 3});
-    setBitTable.put(new Byte((byte) -119), new byte[] {7, 3, 0});
-    setBitTable.put(new Byte((byte) -118), new byte[] {7, 3, 1});
-    setBitTable.put(new Byte((byte) -117), new byte[] {7, 3, 1, 0});
-    setBitTable.put(new Byte((byte) -116), new byte[] {7, 3, 2});
-    setBitTable.put(new Byte((byte) -115), new byte[] {7, 3, 2, 0});
-    setBitTable.put(new Byte((byte) -114), new byte[] {7, 3, 2, 1});
-    setBitTable.put(new Byte((byte) -113), new byte[] {7, 3, 2, 1, 0});
-    setBitTable.put(new Byte((byte) -112), new byte[] {7, 4});
-    setBitTable.put(new Byte((byte) -111), new byte[] {7, 4, 0});
-    setBitTable.put(new Byte((byte) -110), new byte[] {7, 4, 1});
-    setBitTable.put(new Byte((byte) -109), new byte[] {7, 4, 1, 0});
-    setBitTable.put(new Byte((byte) -108), new byte[] {7, 4, 2});
-    setBitTable.put(new Byte((byte) -107), new byte[] {7, 4, 2, 0});
-    setBitTable.put(new Byte((byte) -106), new byte[] {7, 4, 2, 1});
-    setBitTable.put(new Byte((byte) -105), new byte[] {7, 4, 2, 1, 0});
-    setBitTable.put(new Byte((byte) -104), new byte[] {7, 4, 3});
-    setBitTable.put(new Byte((byte) -103), new byte[] {7, 4, 3, 0});
-    setBitTable.put(new Byte((byte) -102), new byte[] {7, 4, 3, 1});
-    setBitTable.put(new Byte((byte) -101), new byte[] {7, 4, 3, 1, 0});
-    setBitTable.put(new Byte((byte) -100), new byte[] {7, 4, 3, 2});
-    setBitTable.put(new Byte((byte) -99), new byte[] {7, 4, 3, 2, 0});
-    setBitTable.put(new Byte((byte) -98), new byte[] {7, 4, 3, 2, 1});
-    setBitTable.put(new Byte((byte) -97), new byte[] {7, 4, 3, 2, 1, 0});
-    setBitTable.put(new Byte((byte) -96), new byte[] {7, 5});
-    setBitTable.put(new Byte((byte) -95), new byte[] {7, 5, 0});
-    setBitTable.put(new Byte((byte) -94), new byte[] {7, 5, 1});
-    setBitTable.put(new Byte((byte) -93), new byte[] {7, 5, 1, 0});
-    setBitTable.put(new Byte((byte) -92), new byte[] {7, 5, 2});
-    setBitTable.put(new Byte((byte) -91), new byte[] {7, 5, 2, 0});
-    setBitTable.put(new Byte((byte) -90), new byte[] {7, 5, 2, 1});
-    setBitTable.put(new Byte((byte) -89), new byte[] {7, 5, 2, 1, 0});
-    setBitTable.put(new Byte((byte) -88), new byte[] {7, 5, 3});
-    setBitTable.put(new Byte((byte) -87), new byte[] {7, 5, 3, 0});
-    setBitTable.put(new Byte((byte) -86), new byte[] {7, 5, 3, 1});
-    setBitTable.put(new Byte((byte) -85), new byte[] {7, 5, 3, 1, 0});
-    setBitTable.put(new Byte((byte) -84), new byte[] {7, 5, 3, 2});
-    setBitTable.put(new Byte((byte) -83), new byte[] {7, 5, 3, 2, 0});
-    setBitTable.put(new Byte((byte) -82), new byte[] {7, 5, 3, 2, 1});
-    setBitTable.put(new Byte((byte) -81), new byte[] {7, 5, 3, 2, 1, 0});
-    setBitTable.put(new Byte((byte) -80), new byte[] {7, 5, 4});
-    setBitTable.put(new Byte((byte) -79), new byte[] {7, 5, 4, 0});
-    setBitTable.put(new Byte((byte) -78), new byte[] {7, 5, 4, 1});
-    setBitTable.put(new Byte((byte) -77), new byte[] {7, 5, 4, 1, 0});
-    setBitTable.put(new Byte((byte) -76), new byte[] {7, 5, 4, 2});
-    setBitTable.put(new Byte((byte) -75), new byte[] {7, 5, 4, 2, 0});
-    setBitTable.put(new Byte((byte) -74), new byte[] {7, 5, 4, 2, 1});
-    setBitTable.put(new Byte((byte) -73), new byte[] {7, 5, 4, 2, 1, 0});
-    setBitTable.put(new Byte((byte) -72), new byte[] {7, 5, 4, 3});
-    setBitTable.put(new Byte((byte) -71), new byte[] {7, 5, 4, 3, 0});
-    setBitTable.put(new Byte((byte) -70), new byte[] {7, 5, 4, 3, 1});
-    setBitTable.put(new Byte((byte) -69), new byte[] {7, 5, 4, 3, 1, 0});
-    setBitTable.put(new Byte((byte) -68), new byte[] {7, 5, 4, 3, 2});
-    setBitTable.put(new Byte((byte) -67), new byte[] {7, 5, 4, 3, 2, 0});
-    setBitTable.put(new Byte((byte) -66), new byte[] {7, 5, 4, 3, 2, 1});
-    setBitTable.put(new Byte((byte) -65), new byte[] {7, 5, 4, 3, 2, 1, 0});
-    setBitTable.put(new Byte((byte) -64), new byte[] {7, 6});
-    setBitTable.put(new Byte((byte) -63), new byte[] {7, 6, 0});
-    setBitTable.put(new Byte((byte) -62), new byte[] {7, 6, 1});
-    setBitTable.put(new Byte((byte) -61), new byte[] {7, 6, 1, 0});
-    setBitTable.put(new Byte((byte) -60), new byte[] {7, 6, 2});
-    setBitTable.put(new Byte((byte) -59), new byte[] {7, 6, 2, 0});
-    setBitTable.put(new Byte((byte) -58), new byte[] {7, 6, 2, 1});
-    setBitTable.put(new Byte((byte) -57), new byte[] {7, 6, 2, 1, 0});
-    setBitTable.put(new Byte((byte) -56), new byte[] {7, 6, 3});
-    setBitTable.put(new Byte((byte) -55), new byte[] {7, 6, 3, 0});
-    setBitTable.put(new Byte((byte) -54), new byte[] {7, 6, 3, 1});
-    setBitTable.put(new Byte((byte) -53), new byte[] {7, 6, 3, 1, 0});
-    setBitTable.put(new Byte((byte) -52), new byte[] {7, 6, 3, 2});
-    setBitTable.put(new Byte((byte) -51), new byte[] {7, 6, 3, 2, 0});
-    setBitTable.put(new Byte((byte) -50), new byte[] {7, 6, 3, 2, 1});
-    setBitTable.put(new Byte((byte) -49), new byte[] {7, 6, 3, 2, 1, 0});
-    setBitTable.put(new Byte((byte) -48), new byte[] {7, 6, 4});
-    setBitTable.put(new Byte((byte) -47), new byte[] {7, 6, 4, 0});
-    setBitTable.put(new Byte((byte) -46), new byte[] {7, 6, 4, 1});
-    setBitTable.put(new Byte((byte) -45), new byte[] {7, 6, 4, 1, 0});
-    setBitTable.put(new Byte((byte) -44), new byte[] {7, 6, 4, 2});
-    setBitTable.put(new Byte((byte) -43), new byte[] {7, 6, 4, 2, 0});
-    setBitTable.put(new Byte((byte) -42), new byte[] {7, 6, 4, 2, 1});
-    setBitTable.put(new Byte((byte) -41), new byte[] {7, 6, 4, 2, 1, 0});
-    setBitTable.put(new Byte((byte) -40), new byte[] {7, 6, 4, 3});
-    setBitTable.put(new Byte((byte) -39), new byte[] {7, 6, 4, 3, 0});
-    setBitTable.put(new Byte((byte) -38), new byte[] {7, 6, 4, 3, 1});
-    setBitTable.put(new Byte((byte) -37), new byte[] {7, 6, 4, 3, 1, 0});
-    setBitTable.put(new Byte((byte) -36), new byte[] {7, 6, 4, 3, 2});
-    setBitTable.put(new Byte((byte) -35), new byte[] {7, 6, 4, 3, 2, 0});
-    setBitTable.put(new Byte((byte) -34), new byte[] {7, 6, 4, 3, 2, 1});
-    setBitTable.put(new Byte((byte) -33), new byte[] {7, 6, 4, 3, 2, 1, 0});
-    setBitTable.put(new Byte((byte) -32), new byte[] {7, 6, 5});
-    setBitTable.put(new Byte((byte) -31), new byte[] {7, 6, 5, 0});
-    setBitTable.put(new Byte((byte) -30), new byte[] {7, 6, 5, 1});
-    setBitTable.put(new Byte((byte) -29), new byte[] {7, 6, 5, 1, 0});
-    setBitTable.put(new Byte((byte) -28), new byte[] {7, 6, 5, 2});
-    setBitTable.put(new Byte((byte) -27), new byte[] {7, 6, 5, 2, 0});
-    setBitTable.put(new Byte((byte) -26), new byte[] {7, 6, 5, 2, 1});
-    setBitTable.put(new Byte((byte) -25), new byte[] {7, 6, 5, 2, 1, 0});
-    setBitTable.put(new Byte((byte) -24), new byte[] {7, 6, 5, 3});
-    setBitTable.put(new Byte((byte) -23), new byte[] {7, 6, 5, 3, 0});
-    setBitTable.put(new Byte((byte) -22), new byte[] {7, 6, 5, 3, 1});
-    setBitTable.put(new Byte((byte) -21), new byte[] {7, 6, 5, 3, 1, 0});
-    setBitTable.put(new Byte((byte) -20), new byte[] {7, 6, 5, 3, 2});
-    setBitTable.put(new Byte((byte) -19), new byte[] {7, 6, 5, 3, 2, 0});
-    setBitTable.put(new Byte((byte) -18), new byte[] {7, 6, 5, 3, 2, 1});
-    setBitTable.put(new Byte((byte) -17), new byte[] {7, 6, 5, 3, 2, 1, 0});
-    setBitTable.put(new Byte((byte) -16), new byte[] {7, 6, 5, 4});
-    setBitTable.put(new Byte((byte) -15), new byte[] {7, 6, 5, 4, 0});
-    setBitTable.put(new Byte((byte) -14), new byte[] {7, 6, 5, 4, 1});
-    setBitTable.put(new Byte((byte) -13), new byte[] {7, 6, 5, 4, 1, 0});
-    setBitTable.put(new Byte((byte) -12), new byte[] {7, 6, 5, 4, 2});
-    setBitTable.put(new Byte((byte) -11), new byte[] {7, 6, 5, 4, 2, 0});
-    setBitTable.put(new Byte((byte) -10), new byte[] {7, 6, 5, 4, 2, 1});
-    setBitTable.put(new Byte((byte) -9), new byte[] {7, 6, 5, 4, 2, 1, 0});
-    setBitTable.put(new Byte((byte) -8), new byte[] {7, 6, 5, 4, 3});
-    setBitTable.put(new Byte((byte) -7), new byte[] {7, 6, 5, 4, 3, 0});
-    setBitTable.put(new Byte((byte) -6), new byte[] {7, 6, 5, 4, 3, 1});
-    setBitTable.put(new Byte((byte) -5), new byte[] {7, 6, 5, 4, 3, 1, 0});
-    setBitTable.put(new Byte((byte) -4), new byte[] {7, 6, 5, 4, 3, 2});
-    setBitTable.put(new Byte((byte) -3), new byte[] {7, 6, 5, 4, 3, 2, 0});
-    setBitTable.put(new Byte((byte) -2), new byte[] {7, 6, 5, 4, 3, 2, 1});
-    setBitTable.put(new Byte((byte) -1), new byte[] {7, 6, 5, 4, 3, 2, 1, 0});
-    setBitTable.put(new Byte((byte) 0), new byte[] {});
-    setBitTable.put(new Byte((byte) 1), new byte[] {0});
-    setBitTable.put(new Byte((byte) 2), new byte[] {1});
-    setBitTable.put(new Byte((byte) 3), new byte[] {1, 0});
-    setBitTable.put(new Byte((byte) 4), new byte[] {2});
-    setBitTable.put(new Byte((byte) 5), new byte[] {2, 0});
-    setBitTable.put(new Byte((byte) 6), new byte[] {2, 1});
-    setBitTable.put(new Byte((byte) 7), new byte[] {2, 1, 0});
-    setBitTable.put(new Byte((byte) 8), new byte[] {3});
-    setBitTable.put(new Byte((byte) 9), new byte[] {3, 0});
-    setBitTable.put(new Byte((byte) 10), new byte[] {3, 1});
-    setBitTable.put(new Byte((byte) 11), new byte[] {3, 1, 0});
-    setBitTable.put(new Byte((byte) 12), new byte[] {3, 2});
-    setBitTable.put(new Byte((byte) 13), new byte[] {3, 2, 0});
-    setBitTable.put(new Byte((byte) 14), new byte[] {3, 2, 1});
-    setBitTable.put(new Byte((byte) 15), new byte[] {3, 2, 1, 0});
-    setBitTable.put(new Byte((byte) 16), new byte[] {4});
-    setBitTable.put(new Byte((byte) 17), new byte[] {4, 0});
-    setBitTable.put(new Byte((byte) 18), new byte[] {4, 1});
-    setBitTable.put(new Byte((byte) 19), new byte[] {4, 1, 0});
-    setBitTable.put(new Byte((byte) 20), new byte[] {4, 2});
-    setBitTable.put(new Byte((byte) 21), new byte[] {4, 2, 0});
-    setBitTable.put(new Byte((byte) 22), new byte[] {4, 2, 1});
-    setBitTable.put(new Byte((byte) 23), new byte[] {4, 2, 1, 0});
-    setBitTable.put(new Byte((byte) 24), new byte[] {4, 3});
-    setBitTable.put(new Byte((byte) 25), new byte[] {4, 3, 0});
-    setBitTable.put(new Byte((byte) 26), new byte[] {4, 3, 1});
-    setBitTable.put(new Byte((byte) 27), new byte[] {4, 3, 1, 0});
-    setBitTable.put(new Byte((byte) 28), new byte[] {4, 3, 2});
-    setBitTable.put(new Byte((byte) 29), new byte[] {4, 3, 2, 0});
-    setBitTable.put(new Byte((byte) 30), new byte[] {4, 3, 2, 1});
-    setBitTable.put(new Byte((byte) 31), new byte[] {4, 3, 2, 1, 0});
-    setBitTable.put(new Byte((byte) 32), new byte[] {5});
-    setBitTable.put(new Byte((byte) 33), new byte[] {5, 0});
-    setBitTable.put(new Byte((byte) 34), new byte[] {5, 1});
-    setBitTable.put(new Byte((byte) 35), new byte[] {5, 1, 0});
-    setBitTable.put(new Byte((byte) 36), new byte[] {5, 2});
-    setBitTable.put(new Byte((byte) 37), new byte[] {5, 2, 0});
-    setBitTable.put(new Byte((byte) 38), new byte[] {5, 2, 1});
-    setBitTable.put(new Byte((byte) 39), new byte[] {5, 2, 1, 0});
-    setBitTable.put(new Byte((byte) 40), new byte[] {5, 3});
-    setBitTable.put(new Byte((byte) 41), new byte[] {5, 3, 0});
-    setBitTable.put(new Byte((byte) 42), new byte[] {5, 3, 1});
-    setBitTable.put(new Byte((byte) 43), new byte[] {5, 3, 1, 0});
-    setBitTable.put(new Byte((byte) 44), new byte[] {5, 3, 2});
-    setBitTable.put(new Byte((byte) 45), new byte[] {5, 3, 2, 0});
-    setBitTable.put(new Byte((byte) 46), new byte[] {5, 3, 2, 1});
-    setBitTable.put(new Byte((byte) 47), new byte[] {5, 3, 2, 1, 0});
-    setBitTable.put(new Byte((byte) 48), new byte[] {5, 4});
-    setBitTable.put(new Byte((byte) 49), new byte[] {5, 4, 0});
-    setBitTable.put(new Byte((byte) 50), new byte[] {5, 4, 1});
-    setBitTable.put(new Byte((byte) 51), new byte[] {5, 4, 1, 0});
-    setBitTable.put(new Byte((byte) 52), new byte[] {5, 4, 2});
-    setBitTable.put(new Byte((byte) 53), new byte[] {5, 4, 2, 0});
-    setBitTable.put(new Byte((byte) 54), new byte[] {5, 4, 2, 1});
-    setBitTable.put(new Byte((byte) 55), new byte[] {5, 4, 2, 1, 0});
-    setBitTable.put(new Byte((byte) 56), new byte[] {5, 4, 3});
-    setBitTable.put(new Byte((byte) 57), new byte[] {5, 4, 3, 0});
-    setBitTable.put(new Byte((byte) 58), new byte[] {5, 4, 3, 1});
-    setBitTable.put(new Byte((byte) 59), new byte[] {5, 4, 3, 1, 0});
-    setBitTable.put(new Byte((byte) 60), new byte[] {5, 4, 3, 2});
-    setBitTable.put(new Byte((byte) 61), new byte[] {5, 4, 3, 2, 0});
-    setBitTable.put(new Byte((byte) 62), new byte[] {5, 4, 3, 2, 1});
-    setBitTable.put(new Byte((byte) 63), new byte[] {5, 4, 3, 2, 1, 0});
-    setBitTable.put(new Byte((byte) 64), new byte[] {6});
-    setBitTable.put(new Byte((byte) 65), new byte[] {6, 0});
-    setBitTable.put(new Byte((byte) 66), new byte[] {6, 1});
-    setBitTable.put(new Byte((byte) 67), new byte[] {6, 1, 0});
-    setBitTable.put(new Byte((byte) 68), new byte[] {6, 2});
-    setBitTable.put(new Byte((byte) 69), new byte[] {6, 2, 0});
-    setBitTable.put(new Byte((byte) 70), new byte[] {6, 2, 1});
-    setBitTable.put(new Byte((byte) 71), new byte[] {6, 2, 1, 0});
-    setBitTable.put(new Byte((byte) 72), new byte[] {6, 3});
-    setBitTable.put(new Byte((byte) 73), new byte[] {6, 3, 0});
-    setBitTable.put(new Byte((byte) 74), new byte[] {6, 3, 1});
-    setBitTable.put(new Byte((byte) 75), new byte[] {6, 3, 1, 0});
-    setBitTable.put(new Byte((byte) 76), new byte[] {6, 3, 2});
-    setBitTable.put(new Byte((byte) 77), new byte[] {6, 3, 2, 0});
-    setBitTable.put(new Byte((byte) 78), new byte[] {6, 3, 2, 1});
-    setBitTable.put(new Byte((byte) 79), new byte[] {6, 3, 2, 1, 0});
-    setBitTable.put(new Byte((byte) 80), new byte[] {6, 4});
-    setBitTable.put(new Byte((byte) 81), new byte[] {6, 4, 0});
-    setBitTable.put(new Byte((byte) 82), new byte[] {6, 4, 1});
-    setBitTable.put(new Byte((byte) 83), new byte[] {6, 4, 1, 0});
-    setBitTable.put(new Byte((byte) 84), new byte[] {6, 4, 2});
-    setBitTable.put(new Byte((byte) 85), new byte[] {6, 4, 2, 0});
-    setBitTable.put(new Byte((byte) 86), new byte[] {6, 4, 2, 1});
-    setBitTable.put(new Byte((byte) 87), new byte[] {6, 4, 2, 1, 0});
-    setBitTable.put(new Byte((byte) 88), new byte[] {6, 4, 3});
-    setBitTable.put(new Byte((byte) 89), new byte[] {6, 4, 3, 0});
-    setBitTable.put(new Byte((byte) 90), new byte[] {6, 4, 3, 1});
-    setBitTable.put(new Byte((byte) 91), new byte[] {6, 4, 3, 1, 0});
-    setBitTable.put(new Byte((byte) 92), new byte[] {6, 4, 3, 2});
-    setBitTable.put(new Byte((byte) 93), new byte[] {6, 4, 3, 2, 0});
-    setBitTable.put(new Byte((byte) 94), new byte[] {6, 4, 3, 2, 1});
-    setBitTable.put(new Byte((byte) 95), new byte[] {6, 4, 3, 2, 1, 0});
-    setBitTable.put(new Byte((byte) 96), new byte[] {6, 5});
-    setBitTable.put(new Byte((byte) 97), new byte[] {6, 5, 0});
-    setBitTable.put(new Byte((byte) 98), new byte[] {6, 5, 1});
-    setBitTable.put(new Byte((byte) 99), new byte[] {6, 5, 1, 0});
-    setBitTable.put(new Byte((byte) 100), new byte[] {6, 5, 2});
-    setBitTable.put(new Byte((byte) 101), new byte[] {6, 5, 2, 0});
-    setBitTable.put(new Byte((byte) 102), new byte[] {6, 5, 2, 1});
-    setBitTable.put(new Byte((byte) 103), new byte[] {6, 5, 2, 1, 0});
-    setBitTable.put(new Byte((byte) 104), new byte[] {6, 5, 3});
-    setBitTable.put(new Byte((byte) 105), new byte[] {6, 5, 3, 0});
-    setBitTable.put(new Byte((byte) 106), new byte[] {6, 5, 3, 1});
-    setBitTable.put(new Byte((byte) 107), new byte[] {6, 5, 3, 1, 0});
-    setBitTable.put(new Byte((byte) 108), new byte[] {6, 5, 3, 2});
-    setBitTable.put(new Byte((byte) 109), new byte[] {6, 5, 3, 2, 0});
-    setBitTable.put(new Byte((byte) 110), new byte[] {6, 5, 3, 2, 1});
-    setBitTable.put(new Byte((byte) 111), new byte[] {6, 5, 3, 2, 1, 0});
-    setBitTable.put(new Byte((byte) 112), new byte[] {6, 5, 4});
-    setBitTable.put(new Byte((byte) 113), new byte[] {6, 5, 4, 0});
-    setBitTable.put(new Byte((byte) 114), new byte[] {6, 5, 4, 1});
-    setBitTable.put(new Byte((byte) 115), new byte[] {6, 5, 4, 1, 0});
-    setBitTable.put(new Byte((byte) 116), new byte[] {6, 5, 4, 2});
-    setBitTable.put(new Byte((byte) 117), new byte[] {6, 5, 4, 2, 0});
-    setBitTable.put(new Byte((byte) 118), new byte[] {6, 5, 4, 2, 1});
-    setBitTable.put(new Byte((byte) 119), new byte[] {6, 5, 4, 2, 1, 0});
-    setBitTable.put(new Byte((byte) 120), new byte[] {6, 5, 4, 3});
-    setBitTable.put(new Byte((byte) 121), new byte[] {6, 5, 4, 3, 0});
-    setBitTable.put(new Byte((byte) 122), new byte[] {6, 5, 4, 3, 1});
-    setBitTable.put(new Byte((byte) 123), new byte[] {6, 5, 4, 3, 1, 0});
-    setBitTable.put(new Byte((byte) 124), new byte[] {6, 5, 4, 3, 2});
-    setBitTable.put(new Byte((byte) 125), new byte[] {6, 5, 4, 3, 2, 0});
-    setBitTable.put(new Byte((byte) 126), new byte[] {6, 5, 4, 3, 2, 1});
-    setBitTable.put(new Byte((byte) 127), new byte[] {6, 5, 4, 3, 2, 1, 0});
-  }
 }
@@ -1,14 +1,62 @@
 package spec.io;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.StringTokenizer;
 import spec.main.SpecConstants;
+import spec.spectrum.SpecChannel;
 import spec.spectrum.Spectrum;
+import spec.spectrum.SpectrumException;
 
+/**
+ * The ascii (.spt) spectrum format, for exchanging spectra with other programs as text. A few
+ * header lines, each starting with '#', are followed by the counts as decimal integers:
+ *
+ * <pre>
+ * # SPT SPECTRUM
+ * # name: a spectrum
+ * # date: 2026-10-18 10:05:00
+ * # dimension: 2
+ * # shape: 2 3
+ * 0 1 2
+ * 3 4 5
+ * </pre>
+ *
+ * <p>The shape is {xLength} for a 1-dimensional spectrum and {yLength, xLength} for a
+ * 2-dimensional one (the order of the spec shapes of the SpecChannel). The counts come in the
+ * order of the spec channel, one y row of x values after another ... they are written a row to a
+ * line (a 1-dimensional spectrum a count to a line), but any white space between them reads the
+ * same. Other lines starting with '#' before the counts are comments.
+ *
+ * <p>Files are read and written through a buffer of BUFFER_SIZE bytes, whatever their size, and
+ * the counts are parsed from and formatted into the bytes of the buffer directly, without a String
+ * for each ... so a text matrix of hundreds of megabytes takes no more memory than its counts.
+ */
 public class SpecFormat_data extends SpecFormat implements Cloneable, Serializable {
 
+  /** the first line of every spt file */
+  public static final String MAGIC_LINE = "# SPT SPECTRUM";
+
+  /** number of bytes read from or written to the file at a time */
+  public static final int BUFFER_SIZE = 1 << 16;
+
+  /** the format of the date in the header */
+  public static final String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
+
+  // specifies the encoding of the header lines ... the counts are plain ascii digits
+  public static final String encoding = "UTF-8";
+
+  /** This one is supported */
   public SpecFormat_data() {
     super();
+    supported = true;
   }
 
   public String toString() {
@@ -21,33 +69,432 @@ public class SpecFormat_data extends SpecFormat implements Cloneable, Serializab
   }
 
   /**
-   * Returns the spectrum dimension if right format ... or throws an exception if the wrong format
+   * Returns the spectrum dimension if right format ... or throws an exception if the wrong format.
+   * Only the header lines are read
    */
   public static int checkFormatAndDimension(File aFile) throws SpecFormat.IOException {
-    throw new SpecFormat.IOException("This format is not yet supported");
-
-    // return -1;
+    try {
+      TextReader reader = new TextReader(aFile);
+      try {
+        return reader.readHeader().dimension;
+      } finally {
+        reader.close();
+      }
+    } catch (java.io.IOException e) {
+      throw new SpecFormat.IOException(
+          "Could not determine the dimension when parsing the file\n", e);
+    }
   }
 
   public int formatAndDimension(File aFile) throws SpecFormat.IOException {
     return (checkFormatAndDimension(aFile));
   }
 
+  /**
+   * Decodes the header lines from the head of the file. The file fits the format if it starts with
+   * MAGIC_LINE, and its dimension and shape lines are within the head. If the head is cut off
+   * before the header ends, the line it is cut off in is not parsed (a name or shape would come out
+   * short) ... the file is turned down, and left to checkFormatAndDimension
+   */
+  protected SpecHeader probeHeader(ByteBuffer head) throws SpecFormat.IOException {
+    Header header = new Header();
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    boolean inHeader = true;
+
+    while (inHeader && head.hasRemaining()) {
+      byte b = head.get();
+      if (b != '\n' && head.hasRemaining()) {
+        line.write(b);
+        continue;
+      }
+      if (b != '\n') {
+        // the last line of the head ... all of it only if the head holds the whole file
+        if (head.limit() >= PROBE_LENGTH)
+          throw new SpecFormat.IOException("The header runs past the head of the file");
+        line.write(b);
+      }
+      try {
+        inHeader = header.parseLine(line.toString(encoding), header.lineNumber + 1);
+      } catch (java.io.UnsupportedEncodingException e) {
+        throw new SpecFormat.IOException("This file does not fit the spt format", e);
+      }
+      line.reset();
+    }
+
+    header.check();
+    return new SpecHeader(
+        getExtension(),
+        header.specName,
+        header.specDate,
+        header.dimension,
+        header.specShape,
+        0,
+        -1);
+  }
+
   public Spectrum read(File aFile) throws SpecFormat.IOException {
     int specDimension = this.checkFormatAndDimension(aFile);
 
     return (read(aFile, specDimension));
   }
 
+  /**
+   * reads the header lines, then streams the counts straight into the array of the spec channel
+   */
   public Spectrum read(File aFile, int specDimension) throws SpecFormat.IOException {
-    throw new SpecFormat.IOException("This format is not yet supported");
+    try {
+      TextReader reader = new TextReader(aFile);
+      try {
+        Header header = reader.readHeader();
+        if (header.dimension != specDimension)
+          throw new SpecFormat.IOException(
+              "The file holds a "
+                  + header.dimension
+                  + "-dimensional spectrum, not "
+                  + specDimension);
+
+        int[] specShape = header.specShape;
+        long numChannels = (specDimension == 1) ? specShape[0] : (long) specShape[0] * specShape[1];
+        if (numChannels > Integer.MAX_VALUE)
+          throw new SpecFormat.IOException("The spectrum has too many channels: " + numChannels);
 
-    // return null;
+        int[] specCount = new int[(int) numChannels];
+        for (int i = 0; i < specCount.length; i++) {
+          specCount[i] = reader.readInt();
+        }
+        reader.checkEnd();
+
+        Date specDate = (header.specDate != null) ? header.specDate : new Date();
+        if (specDimension == 1)
+          return new Spectrum.OneDim(
+              header.specName, specDate, new SpecChannel.OneDim(specShape[0], specCount));
+        else
+          return new Spectrum.TwoDim(
+              header.specName,
+              specDate,
+              new SpecChannel.TwoDim(specShape[0], specShape[1], specCount));
+      } finally {
+        reader.close();
+      }
+    } catch (java.io.IOException e) {
+      // rethrow the exception
+      throw new SpecFormat.IOException("Could not read the spectrum from the named file\n\n", e);
+    } catch (SpectrumException se) {
+      // rethrow the exception
+      throw new SpecFormat.IOException("Could not read the spectrum from the named file\n\n", se);
+    }
   }
 
+  /** writes the header lines, then the counts a row to a line, through the buffer */
   public boolean write(File aFile, Spectrum aSpectrum) throws SpecFormat.IOException {
-    throw new SpecFormat.IOException("This format is not yet supported");
+    int[] specCount;
+    int[] specShape;
+    if (aSpectrum instanceof Spectrum.OneDim) {
+      SpecChannel.OneDim aSpecChannel = ((Spectrum.OneDim) aSpectrum).getSpecChannel();
+      specCount = aSpecChannel.getSpecCount();
+      specShape = new int[] {aSpecChannel.getSpecShape()};
+    } else if (aSpectrum instanceof Spectrum.TwoDim) {
+      SpecChannel.TwoDim aSpecChannel = ((Spectrum.TwoDim) aSpectrum).getSpecChannel();
+      specCount = aSpecChannel.getFlatSpecCount();
+      specShape = new int[] {aSpecChannel.getSpecShape0(), aSpecChannel.getSpecShape1()};
+    } else return false;
+
+    StringBuffer sb = new StringBuffer();
+    sb.append(MAGIC_LINE).append('\n');
+    // the name is kept to its one line
+    sb.append("# name: ").append(aSpectrum.specName.replace('\n', ' ').replace('\r', ' '));
+    sb.append('\n');
+    sb.append("# date: ");
+    sb.append(new SimpleDateFormat(DATE_FORMAT).format(aSpectrum.getSpecDate())).append('\n');
+    sb.append("# dimension: ").append(specShape.length).append('\n');
+    sb.append("# shape:");
+    for (int i = 0; i < specShape.length; i++) {
+      sb.append(' ').append(specShape[i]);
+    }
+    sb.append('\n');
+
+    int rowLength = (specShape.length == 1) ? 1 : specShape[1];
+    try {
+      TextWriter writer = new TextWriter(aFile);
+      try {
+        writer.write(sb.toString().getBytes(encoding));
+        int x = 0;
+        for (int i = 0; i < specCount.length; i++) {
+          writer.writeInt(specCount[i]);
+          if (++x < rowLength) {
+            writer.write(' ');
+          } else {
+            writer.write('\n');
+            x = 0;
+          }
+        }
+        writer.flush();
+      } finally {
+        writer.close();
+      }
+
+      // if we get here, everything is good so we return true
+      return true;
+    } catch (java.io.IOException e) {
+      // rethrow the exception
+      throw new SpecFormat.IOException("Could not write the spectrum to the named file\n\n", e);
+    }
+  }
+
+  /** what the header lines of an spt file say about the spectrum */
+  protected static class Header {
+    protected String specName = "";
+    /** null if the file has no date line, or it could not be parsed */
+    protected Date specDate;
+
+    protected int dimension = -1;
+    protected int[] specShape;
+
+    /** the number of lines parsed, the magic line included */
+    protected int lineNumber;
+
+    /**
+     * parses the header line of the passed number ... returns false if it is not a header line,
+     * the counts have started
+     */
+    protected boolean parseLine(String line, int aLineNumber) throws SpecFormat.IOException {
+      lineNumber = aLineNumber;
+      line = line.trim();
+      if (lineNumber == 1) {
+        if (!(line.equals(MAGIC_LINE)))
+          throw new SpecFormat.IOException("This file does not fit the spt format");
+        return true;
+      }
+      if (line.length() == 0) return true;
+      if (!(line.startsWith("#"))) return false;
+
+      int colon = line.indexOf(':');
+      if (colon < 0) return true;
+      String key = line.substring(1, colon).trim().toLowerCase();
+      String value = line.substring(colon + 1).trim();
+
+      if (key.equals("name")) {
+        specName = value;
+      } else if (key.equals("date")) {
+        specDate = new SimpleDateFormat(DATE_FORMAT).parse(value, new ParsePosition(0));
+      } else if (key.equals("dimension")) {
+        dimension = parseInt(value);
+      } else if (key.equals("shape")) {
+        StringTokenizer st = new StringTokenizer(value);
+        specShape = new int[st.countTokens()];
+        for (int i = 0; i < specShape.length; i++) {
+          specShape[i] = parseInt(st.nextToken());
+        }
+      }
+      // any other line is a comment
+      return true;
+    }
+
+    /** checks that the header gave a dimension and a shape which fit each other */
+    protected void check() throws SpecFormat.IOException {
+      if (!(dimension == 1 || dimension == 2))
+        throw new SpecFormat.IOException("This file does not fit the spt format");
+      if (specShape == null || specShape.length != dimension)
+        throw new SpecFormat.IOException("The shape of the spectrum does not fit its dimension");
+      for (int i = 0; i < specShape.length; i++) {
+        if (specShape[i] <= 0)
+          throw new SpecFormat.IOException("The shape of the spectrum must be positive");
+      }
+    }
+
+    private int parseInt(String value) throws SpecFormat.IOException {
+      try {
+        return Integer.parseInt(value);
+      } catch (NumberFormatException e) {
+        throw new SpecFormat.IOException("Not a number at line " + lineNumber + ": " + value, e);
+      }
+    }
+  }
+
+  /**
+   * reads an spt file through a buffer of BUFFER_SIZE bytes ... the header lines as strings, and
+   * the counts parsed straight from the bytes of the buffer
+   */
+  protected static final class TextReader {
+    private final FileChannel theChannel;
+    private final byte[] bytes = new byte[BUFFER_SIZE];
+    private final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    private int position;
+    private int limit;
+    private int lineNumber = 1;
+    /** the bytes of the file not yet read into the buffer ... the checksum footer is never read */
+    private long remaining;
+
+    protected TextReader(File aFile) throws java.io.IOException {
+      theChannel = FileChannel.open(aFile.toPath(), StandardOpenOption.READ);
+      try {
+        remaining = SpecFormat.getLengthBeforeChecksum(theChannel);
+      } catch (java.io.IOException e) {
+        theChannel.close();
+        throw e;
+      }
+    }
+
+    protected void close() throws java.io.IOException {
+      theChannel.close();
+    }
+
+    /** reads the header lines, and leaves the reader at the first count */
+    protected Header readHeader() throws java.io.IOException, SpecFormat.IOException {
+      Header header = new Header();
+      ByteArrayOutputStream line = new ByteArrayOutputStream();
+      do {
+        line.reset();
+        while (position < limit || fill()) {
+          byte b = bytes[position++];
+          if (b == '\n') break;
+          line.write(b);
+          // not a line of text ... the file is not an spt file
+          if (line.size() > PROBE_LENGTH)
+            throw new SpecFormat.IOException("This file does not fit the spt format");
+        }
+        header.parseLine(line.toString(encoding), lineNumber++);
+        skipWhiteSpace();
+      } while ((position < limit || fill()) && bytes[position] == '#');
+
+      header.check();
+      return header;
+    }
+
+    /** the next count ... a decimal integer, with an optional sign, between white space */
+    protected int readInt() throws java.io.IOException, SpecFormat.IOException {
+      skipWhiteSpace();
+      if (position >= limit && !(fill()))
+        throw new SpecFormat.IOException(
+            "The file ends before all the counts, at line " + lineNumber);
+
+      boolean negative = false;
+      if (bytes[position] == '-' || bytes[position] == '+') {
+        negative = (bytes[position] == '-');
+        position++;
+      }
+
+      long value = 0;
+      int numDigits = 0;
+      while (position < limit || fill()) {
+        int digit = bytes[position] - '0';
+        if (digit < 0 || digit > 9) break;
+        value = value * 10 + digit;
+        if (value > 1L + Integer.MAX_VALUE)
+          throw new SpecFormat.IOException("The count at line " + lineNumber + " is too large");
+        position++;
+        numDigits++;
+      }
+
+      if (numDigits == 0 || ((position < limit || fill()) && !(isWhiteSpace(bytes[position]))))
+        throw new SpecFormat.IOException("Not a count at line " + lineNumber);
+
+      if (negative) value = -value;
+      if (value > Integer.MAX_VALUE)
+        throw new SpecFormat.IOException("The count at line " + lineNumber + " is too large");
+      return (int) value;
+    }
+
+    /** checks that nothing but white space is left after the counts */
+    protected void checkEnd() throws java.io.IOException, SpecFormat.IOException {
+      skipWhiteSpace();
+      if (position < limit || fill())
+        throw new SpecFormat.IOException(
+            "The file has more counts than the shape of the spectrum, at line " + lineNumber);
+    }
+
+    private void skipWhiteSpace() throws java.io.IOException {
+      while (position < limit || fill()) {
+        byte b = bytes[position];
+        if (!(isWhiteSpace(b))) return;
+        if (b == '\n') lineNumber++;
+        position++;
+      }
+    }
+
+    private static boolean isWhiteSpace(byte b) {
+      return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f';
+    }
+
+    /**
+     * reads the next bytes of the file into the buffer ... false at the end of the file, or at its
+     * checksum footer
+     */
+    private boolean fill() throws java.io.IOException {
+      position = 0;
+      limit = 0;
+      if (remaining <= 0) return false;
+
+      buffer.clear();
+      buffer.limit((int) Math.min(bytes.length, remaining));
+      int n = 0;
+      while (n == 0) n = theChannel.read(buffer);
+      if (n < 0) return false;
+      limit = n;
+      remaining -= n;
+      return true;
+    }
+  }
+
+  /**
+   * writes an spt file through a buffer of BUFFER_SIZE bytes ... the counts formatted straight
+   * into the bytes of the buffer
+   */
+  protected static final class TextWriter {
+    private final FileChannel theChannel;
+    private final byte[] bytes = new byte[BUFFER_SIZE];
+    private final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    private int position;
+    /** the digits of a count, last one first */
+    private final byte[] digits = new byte[20];
+
+    protected TextWriter(File aFile) throws java.io.IOException {
+      theChannel =
+          FileChannel.open(
+              aFile.toPath(),
+              StandardOpenOption.CREATE,
+              StandardOpenOption.WRITE,
+              StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    protected void close() throws java.io.IOException {
+      theChannel.close();
+    }
+
+    protected void write(byte[] b) throws java.io.IOException {
+      for (int i = 0; i < b.length; i++) {
+        write(b[i]);
+      }
+    }
+
+    protected void write(int b) throws java.io.IOException {
+      if (position == bytes.length) flush();
+      bytes[position++] = (byte) b;
+    }
+
+    protected void writeInt(int value) throws java.io.IOException {
+      if (position > bytes.length - digits.length) flush();
+
+      // as a long, so that Integer.MIN_VALUE can be negated too
+      long v = value;
+      if (v < 0) {
+        bytes[position++] = '-';
+        v = -v;
+      }
+      int n = 0;
+      do {
+        digits[n++] = (byte) ('0' + (int) (v % 10));
+        v /= 10;
+      } while (v != 0);
+      while (n > 0) bytes[position++] = digits[--n];
+    }
 
-    // return false;
+    /** writes what is in the buffer to the file */
+    protected void flush() throws java.io.IOException {
+      buffer.clear();
+      buffer.limit(position);
+      while (buffer.hasRemaining()) theChannel.write(buffer);
+      position = 0;
+    }
   }
 }
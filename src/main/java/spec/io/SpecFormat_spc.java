@@ -3,6 +3,10 @@ package spec.io;
 import java.io.File;
 import java.io.RandomAccessFile;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -32,6 +36,12 @@ public class SpecFormat_spc extends SpecFormat implements Cloneable, Serializabl
   public static final int MUSORT = 2000;
   public static final int SMAUG = 2001;
 
+  /**
+   * number of bytes of the bitmask and channel block written to the file at a time ... the size of
+   * the one buffer the channel values are encoded into
+   */
+  public static final int WRITE_BUFFER_SIZE = 1 << 20;
+
   // specifies the encoding for spc files
   public static final String encoding = "ASCII";
 
@@ -100,6 +110,35 @@ public class SpecFormat_spc extends SpecFormat implements Cloneable, Serializabl
     }
   }
 
+  /**
+   * Decodes the spc header from the head of the file. The file fits the spclib format if the head
+   * holds a whole header, the dimension is 1 or 2 and the x length is positive.
+   */
+  protected SpecHeader probeHeader(ByteBuffer head) throws SpecFormat.IOException {
+    Header header = new Header();
+    try {
+      header.read(head);
+    } catch (java.io.IOException e) {
+      throw new SpecFormat_spc.IOException("This file does not fit the spclib format", e);
+    }
+
+    if (!(header.dimension == 1 || header.dimension == 2) || header.xLength <= 0)
+      throw new SpecFormat_spc.IOException("This file does not fit the spclib format");
+
+    int[] specShape;
+    if (header.dimension == 1) specShape = new int[] {header.xLength};
+    else specShape = new int[] {header.yLength, header.xLength};
+
+    return new SpecHeader(
+        getExtension(),
+        header.specName.trim(),
+        header.getSpecDate(),
+        header.dimension,
+        specShape,
+        header.loadFormatIndicator,
+        header.numNonZeroElements);
+  }
+
   public static Spectrum readSpc(File aFile) throws SpecFormat_spc.IOException {
     int specDimension = checkFormatAndDimension(aFile);
 
@@ -156,6 +195,249 @@ public class SpecFormat_spc extends SpecFormat implements Cloneable, Serializabl
     return b;
   }
 
+  /**
+   * Reads the whole spc file into a single little-endian heap buffer, with a few large reads, so
+   * that the header and the channel block can be decoded without a system call per field. The
+   * file is not mapped ... a mapping stays open until it is garbage collected, and on Windows a
+   * spectrum could then not be saved back over the file it was just read from (see
+   * SpectrumWriter).
+   */
+  protected static ByteBuffer readFile(File aFile) throws java.io.IOException {
+    RandomAccessFile theSpecFile = new RandomAccessFile(aFile, "r");
+    try {
+      FileChannel theChannel = theSpecFile.getChannel();
+      long size = theChannel.size();
+      if (size > Integer.MAX_VALUE)
+        throw new java.io.IOException("The file is too large for the spclib format: " + size);
+
+      ByteBuffer buffer = ByteBuffer.allocate((int) size);
+      while (buffer.hasRemaining()) {
+        if (theChannel.read(buffer, buffer.position()) < 0) break;
+      }
+      buffer.flip();
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      return buffer;
+    } finally {
+      theSpecFile.close();
+    }
+  }
+
+  /** the number of bytes each channel value takes up in the file, for a given load format */
+  protected static int getChannelWidth(short loadFormat) {
+    switch (loadFormat) {
+      case 4:
+        return 4;
+      case 1:
+        return 1;
+      default:
+        return 2;
+    }
+  }
+
+  /**
+   * Bulk-decodes numValues channel values starting at offset in the (little-endian) buffer into
+   * dest, beginning at destOffset. The width of each value is given by the load format: 4 for int,
+   * 1 for byte, and short otherwise ... the same rules the RandomAccessFile path uses.
+   */
+  protected static void getChannelValues(
+      ByteBuffer buffer, int offset, short loadFormat, int[] dest, int destOffset, int numValues)
+      throws java.io.IOException {
+    int width = getChannelWidth(loadFormat);
+
+    if (offset < 0 || ((long) offset + (long) numValues * width) > buffer.limit())
+      throw new java.io.EOFException("The channel block extends past the end of the file");
+
+    ByteBuffer block = buffer.duplicate();
+    block.position(offset);
+    block = block.slice().order(ByteOrder.LITTLE_ENDIAN);
+
+    switch (width) {
+      case 4:
+        block.asIntBuffer().get(dest, destOffset, numValues);
+        break;
+      case 1:
+        byte[] byteValues = new byte[numValues];
+        block.get(byteValues);
+        for (int i = 0; i < numValues; i++) {
+          dest[destOffset + i] = (int) byteValues[i];
+        }
+        break;
+      default:
+        short[] shortValues = new short[numValues];
+        block.asShortBuffer().get(shortValues);
+        for (int i = 0; i < numValues; i++) {
+          dest[destOffset + i] = (int) shortValues[i];
+        }
+        break;
+    }
+  }
+
+  /**
+   * Decodes the channels of a SMAUG (sparse) spc file straight into arrayOfChannelCount, which
+   * holds the channels the way the file numbers them ... one y row of xLength x values after
+   * another (a 1-dimensional spectrum is a single row).
+   *
+   * <p>The bitmask records and the value block are walked together: each set bit found (see
+   * SpecFormat.getArrayOfSetBit for the bit order) takes the next value from the value block, so
+   * no intermediate array of set bit positions is built. The maximum count and its position are
+   * kept as we go, and left in aHeader.maxCount and aHeader.maxCountPosition.
+   */
+  protected static void getChannelsSMAUG(
+      ByteBuffer buffer, Header aHeader, int[] arrayOfChannelCount) throws java.io.IOException {
+    int bitmaskOffset = (int) SpecFormat_spc.BITMASKRECORD_OFFSET;
+    int bitmaskLength = aHeader.numBitmaskRecord * 1024;
+    int valueOffset = (aHeader.numBitmaskRecord + 1) * 1024;
+    int width = getChannelWidth(aHeader.loadFormatIndicator);
+    int numNonZeroElements = aHeader.numNonZeroElements;
+
+    if (numNonZeroElements < 0
+        || ((long) valueOffset + (long) numNonZeroElements * width) > buffer.limit())
+      throw new java.io.EOFException("The channel block extends past the end of the file");
+
+    // the bitmask is read as big-endian longs, the values as little-endian numbers
+    ByteBuffer bitmaskBuffer = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+    int xLength = aHeader.xLength;
+    int numChannels = arrayOfChannelCount.length;
+
+    int maxChannelCount = Integer.MIN_VALUE;
+    int maxPosition = -1;
+    int position;
+    int channelCount;
+    int k = 0;
+
+    for (int i = 0; i < bitmaskLength && k < numNonZeroElements; i = i + 8) {
+      long word = bitmaskBuffer.getLong(bitmaskOffset + i);
+
+      while (word != 0 && k < numNonZeroElements) {
+        int lz = Long.numberOfLeadingZeros(word);
+        position = ((i + (lz >>> 3)) * 8) + (7 - (lz & 7));
+        word &= ~(0x8000000000000000L >>> lz);
+
+        // the width does not change inside the loop, so the JIT unswitches this branch
+        if (width == 2) channelCount = (int) buffer.getShort(valueOffset + 2 * k);
+        else if (width == 4) channelCount = buffer.getInt(valueOffset + 4 * k);
+        else channelCount = (int) buffer.get(valueOffset + k);
+        k++;
+
+        arrayOfChannelCount[position] = channelCount;
+
+        // bits within a byte come out high to low, so keep the lowest position of the maximum
+        if (channelCount > maxChannelCount
+            || (channelCount == maxChannelCount && position < maxPosition)) {
+          maxChannelCount = channelCount;
+          maxPosition = position;
+        }
+      }
+    }
+
+    // channels without a set bit are zero ... they only matter if nothing decoded was positive
+    if (k < numChannels && maxChannelCount <= 0) {
+      maxChannelCount = 0;
+      for (position = 0; position < numChannels; position++) {
+        if (arrayOfChannelCount[position] == 0) break;
+      }
+      maxPosition = position;
+    }
+
+    aHeader.maxCount = maxChannelCount;
+    if (maxPosition < 0) {
+      aHeader.maxCountPosition = new int[] {-1, -1};
+    } else {
+      aHeader.maxCountPosition = new int[] {maxPosition % xLength, maxPosition / xLength};
+    }
+  }
+
+  /**
+   * Writes a spectrum in the SMAUG (sparse) layout, the way getChannelsSMAUG reads it back ...
+   * aSpecCount holds the channels the way the file numbers them, one y row of xLength x values
+   * after another (a 1-dimensional spectrum is a single row, of yLength 0 in the header).
+   *
+   * <p>The header and the bitmask records are encoded into heap buffers first, in one pass over
+   * the channels, and then the values are encoded in one pass over the bitmask into a buffer of
+   * WRITE_BUFFER_SIZE bytes, written out each time it fills ... rather than a system call for each
+   * channel and seeks back to fill in the header. Nothing is as large as the spectrum but the
+   * bitmask (an eighth of a byte a channel), and it is written WRITE_BUFFER_SIZE bytes at a time
+   * too, so the temporary direct buffers of the channel stay that small. Bit b of bitmask byte i
+   * is channel (i * 8) + b, and the values of a byte are stored from bit 7 down to bit 0 (see
+   * SpecFormat.getArrayOfSetBit).
+   */
+  protected static void writeChannelsSMAUG(
+      File aFile, Spectrum aSpectrum, int[] aSpecCount, short xLength, short yLength)
+      throws java.io.IOException {
+    Header header = new Header();
+    ByteBuffer headerBuffer = ByteBuffer.allocate((int) SpecFormat_spc.BITMASKRECORD_OFFSET);
+    headerBuffer.order(ByteOrder.LITTLE_ENDIAN);
+    header.encode(headerBuffer, aSpectrum, xLength, yLength, aSpectrum.getMaxCount());
+
+    int numChannels = Math.min(aSpecCount.length, header.xLength * Math.max(header.yLength, 1));
+    int numBitmaskBytes = header.numBitmaskRecord * 1024;
+    ByteBuffer bitmaskBuffer = ByteBuffer.allocate(numBitmaskBytes);
+
+    // the bitmask, and how many channels are not zero
+    int numNonZeroElements = 0;
+    for (int i = 0; i < numBitmaskBytes && i * 8 < numChannels; i++) {
+      int bits = 0;
+      for (int bitnum = 0; bitnum < 8 && (i * 8) + bitnum < numChannels; bitnum++) {
+        if (aSpecCount[(i * 8) + bitnum] != 0) bits |= (1 << bitnum);
+      }
+      if (bits == 0) continue;
+      bitmaskBuffer.put(i, (byte) bits);
+      numNonZeroElements += Integer.bitCount(bits);
+    }
+
+    header.numNonZeroElements = numNonZeroElements;
+    headerBuffer.putInt((int) SpecFormat_spc.NUMNONZERO_OFFSET, numNonZeroElements);
+
+    FileChannel theChannel =
+        FileChannel.open(
+            aFile.toPath(),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+    try {
+      writeFully(theChannel, headerBuffer);
+      for (int i = 0; i < numBitmaskBytes; i = i + WRITE_BUFFER_SIZE) {
+        bitmaskBuffer.limit(Math.min(i + WRITE_BUFFER_SIZE, numBitmaskBytes));
+        bitmaskBuffer.position(i);
+        writeFully(theChannel, bitmaskBuffer);
+      }
+
+      // the values of the set bits, in the order they are read back
+      int width = getChannelWidth(header.loadFormatIndicator);
+      ByteBuffer valueBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+      valueBuffer.order(ByteOrder.LITTLE_ENDIAN);
+      int k = 0;
+      for (int i = 0; i < numBitmaskBytes && k < numNonZeroElements; i++) {
+        int bits = bitmaskBuffer.get(i) & 0xff;
+        for (int bitnum = 7; bits != 0 && bitnum >= 0; bitnum--) {
+          if ((bits & (1 << bitnum)) == 0) continue;
+          if (valueBuffer.remaining() < width) {
+            valueBuffer.flip();
+            writeFully(theChannel, valueBuffer);
+            valueBuffer.clear();
+          }
+          int channelCount = aSpecCount[(i * 8) + bitnum];
+          if (width == 4) valueBuffer.putInt(channelCount);
+          else if (width == 2) valueBuffer.putShort((short) channelCount);
+          else valueBuffer.put((byte) channelCount);
+          k++;
+        }
+      }
+      valueBuffer.flip();
+      writeFully(theChannel, valueBuffer);
+    } finally {
+      theChannel.close();
+    }
+  }
+
+  /** writes what is left in the buffer to the channel */
+  private static void writeFully(FileChannel theChannel, ByteBuffer buffer)
+      throws java.io.IOException {
+    while (buffer.hasRemaining()) {
+      theChannel.write(buffer);
+    }
+  }
+
   /** handles reading and writing the spc header information */
   protected static class Header {
     protected String headerInfo;
@@ -171,6 +453,10 @@ public class SpecFormat_spc extends SpecFormat implements Cloneable, Serializabl
     protected int count;
     protected int numNonZeroElements;
     protected String fileFormatInfo;
+    /** maximum channel count and its {x, y} position ... filled in by getChannelsSMAUG */
+    protected int maxCount;
+
+    protected int[] maxCountPosition = new int[] {-1, -1};
 
     /** Reads the spectrum header information from the file into the variables */
     protected void read(RandomAccessFile theSpecFile) throws java.io.IOException {
@@ -248,6 +534,128 @@ public class SpecFormat_spc extends SpecFormat implements Cloneable, Serializabl
       numBitmaskRecord = (short) ((xLength * yLength - 1) / 8192 + 1);
     }
 
+    /**
+     * Reads the spectrum header information from the (little-endian) buffer of an spc file into the
+     * variables. Same fields as read (RandomAccessFile), but using absolute gets on the buffer.
+     */
+    protected void read(ByteBuffer buffer) throws java.io.IOException {
+      if (buffer.limit() < SpecFormat_spc.BITMASKRECORD_OFFSET)
+        throw new java.io.EOFException("The file is too short to hold an spc header");
+
+      byte[] byteHeaderInfo = new byte[1024];
+      ByteBuffer headerBuffer = buffer.duplicate();
+      headerBuffer.position(0);
+      headerBuffer.get(byteHeaderInfo);
+
+      headerInfo = new String(byteHeaderInfo, 0, 120, encoding);
+      specName = new String(byteHeaderInfo, (int) SpecFormat_spc.NAME_OFFSET, 80, encoding);
+      creationTime = new String(byteHeaderInfo, (int) SpecFormat_spc.TIME_OFFSET, 8, encoding);
+      creationDate = new String(byteHeaderInfo, (int) SpecFormat_spc.DATE_OFFSET, 9, encoding);
+
+      dimension = buffer.getShort((int) SpecFormat_spc.DIM_OFFSET);
+      xLength = buffer.getShort((int) SpecFormat_spc.XLENGTH_OFFSET);
+      yLength = buffer.getShort((int) SpecFormat_spc.YLENGTH_OFFSET);
+      yLength = (short) Math.max((int) yLength, 1);
+      origLoadFormatIndicator = buffer.getShort((int) SpecFormat_spc.ORIG_LOADFORMAT_OFFSET);
+      loadFormatIndicator = buffer.getShort((int) SpecFormat_spc.LOADFORMAT_OFFSET);
+      numNonZeroElements = buffer.getInt((int) SpecFormat_spc.NUMNONZERO_OFFSET);
+
+      fileFormatInfo =
+          new String(byteHeaderInfo, (int) SpecFormat_spc.FORMATINFO_OFFSET, 130, encoding);
+
+      // see read (RandomAccessFile) for why the total count is put together byte by byte
+      int totalCountOffset = (int) SpecFormat_spc.TOTALCOUNT_OFFSET;
+      count =
+          SpecFormat_spc.getTotalCountFromBytes(
+              byteHeaderInfo[totalCountOffset],
+              byteHeaderInfo[totalCountOffset + 1],
+              byteHeaderInfo[totalCountOffset + 2],
+              byteHeaderInfo[totalCountOffset + 3]);
+
+      numBitmaskRecord = (short) ((xLength * yLength - 1) / 8192 + 1);
+    }
+
+    /** parse the creation Date and Time Strings into a Date Object */
+    protected Date getSpecDate() {
+      SimpleDateFormat aDateFormat = new SimpleDateFormat("dd-MMM-yy hh:mm:ss");
+      String dateTimeString = creationDate + " " + creationTime;
+      ParsePosition pos = new ParsePosition(0);
+      return aDateFormat.parse(dateTimeString, pos);
+    }
+
+    /**
+     * Encodes the header of a spectrum into the (little-endian) header buffer, the first
+     * BITMASKRECORD_OFFSET bytes of the file ... the same bytes the write (RandomAccessFile ...)
+     * methods leave in a new file, a field running into the next one being written over by it.
+     * yLength is 0 for a 1-dimensional spectrum. The number of non-zero channels is put in by
+     * writeChannelsSMAUG, once it has found it
+     */
+    protected void encode(
+        ByteBuffer header, Spectrum aSpectrum, short aXLength, short aYLength, int maxChannelCount)
+        throws java.io.IOException {
+      specName = aSpectrum.specName;
+      put(header, SpecFormat_spc.NAME_OFFSET, specName + "\n");
+
+      SimpleDateFormat aDateFormat = new SimpleDateFormat("dd-MMM-yy hh:mm:ss");
+      String dateTimeString = aDateFormat.format(aSpectrum.getSpecDate());
+
+      creationTime = dateTimeString.substring(10);
+      put(header, SpecFormat_spc.TIME_OFFSET, creationTime);
+
+      creationDate = dateTimeString.substring(0, 9);
+      put(header, SpecFormat_spc.DATE_OFFSET, creationDate);
+
+      dimension = (short) aSpectrum.getSpecDimension();
+      header.putShort((int) SpecFormat_spc.DIM_OFFSET, dimension);
+
+      xLength = aXLength;
+      header.putShort((int) SpecFormat_spc.XLENGTH_OFFSET, xLength);
+
+      yLength = aYLength;
+      header.putShort((int) SpecFormat_spc.YLENGTH_OFFSET, yLength);
+
+      numBitmaskRecord = (short) ((xLength * ((yLength == 0) ? 1 : yLength) - 1) / 8192 + 1);
+
+      StringBuffer sb = new StringBuffer();
+      sb.append("CANPS FORMAT 1.0.1986 NSCL-MSU; SPCLIB; PLATFORM-INDEPENDENT; ");
+      sb.append("MAX REC LENGTH=1KB FOLLOWING RECORDS ARE OF TYPE: ");
+
+      for (short i = 0; i < numBitmaskRecord; i++) {
+        sb.append(" U1");
+      }
+      sb.append(" H2");
+
+      fileFormatInfo = sb.toString();
+      put(header, SpecFormat_spc.FORMATINFO_OFFSET, fileFormatInfo);
+
+      // the maximum channel count decides the format the channels are written in
+      if (maxChannelCount < Short.MAX_VALUE) loadFormatIndicator = origLoadFormatIndicator = 2;
+      else loadFormatIndicator = origLoadFormatIndicator = 4;
+
+      header.putShort((int) SpecFormat_spc.ORIG_LOADFORMAT_OFFSET, origLoadFormatIndicator);
+      header.putShort((int) SpecFormat_spc.LOADFORMAT_OFFSET, loadFormatIndicator);
+
+      // what is written as the total count has always been the maximum count
+      count = maxChannelCount;
+      put(
+          header,
+          SpecFormat_spc.TOTALCOUNT_OFFSET,
+          SpecFormat_spc.getBytesFromTotalCount(maxChannelCount));
+    }
+
+    /** puts the string into the header buffer at offset, cut off at the end of the header */
+    private static void put(ByteBuffer header, long offset, String s)
+        throws java.io.IOException {
+      put(header, offset, s.getBytes(encoding));
+    }
+
+    /** puts the bytes into the header buffer at offset, cut off at the end of the header */
+    private static void put(ByteBuffer header, long offset, byte[] bytes) {
+      ByteBuffer field = header.duplicate();
+      field.position((int) offset);
+      field.put(bytes, 0, Math.min(bytes.length, field.remaining()));
+    }
+
     /**
      * Called by the other, more specific write methods to write the init beginning header
      * information for a spectrum
@@ -373,9 +781,71 @@ public class SpecFormat_spc extends SpecFormat implements Cloneable, Serializabl
 
     /**
      * Method to read a 1-dimensional Spectrum File and extract necessary information to create a
-     * Spectrum.OneDim and return RandomAccessFiles are declared to throw an IOException
+     * Spectrum.OneDim and return. The file is read into a buffer once, and the header and channel
+     * block are decoded from the buffer.
      */
     public static Spectrum.OneDim read(File aFile) throws SpecFormat_spc.IOException {
+      try {
+        ByteBuffer buffer = SpecFormat_spc.readFile(aFile);
+
+        Header header = new Header();
+        header.read(buffer);
+
+        SpecChannel.OneDim aSpecChannel;
+
+        switch (header.loadFormatIndicator) {
+          case 0:
+            aSpecChannel =
+                new SpecChannel.OneDim((int) header.xLength, getChannelsMUSORT(buffer, header));
+            break;
+          default:
+            // the sparse decode already knows the maximum, so the spec channel need not rescan
+            int[] arrayOfChannelCount = new int[header.xLength];
+            SpecFormat_spc.getChannelsSMAUG(buffer, header, arrayOfChannelCount);
+            aSpecChannel =
+                new SpecChannel.OneDim(
+                    (int) header.xLength,
+                    arrayOfChannelCount,
+                    header.maxCount,
+                    header.maxCountPosition[0]);
+            break;
+        }
+
+        return (new Spectrum.OneDim(header.specName, header.getSpecDate(), aSpecChannel));
+
+      } catch (java.io.IOException e) {
+        // rethrow the exception
+        throw new SpecFormat_spc.IOException(
+            "Could not read the spectrum from the named file\n\n", e);
+      } catch (SpectrumException se) {
+        // rethrow the exception
+        throw new SpecFormat_spc.IOException(
+            "Could not read the spectrum from the named file\n\n", se);
+      }
+    }
+
+    private static int[] getChannelsMUSORT(ByteBuffer buffer, Header aHeader)
+        throws java.io.IOException {
+      // the channels are stored densely, straight after the header
+      int[] arrayOfChannelCount = new int[aHeader.xLength];
+      SpecFormat_spc.getChannelValues(
+          buffer,
+          (int) SpecFormat_spc.BITMASKRECORD_OFFSET,
+          aHeader.origLoadFormatIndicator,
+          arrayOfChannelCount,
+          0,
+          aHeader.xLength);
+
+      return arrayOfChannelCount;
+    }
+
+    /**
+     * Reads a 1-dimensional Spectrum File through a RandomAccessFile, one field and one channel at
+     * a time. This was the original read path ... it only stays here as a reference to compare
+     * the buffered read against.
+     */
+    public static Spectrum.OneDim readUsingRandomAccessFile(File aFile)
+        throws SpecFormat_spc.IOException {
       RandomAccessFile theSpecFile;
       try {
         theSpecFile = new RandomAccessFile(aFile, "r");
@@ -505,10 +975,36 @@ public class SpecFormat_spc extends SpecFormat implements Cloneable, Serializabl
 
     /**
      * Method to write a 1-dimensional Spectrum to a File, returning true or false to indicate
-     * success
+     * success. The file is encoded in memory and written at once (see
+     * SpecFormat_spc.writeChannelsSMAUG).
      */
     public static boolean write(File aFile, Spectrum.OneDim aOneDSpectrum)
         throws SpecFormat_spc.IOException {
+      try {
+        SpecFormat_spc.writeChannelsSMAUG(
+            aFile,
+            aOneDSpectrum,
+            aOneDSpectrum.getSpecChannel().getSpecCount(),
+            (short) aOneDSpectrum.getSpecChannel().getSpecShape(),
+            (short) 0);
+
+        // if we get here, everything is good so we return true
+        return true;
+
+      } catch (java.io.IOException e) {
+        // rethrow the exception
+        throw new SpecFormat_spc.IOException(
+            "Could not write the spectrum to the named file\n\n", e);
+      }
+    }
+
+    /**
+     * Writes a 1-dimensional Spectrum through a RandomAccessFile, one field and one channel at a
+     * time. This was the original write path ... it only stays here as a reference to compare the
+     * buffered write against.
+     */
+    public static boolean writeUsingRandomAccessFile(File aFile, Spectrum.OneDim aOneDSpectrum)
+        throws SpecFormat_spc.IOException {
       RandomAccessFile theSpecFile;
       try {
         theSpecFile = new RandomAccessFile(aFile, "rw");
@@ -606,6 +1102,70 @@ public class SpecFormat_spc extends SpecFormat implements Cloneable, Serializabl
      * value, all the x value subscripts in the rectangular array are stored ...
      */
     public static Spectrum.TwoDim read(File aFile) throws SpecFormat_spc.IOException {
+      try {
+        ByteBuffer buffer = SpecFormat_spc.readFile(aFile);
+
+        Header header = new Header();
+        header.read(buffer);
+
+        SpecChannel.TwoDim aSpecChannel;
+
+        switch (header.loadFormatIndicator) {
+          case 0:
+            aSpecChannel =
+                new SpecChannel.TwoDim(
+                    header.yLength, header.xLength, getChannelsMUSORT(buffer, header));
+            break;
+          default:
+            // the sparse decode already knows the maximum, so the spec channel need not rescan
+            int[] arrayOfChannelCount = new int[header.yLength * header.xLength];
+            SpecFormat_spc.getChannelsSMAUG(buffer, header, arrayOfChannelCount);
+            aSpecChannel =
+                new SpecChannel.TwoDim(
+                    header.yLength,
+                    header.xLength,
+                    arrayOfChannelCount,
+                    header.maxCount,
+                    header.maxCountPosition);
+            break;
+        }
+
+        return (new Spectrum.TwoDim(header.specName, header.getSpecDate(), aSpecChannel));
+
+      } catch (java.io.IOException e) {
+        // rethrow the exception
+        throw new SpecFormat_spc.IOException(
+            "Could not read the spectrum from the named file\n\n", e);
+      } catch (SpectrumException se) {
+        // rethrow the exception
+        throw new SpecFormat_spc.IOException(
+            "Could not get the spectrum from the named file\n\n" + se.getMessage());
+      }
+    }
+
+    private static int[] getChannelsMUSORT(ByteBuffer buffer, Header aHeader)
+        throws java.io.IOException {
+      // the channels are stored densely, straight after the header, one y row after another ...
+      // the same layout as the spec channel, so they are read in one go
+      int[] arrayOfChannelCount = new int[aHeader.yLength * aHeader.xLength];
+      SpecFormat_spc.getChannelValues(
+          buffer,
+          (int) SpecFormat_spc.BITMASKRECORD_OFFSET,
+          aHeader.origLoadFormatIndicator,
+          arrayOfChannelCount,
+          0,
+          arrayOfChannelCount.length);
+
+      return arrayOfChannelCount;
+    }
+
+    /**
+     * Reads a 2-dimensional Spectrum File through a RandomAccessFile, one field and one channel at
+     * a time. This was the original read path ... it only stays here as a reference to compare
+     * the buffered read against.
+     */
+    public static Spectrum.TwoDim readUsingRandomAccessFile(File aFile)
+        throws SpecFormat_spc.IOException {
       RandomAccessFile theSpecFile;
 
       try {
@@ -734,10 +1294,36 @@ public class SpecFormat_spc extends SpecFormat implements Cloneable, Serializabl
 
     /**
      * Method to write a 2-dimensional Spectrum to a File, returning true or false to indicate
-     * success
+     * success. The file is encoded in memory and written at once (see
+     * SpecFormat_spc.writeChannelsSMAUG) ... the flat counts are already one y row of x values
+     * after another, the order the file stores them in.
      */
     public static boolean write(File aFile, Spectrum.TwoDim aTwoDSpectrum)
         throws SpecFormat_spc.IOException {
+      try {
+        SpecFormat_spc.writeChannelsSMAUG(
+            aFile,
+            aTwoDSpectrum,
+            aTwoDSpectrum.getSpecChannel().getFlatSpecCount(),
+            (short) aTwoDSpectrum.getSpecChannel().getSpecShape1(),
+            (short) aTwoDSpectrum.getSpecChannel().getSpecShape0());
+
+        // if we get here, everything is good so we return true
+        return (true);
+      } catch (java.io.IOException e) {
+        // rethrow the exception
+        throw new SpecFormat_spc.IOException(
+            "Could not write the spectrum to the named file\n\n", e);
+      }
+    }
+
+    /**
+     * Writes a 2-dimensional Spectrum through a RandomAccessFile, one field and one channel at a
+     * time. This was the original write path ... it only stays here as a reference to compare the
+     * buffered write against.
+     */
+    public static boolean writeUsingRandomAccessFile(File aFile, Spectrum.TwoDim aTwoDSpectrum)
+        throws SpecFormat_spc.IOException {
       RandomAccessFile theSpecFile;
       try {
         theSpecFile = new RandomAccessFile(aFile, "rw");
@@ -757,7 +1343,7 @@ public class SpecFormat_spc extends SpecFormat implements Cloneable, Serializabl
         i.e foreach y value, all the x values in the rectangular array are stored ...
         */
         // foreach y value
-        int[][] aSpecCount = aTwoDSpectrum.getSpecChannel().getSpecCount();
+        int[] aSpecCount = aTwoDSpectrum.getSpecChannel().getFlatSpecCount();
 
         for (int i = 0; i < header.yLength; i++) {
           int yOffset = i * header.xLength;
@@ -768,28 +1354,28 @@ public class SpecFormat_spc extends SpecFormat implements Cloneable, Serializabl
 
             // use this iptr transformation due to the funny way information is being read
             int jptr = (8 * (j / 8)) + (7 - (j % 8));
-            if (aSpecCount[i][jptr] != 0) {
+            if (aSpecCount[yOffset + jptr] != 0) {
               // put the position of the non-Zero channel count into the arrayOfSetBitOrig
               arrayOfSetBitOrig[bitMaskPtr] = (yOffset + j);
               bitMaskPtr++;
 
               switch (header.loadFormatIndicator) {
                 case 2:
-                  short num = (short) aSpecCount[i][jptr];
+                  short num = (short) aSpecCount[yOffset + jptr];
                   num = MathPlus.byteSwap(num);
                   theSpecFile.writeShort(num);
                   break;
                 case 4:
-                  int num_ = aSpecCount[i][jptr];
+                  int num_ = aSpecCount[yOffset + jptr];
                   num_ = MathPlus.byteSwap(num_);
                   theSpecFile.writeInt(num_);
                   break;
                 case 1:
-                  byte num__ = (byte) aSpecCount[i][jptr];
+                  byte num__ = (byte) aSpecCount[yOffset + jptr];
                   theSpecFile.writeByte(num__);
                   break;
                 default:
-                  short num___ = (short) aSpecCount[i][jptr];
+                  short num___ = (short) aSpecCount[yOffset + jptr];
                   num___ = MathPlus.byteSwap(num___);
                   theSpecFile.writeShort(num___);
                   break;
@@ -51,7 +51,14 @@ public class SpectrumReader {
   * ***********************************************
   */
 
+  /**
+   * reads a spectrum from the file, in whichever format it fits ... a file with a checksum footer
+   * (see SpectrumWriter.setChecksumFooter) is first checked against it, so a damaged file is turned
+   * down before it is decoded
+   */
   public static Spectrum read(File specFile) throws SpecFormat.IOException {
+    SpecFormat.checkChecksum(specFile.toPath());
+
     SpecFormat.SpecFormatAndDim specFormatAndDim = SpecFormat.getSuitableFormat(specFile);
 
     if (specFormatAndDim == null)
@@ -1,11 +1,36 @@
 package spec.io;
 
 import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
 import java.util.Date;
 import spec.spectrum.Spectrum;
 
 /** has methods for writing spectra to files in specific formats */
 public class SpectrumWriter {
+  /**
+   * if true, a spectrum is written to a temporary file next to the spectrum file, forced to the
+   * disk and only then moved over the spectrum file ... so the file is either the old spectrum or
+   * the new one, never half of the new one, whatever happens while it is written. Can be set by
+   * the spec.io.atomicSave system property
+   */
+  private static boolean atomicSave =
+      Boolean.valueOf(System.getProperty("spec.io.atomicSave", "true")).booleanValue();
+
+  /**
+   * if true, a checksum footer is appended to each spectrum file written (see
+   * SpecFormat.appendChecksum), which SpectrumReader checks the file against as it reads it. Can
+   * be set by the spec.io.checksumFooter system property
+   */
+  private static boolean checksumFooter = Boolean.getBoolean("spec.io.checksumFooter");
+
   /**
    * try to write a spectrum and return true or false if successfully written the date on the
    * spectrum is always set to the current date when a spectrum is being written
@@ -14,6 +39,152 @@ public class SpectrumWriter {
       throws SpecFormat.IOException {
     // the spectrum date must be set to a new date when a spectrum is written
     spectrum.setSpecDate(new Date());
-    return (specFormat.write(specFile, spectrum));
+    if (!(atomicSave)) {
+      if (!(specFormat.write(specFile, spectrum))) return false;
+      if (checksumFooter) appendChecksum(specFile.toPath());
+      return true;
+    }
+
+    Path target = getTarget(specFile);
+    Path tempPath = createTempFile(target);
+
+    try {
+      if (!(specFormat.write(tempPath.toFile(), spectrum))) return false;
+      if (checksumFooter) appendChecksum(tempPath);
+
+      try {
+        FileChannel theChannel = FileChannel.open(tempPath, StandardOpenOption.WRITE);
+        try {
+          theChannel.force(true);
+        } finally {
+          theChannel.close();
+        }
+        copyAttributes(target, tempPath);
+
+        try {
+          Files.move(tempPath, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+          // the file system cannot rename over a file in one step ... the next best thing
+          Files.move(tempPath, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        forceDirectory(target.getParent());
+      } catch (java.io.IOException e) {
+        throw new SpecFormat.IOException("Could not write the spectrum to the named file\n\n", e);
+      }
+      return true;
+    } finally {
+      try {
+        // still there if anything went wrong before the move
+        Files.deleteIfExists(tempPath);
+      } catch (java.io.IOException e) {
+        // left behind ... it is hidden, and a new one is made for each write
+      }
+    }
+  }
+
+  /** true if spectra are written to a temporary file first, then moved over the spectrum file */
+  public static boolean isAtomicSave() {
+    return atomicSave;
+  }
+
+  public static void setAtomicSave(boolean b) {
+    atomicSave = b;
+  }
+
+  /** true if a checksum footer is appended to each spectrum file written */
+  public static boolean isChecksumFooter() {
+    return checksumFooter;
+  }
+
+  public static void setChecksumFooter(boolean b) {
+    checksumFooter = b;
+  }
+
+  /**
+   * the file the spectrum is moved over ... the file a symbolic link points to, if specFile is one,
+   * so the save replaces the spectrum rather than the link
+   */
+  private static Path getTarget(File specFile) throws SpecFormat.IOException {
+    Path target = specFile.getAbsoluteFile().toPath();
+    if (!(Files.exists(target))) return target;
+
+    try {
+      return target.toRealPath();
+    } catch (java.io.IOException e) {
+      throw new SpecFormat.IOException("Could not write the spectrum to the named file\n\n", e);
+    }
+  }
+
+  /**
+   * gives the temporary file the owner, group and permissions of the spectrum file it replaces, if
+   * there is one and the file system has them ... the owner only where the user may change it, and
+   * the permissions last, since a change of owner can clear some of them
+   */
+  private static void copyAttributes(Path target, Path tempPath) throws java.io.IOException {
+    PosixFileAttributeView targetView =
+        Files.getFileAttributeView(target, PosixFileAttributeView.class);
+    PosixFileAttributeView tempView =
+        Files.getFileAttributeView(tempPath, PosixFileAttributeView.class);
+    if (targetView == null || tempView == null || !(Files.exists(target))) return;
+
+    PosixFileAttributes attributes = targetView.readAttributes();
+    try {
+      tempView.setOwner(attributes.owner());
+    } catch (java.io.IOException e) {
+      // only a privileged user can give a file away ... it stays the user's own
+    }
+    try {
+      tempView.setGroup(attributes.group());
+    } catch (java.io.IOException e) {
+      // the user is not in the group of the spectrum file
+    }
+    tempView.setPermissions(attributes.permissions());
+  }
+
+  /**
+   * makes a new, hidden file next to the target ... with the permissions a new file gets anyway,
+   * rather than the owner-only ones of Files.createTempFile, since it becomes the spectrum file (a
+   * new one, or else it is given those of the target by copyAttributes)
+   */
+  private static Path createTempFile(Path target) throws SpecFormat.IOException {
+    for (int i = 0; ; i++) {
+      Path tempPath =
+          target.resolveSibling(
+              "." + target.getFileName() + "." + Long.toHexString(System.nanoTime()) + ".tmp");
+      try {
+        return Files.createFile(tempPath);
+      } catch (FileAlreadyExistsException e) {
+        if (i >= 100)
+          throw new SpecFormat.IOException(
+              "Could not write the spectrum to the named file\n\n", e);
+      } catch (java.io.IOException e) {
+        throw new SpecFormat.IOException("Could not write the spectrum to the named file\n\n", e);
+      }
+    }
+  }
+
+  private static void appendChecksum(Path path) throws SpecFormat.IOException {
+    try {
+      SpecFormat.appendChecksum(path);
+    } catch (java.io.IOException e) {
+      throw new SpecFormat.IOException("Could not write the spectrum to the named file\n\n", e);
+    }
+  }
+
+  /**
+   * forces the directory entry of the moved file to the disk too ... not every platform can open a
+   * directory, and the file itself is already safe, so this is only tried
+   */
+  private static void forceDirectory(Path directory) {
+    try {
+      FileChannel theChannel = FileChannel.open(directory, StandardOpenOption.READ);
+      try {
+        theChannel.force(true);
+      } finally {
+        theChannel.close();
+      }
+    } catch (java.io.IOException e) {
+      // the directory cannot be forced here
+    }
   }
 }
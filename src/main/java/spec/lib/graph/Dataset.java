@@ -28,6 +28,17 @@ public abstract class Dataset implements DatasetInterface {
   /** defines the scale type */
   protected int scale = Dataset.LINEAR;
 
+  /**
+   * the counts from 0 to SCALE_TABLE_SIZE - 1 have their logs looked up in a table, made the first
+   * time it is needed, rather than worked out again each time the scale is changed
+   */
+  public static final int SCALE_TABLE_SIZE = 1 << 16;
+
+  /** the _log10 and the _log of each count below SCALE_TABLE_SIZE ... null until first needed */
+  private static double[] log10Table;
+
+  private static double[] logTable;
+
   /* *** COMPULSORY variables in a dataset *** */
   protected double dxmax; // data X maximum.
   protected double dxmin; // data X minimum.
@@ -210,9 +221,7 @@ public abstract class Dataset implements DatasetInterface {
    * than 1 have positive values
    */
   protected double _log10(double x) {
-    if (x <= 0.0) return 0.0;
-    else if (x <= 1.0) return 0.15; // 1/2 log 2 (base 10)
-    else return Math.log(x) / 2.30258509299404568401;
+    return adjustedLog10(x);
   }
 
   /**
@@ -220,11 +229,116 @@ public abstract class Dataset implements DatasetInterface {
    * positive values
    */
   protected double _log(double x) {
+    return adjustedLog(x);
+  }
+
+  /** the same as _log10 */
+  private static double adjustedLog10(double x) {
+    if (x <= 0.0) return 0.0;
+    else if (x <= 1.0) return 0.15; // 1/2 log 2 (base 10)
+    else return Math.log(x) / 2.30258509299404568401;
+  }
+
+  /** the same as _log */
+  private static double adjustedLog(double x) {
     if (x <= 0.0) return 0.0;
     else if (x <= 1.0) return 0.35; // 1/2 log 2 (base e)
     else return Math.log(x);
   }
 
+  /**
+   * the table of each count below SCALE_TABLE_SIZE in aScale (LOG_10 or LOG_E), made the first time
+   * it is asked for ... null for LINEAR
+   */
+  protected static synchronized double[] getScaleTable(int aScale) {
+    switch (aScale) {
+      case LOG_10:
+        if (log10Table == null) {
+          double[] table = new double[SCALE_TABLE_SIZE];
+          for (int i = 0; i < SCALE_TABLE_SIZE; i++) table[i] = adjustedLog10(i);
+          log10Table = table;
+        }
+        return log10Table;
+      case LOG_E:
+        if (logTable == null) {
+          double[] table = new double[SCALE_TABLE_SIZE];
+          for (int i = 0; i < SCALE_TABLE_SIZE; i++) table[i] = adjustedLog(i);
+          logTable = table;
+        }
+        return logTable;
+      case LINEAR:
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * sets count elements of scaled, from scaledFrom, to the values from values [from] in aScale
+   * ... as _log10 or _log would, looking up the logs of the counts below SCALE_TABLE_SIZE. The
+   * smallest and the largest of them are found in the same pass, and kept in minMax [0] and minMax
+   * [1] if they are beyond those already there
+   */
+  protected static void scaleValues(
+      int[] values,
+      int from,
+      double[] scaled,
+      int scaledFrom,
+      int count,
+      int aScale,
+      double[] minMax) {
+    double[] table = getScaleTable(aScale);
+    double min = minMax[0];
+    double max = minMax[1];
+
+    for (int k = 0; k < count; k++) {
+      int value = values[from + k];
+      double scaledValue;
+      if (table == null) scaledValue = value;
+      else if (value >= 0 && value < SCALE_TABLE_SIZE) scaledValue = table[value];
+      else if (aScale == LOG_10) scaledValue = adjustedLog10(value);
+      else scaledValue = adjustedLog(value);
+
+      scaled[scaledFrom + k] = scaledValue;
+      if (scaledValue < min) min = scaledValue;
+      if (scaledValue > max) max = scaledValue;
+    }
+
+    minMax[0] = min;
+    minMax[1] = max;
+  }
+
+  /**
+   * sets count elements of scaled, from scaledFrom, to the values from values [from] in aScale
+   * ... as _log10 or _log would. The smallest and the largest of them are found in the same pass,
+   * and kept in minMax [0] and minMax [1] if they are beyond those already there
+   */
+  protected static void scaleValues(
+      double[] values,
+      int from,
+      double[] scaled,
+      int scaledFrom,
+      int count,
+      int aScale,
+      double[] minMax) {
+    double min = minMax[0];
+    double max = minMax[1];
+
+    for (int k = 0; k < count; k++) {
+      double value = values[from + k];
+      double scaledValue;
+      if (aScale == LOG_10) scaledValue = adjustedLog10(value);
+      else if (aScale == LOG_E) scaledValue = adjustedLog(value);
+      else scaledValue = value;
+
+      scaled[scaledFrom + k] = scaledValue;
+      min = Math.min(min, scaledValue);
+      max = Math.max(max, scaledValue);
+    }
+
+    minMax[0] = min;
+    minMax[1] = max;
+  }
+
   /**
    * Support for reporting bound property changes. replica of what is in JComponent ... overloaded
    * also
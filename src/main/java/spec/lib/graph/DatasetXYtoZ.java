@@ -3,8 +3,9 @@ package spec.lib.graph;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
-import java.awt.image.BufferedImage;
+import java.awt.geom.Rectangle2D;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import spec.lib.MathPlus;
 import spec.lib.Misc;
 
@@ -40,6 +41,8 @@ public abstract class DatasetXYtoZ extends Dataset {
   public static final String IS_INVERTED_COLOR_MAP_PROPERTY = "IS_INVERTED_COLOR_MAP";
   /** property for the color map */
   public static final String COLOR_MAP_PROPERTY = "COLOR_MAP_PROPERTY";
+  /** property for the data, changed in place */
+  public static final String DATA_PROPERTY = "XYTOZ DATA PROPERTY";
 
   /*
    *********************
@@ -49,8 +52,11 @@ public abstract class DatasetXYtoZ extends Dataset {
   /** The array that will be graphed based on the scale used */
   protected double[][] data;
 
-  /** Two dimensional array of the error in a dataset value */
-  protected double[][] errorInZ;
+  /**
+   * The error in a dataset value ... laid out flat, one sub-array of subLength values after
+   * another, so the error of data [i][j] is errorInZ [i * subLength + j]
+   */
+  protected double[] errorInZ;
 
   /** Holds the other dimension of this rectangular array */
   protected int subLength;
@@ -83,12 +89,11 @@ public abstract class DatasetXYtoZ extends Dataset {
     return Dataset.XYTOZ;
   }
 
-  /**
-   * sets the error in the Z values The errorInZ array is set to d (shares the same array with d)
-   */
+  /** sets the error in the Z values The errorInZ array is set to a flat copy of d */
   public void setErrorInZ(double[][] d) throws Dataset.DatasetException {
+    int subLength;
     try {
-      int subLength = Misc.getRectangularArrayHeight(d);
+      subLength = Misc.getRectangularArrayHeight(d);
     } catch (Misc.NotRectangularArrayException nrae) {
       throw new Dataset.DatasetException("The passed array is not rectangular");
     }
@@ -97,6 +102,22 @@ public abstract class DatasetXYtoZ extends Dataset {
       throw new Dataset.DatasetException("This array has different length from dataset array");
     }
 
+    double[] flatErrorInZ = new double[d.length * subLength];
+    for (int i = 0; i < d.length; i++) {
+      System.arraycopy(d[i], 0, flatErrorInZ, i * subLength, subLength);
+    }
+    errorInZ = flatErrorInZ;
+  }
+
+  /**
+   * sets the error in the Z values from a flat array, laid out as errorInZ The errorInZ array is
+   * set to d (shares the same array with d)
+   */
+  public void setErrorInZ(double[] d) throws Dataset.DatasetException {
+    if (d.length != data.length * subLength) {
+      throw new Dataset.DatasetException("This array has different length from dataset array");
+    }
+
     errorInZ = d;
   }
 
@@ -162,16 +183,32 @@ public abstract class DatasetXYtoZ extends Dataset {
     draw(g, (Color) colorTable.get(new Byte((byte) 0)));
   }
 
-  /** get the graph image ... a subImage of the datasetImage representing this dataset */
-  protected BufferedImage getGraphImage(BufferedImage datasetImage) {
-    if (datasetImage == null) return null;
+  /**
+   * draws the part of the data set within viewport (in data co-ordinates, see getViewport) onto a
+   * width by height area of a graphics context ... at the resolution of that area, rather than
+   * that of the data, using the color used to represent 0% in the color table as background
+   */
+  public void draw(Graphics2D g, Rectangle2D viewport, int width, int height) {
+    renderer.draw(g, (Color) colorTable.get(Byte.valueOf((byte) 0)), viewport, width, height);
+  }
+
+  /** get the viewport ... the part of the data within the current ranges of the axes */
+  public Rectangle2D getViewport() {
+    return new Rectangle2D.Double(
+        xAxis.axisMin, yAxis.axisMin, xAxis.axisMax - xAxis.axisMin, yAxis.axisMax - yAxis.axisMin);
+  }
 
-    int x = (int) ((xAxis.axisMin - dxmin) / (dxmax - dxmin) * datasetImage.getWidth());
-    int y = (int) ((dymax - yAxis.axisMax) / (dymax - dymin) * datasetImage.getHeight());
-    int w = (int) ((xAxis.axisMax - xAxis.axisMin) / (dxmax - dxmin) * datasetImage.getWidth());
-    int h = (int) ((yAxis.axisMax - yAxis.axisMin) / (dymax - dymin) * datasetImage.getHeight());
+  /** get how several channels under one pixel are shown, by the renderer */
+  public int getPoolMethod() {
+    return renderer.getPoolMethod();
+  }
 
-    return (datasetImage.getSubimage(x, y, w, h));
+  /**
+   * set how several channels under one pixel are shown, by the renderer
+   * (DatasetXYtoZRenderer.POOL_MAXIMUM or DatasetXYtoZRenderer.POOL_AVERAGE)
+   */
+  public void setPoolMethod(int aPoolMethod) {
+    renderer.setPoolMethod(aPoolMethod);
   }
 
   /**
@@ -189,23 +226,49 @@ public abstract class DatasetXYtoZ extends Dataset {
   /** handles plotting a 3 dimensional array of integer values */
   public static class Integer extends DatasetXYtoZ {
     /**
-     * The actual 2-dimensional array holding the data to be plotted Note that this 2-dim array must
-     * be rectangular This data is an array of Y sub-array containing X elements
+     * The actual data to be plotted, held flat ... length sub-arrays of subLength elements each,
+     * one after another, so element [i][j] is zValue [i * subLength + j]. This data is an array of
+     * Y sub-array containing X elements
      */
-    protected int[][] zValue;
+    protected int[] zValue;
+
+    /** the number of sub-arrays in zValue */
+    protected int length;
+
+    /** counts the times data is set ... a pyramid is only used if built from the data as it is */
+    protected int dataVersion = 0;
+
+    /** the pyramid of data, for drawing it zoomed out ... null until one has been built */
+    protected volatile DatasetXYtoZPyramid pyramid;
+
+    /** the pool method and data version of the pyramid being built ... -1 if none is */
+    private int buildingPoolMethod = -1;
+
+    private int buildingDataVersion = -1;
 
     /**
-     * Instantiate a XYtoZ Dataset with the parsed data 2-dimensional array. *** DOES NOT USE A COPY
-     * *** No default empty dataset can be created Note that this 2-dim array must be rectangular
-     * This data is an array of Y sub-array containing X elements Throws a Dataset.DatasetException
-     * if the passed array is not rectangular
+     * Instantiate a XYtoZ Dataset with the parsed data 2-dimensional array. The array is copied
+     * into the flat zValue. No default empty dataset can be created Note that this 2-dim array must
+     * be rectangular This data is an array of Y sub-array containing X elements Throws a
+     * Dataset.DatasetException if the passed array is not rectangular
      */
     public Integer(int[][] aData, int type) throws Dataset.DatasetException {
-      try {
-        subLength = Misc.getRectangularArrayHeight(aData);
-      } catch (Misc.NotRectangularArrayException nrae) {
-        throw new Dataset.DatasetException("The passed array is not rectangular");
-      }
+      this(flatten(aData), aData.length, getSubLength(aData), type);
+    }
+
+    /**
+     * Instantiate a XYtoZ Dataset with the parsed flat data array, holding aLength sub-arrays of
+     * aSubLength elements each. *** DOES NOT USE A COPY *** This data is an array of Y sub-array
+     * containing X elements Throws a Dataset.DatasetException if aData does not hold aLength *
+     * aSubLength elements
+     */
+    public Integer(int[] aData, int aLength, int aSubLength, int type)
+        throws Dataset.DatasetException {
+      if (aLength < 0 || aSubLength < 0 || (long) aLength * aSubLength != aData.length)
+        throw new Dataset.DatasetException("The passed array does not match its dimensions");
+
+      length = aLength;
+      subLength = aSubLength;
 
       // set the data type
       switch (type) {
@@ -222,12 +285,10 @@ public abstract class DatasetXYtoZ extends Dataset {
       resetRenderer(DatasetXYtoZRenderer.COLORPLOT);
 
       zValue = aData;
-      absoluteUpperLimit = (double) MathPlus.getMaxValue(zValue);
-      absoluteLowerLimit = (double) MathPlus.getMinValue(zValue);
 
       // initialize data (the array that will actually be graphed ... depending on scale
-      data = new double[zValue.length][subLength];
-      // set data based on the scale
+      data = new double[length][subLength];
+      // set data based on the scale ... this also finds the absolute limits
       this.setData();
 
       // set the initial upper and lower limits recognized by the color table
@@ -240,11 +301,11 @@ public abstract class DatasetXYtoZ extends Dataset {
       dymin = 0;
       switch (dataType) {
         case Y_OF_X:
-          dymax = zValue.length;
+          dymax = length;
           dxmax = subLength;
           break;
         case X_OF_Y:
-          dxmax = zValue.length;
+          dxmax = length;
           dymax = subLength;
           break;
         default:
@@ -252,11 +313,29 @@ public abstract class DatasetXYtoZ extends Dataset {
       }
     }
 
+    private static int getSubLength(int[][] aData) throws Dataset.DatasetException {
+      try {
+        return Misc.getRectangularArrayHeight(aData);
+      } catch (Misc.NotRectangularArrayException nrae) {
+        throw new Dataset.DatasetException("The passed array is not rectangular");
+      }
+    }
+
+    /** copies a rectangular array into a new flat array, one sub-array after another */
+    private static int[] flatten(int[][] aData) throws Dataset.DatasetException {
+      int subLength = getSubLength(aData);
+      int[] flatData = new int[aData.length * subLength];
+      for (int i = 0; i < aData.length; i++) {
+        System.arraycopy(aData[i], 0, flatData, i * subLength, subLength);
+      }
+      return flatData;
+    }
+
     public void resetRenderer(int type) {
       switch (type) {
         case DatasetXYtoZRenderer.COLORPLOT:
         default:
-          if (renderer == null) setRenderer(new DatasetXYtoZRendererIntegerColor(this));
+          if (renderer == null) setRenderer(new DatasetXYtoZRendererIntegerRaster(this));
           break;
       }
     }
@@ -271,10 +350,15 @@ public abstract class DatasetXYtoZ extends Dataset {
       return Dataset.INTEGER_DATA;
     }
 
-    /** sets the data that will actually be plotted as z */
+    /** sets the data that will actually be plotted as z ... dropping the pyramid of the old data */
     public void setData() {
       renderer.setData();
 
+      synchronized (this) {
+        dataVersion++;
+        pyramid = null;
+      }
+
       /*
       ************ NOW HANDLED BY THE RENDERER *******************************
       // manipulate the limits also so that a new scale will be used
@@ -314,6 +398,58 @@ public abstract class DatasetXYtoZ extends Dataset {
 
     }
 
+    /**
+     * must be called after changing the zValue array in place (it is shared, e.g with the spectrum
+     * channel it is drawn from), so that the data is set again from it, and the graph drawn again
+     */
+    public void dataChanged() {
+      this.setData();
+      this.firePropertyChange(DatasetXYtoZ.DATA_PROPERTY, null, this);
+    }
+
+    /**
+     * get the pyramid of the data as it is now, pooled by poolMethod
+     * (DatasetXYtoZRenderer.POOL_MAXIMUM or POOL_AVERAGE) ... If there is none yet, it is built in
+     * the background, on the common fork/join pool, and null is returned until it has been
+     */
+    public synchronized DatasetXYtoZPyramid getPyramid(final int poolMethod) {
+      DatasetXYtoZPyramid aPyramid = pyramid;
+      if (aPyramid != null
+          && aPyramid.getPoolMethod() == poolMethod
+          && aPyramid.getDataVersion() == dataVersion) return aPyramid;
+
+      // already being built
+      if (buildingPoolMethod == poolMethod && buildingDataVersion == dataVersion) return null;
+
+      buildingPoolMethod = poolMethod;
+      buildingDataVersion = dataVersion;
+
+      final double[][] buildData = data;
+      final int buildDataVersion = dataVersion;
+      ForkJoinPool.commonPool()
+          .execute(
+              new Runnable() {
+                public void run() {
+                  DatasetXYtoZPyramid built =
+                      new DatasetXYtoZPyramid(
+                          buildData, length, subLength, poolMethod, buildDataVersion);
+                  publishPyramid(built);
+                }
+              });
+
+      return null;
+    }
+
+    /** makes built the pyramid, unless the data has been set again since it was started */
+    private synchronized void publishPyramid(DatasetXYtoZPyramid built) {
+      if (buildingPoolMethod == built.getPoolMethod()
+          && buildingDataVersion == built.getDataVersion()) {
+        buildingPoolMethod = buildingDataVersion = -1;
+      }
+
+      if (built.getDataVersion() == dataVersion) pyramid = built;
+    }
+
     /**
      * This draws the color representation of the z data It uses the concept of a maximum and
      * minimum range. ... THERE IS A LITTLE HACK ... Every value is in the range 1 to 100 % except
@@ -0,0 +1,99 @@
+package spec.lib.graph;
+
+/**
+ * A pyramid of ever coarser copies of the data of an XY to Z dataset, for drawing it zoomed out
+ * ... level k has one cell for each 2^k by 2^k block of channels, holding the largest or the sum of
+ * their values (see DatasetXYtoZRenderer.POOL_MAXIMUM and POOL_AVERAGE). Each level is reduced 2 by
+ * 2 from the one below it, level 0 being the data itself.
+ *
+ * <p>A viewport showing many channels in each pixel is then colored from the level with about one
+ * cell a pixel, so it takes about the same time whatever the size of the data. The cells are held
+ * as floats, which is plenty for choosing a color, so all the levels together take about a sixth
+ * of the memory of the data.
+ */
+public class DatasetXYtoZPyramid {
+  /** how the channels of a cell are pooled, DatasetXYtoZRenderer.POOL_MAXIMUM or POOL_AVERAGE */
+  protected final int poolMethod;
+
+  /** the version of the data of the dataset the pyramid was built from */
+  protected final int dataVersion;
+
+  /** the number of sub-arrays and their length, of the data */
+  protected final int length;
+
+  protected final int subLength;
+
+  /**
+   * the cells of each level above the data ... cells [k - 1] is level k, lengths [k - 1] sub-arrays
+   * of subLengths [k - 1] cells each, one after another
+   */
+  protected final float[][] cells;
+
+  protected final int[] lengths;
+  protected final int[] subLengths;
+
+  /**
+   * builds the pyramid of data, length sub-arrays of subLength values each, up to the level of a
+   * single cell
+   */
+  public DatasetXYtoZPyramid(
+      double[][] data, int length, int subLength, int poolMethod, int dataVersion) {
+    this.poolMethod = poolMethod;
+    this.dataVersion = dataVersion;
+    this.length = length;
+    this.subLength = subLength;
+
+    int levelCount = 0;
+    for (int l = length, s = subLength; l > 1 || s > 1; l = (l + 1) / 2, s = (s + 1) / 2) {
+      levelCount++;
+    }
+
+    cells = new float[levelCount][];
+    lengths = new int[levelCount];
+    subLengths = new int[levelCount];
+
+    boolean maximum = (poolMethod != DatasetXYtoZRenderer.POOL_AVERAGE);
+    for (int k = 0; k < levelCount; k++) {
+      int belowLength = (k == 0) ? length : lengths[k - 1];
+      int belowSubLength = (k == 0) ? subLength : subLengths[k - 1];
+      lengths[k] = (belowLength + 1) / 2;
+      subLengths[k] = (belowSubLength + 1) / 2;
+      cells[k] = new float[lengths[k] * subLengths[k]];
+
+      for (int i = 0; i < lengths[k]; i++) {
+        int iTo = Math.min(2 * i + 2, belowLength);
+        int offset = i * subLengths[k];
+        for (int j = 0; j < subLengths[k]; j++) {
+          int jTo = Math.min(2 * j + 2, belowSubLength);
+
+          // the up to 2 by 2 cells of the level below
+          float value = maximum ? -Float.MAX_VALUE : 0;
+          for (int bi = 2 * i; bi < iTo; bi++) {
+            for (int bj = 2 * j; bj < jTo; bj++) {
+              float below =
+                  (k == 0) ? (float) data[bi][bj] : cells[k - 1][bi * belowSubLength + bj];
+              if (!(maximum)) value += below;
+              else if (below > value) value = below;
+            }
+          }
+          cells[k][offset + j] = value;
+        }
+      }
+    }
+  }
+
+  /** how the channels of a cell are pooled, DatasetXYtoZRenderer.POOL_MAXIMUM or POOL_AVERAGE */
+  public int getPoolMethod() {
+    return poolMethod;
+  }
+
+  /** the version of the data of the dataset the pyramid was built from */
+  public int getDataVersion() {
+    return dataVersion;
+  }
+
+  /** the number of levels above the data ... level getLevelCount () is a single cell */
+  public int getLevelCount() {
+    return cells.length;
+  }
+}
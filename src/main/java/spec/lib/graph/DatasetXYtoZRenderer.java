@@ -2,6 +2,7 @@ package spec.lib.graph;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
 
 public abstract class DatasetXYtoZRenderer {
   protected DatasetXYtoZ dataset;
@@ -9,10 +10,35 @@ public abstract class DatasetXYtoZRenderer {
   /** defines a color plot */
   public static final int COLORPLOT = 61;
 
+  /** several channels under one pixel are shown by the largest of their values */
+  public static final int POOL_MAXIMUM = 71;
+  /** several channels under one pixel are shown by the average of their values */
+  public static final int POOL_AVERAGE = 72;
+
+  /** how several channels under one pixel are shown, when drawing a viewport */
+  protected int poolMethod = POOL_MAXIMUM;
+
   public DatasetXYtoZRenderer(DatasetXYtoZ dataset) {
     this.dataset = dataset;
   }
 
+  /** get how several channels under one pixel are shown (POOL_MAXIMUM or POOL_AVERAGE) */
+  public int getPoolMethod() {
+    return poolMethod;
+  }
+
+  /** set how several channels under one pixel are shown (POOL_MAXIMUM or POOL_AVERAGE) */
+  public void setPoolMethod(int aPoolMethod) {
+    switch (aPoolMethod) {
+      case POOL_MAXIMUM:
+      case POOL_AVERAGE:
+        poolMethod = aPoolMethod;
+        break;
+      default:
+        break;
+    }
+  }
+
   /** sets the data that will actually be plotted as z */
   public abstract void setData();
 
@@ -25,6 +51,25 @@ public abstract class DatasetXYtoZRenderer {
    */
   public abstract void draw(Graphics2D g, Color background);
 
+  /**
+   * draws the part of the z data within viewport (in data co-ordinates) onto a width by height
+   * area, at 0, 0 ... This one draws all of the data, scaled and clipped to the area. Renderers
+   * which can should only color the channels within viewport, at the resolution of the area
+   *
+   * @param the background color of the dataset
+   */
+  public void draw(Graphics2D g, Color background, Rectangle2D viewport, int width, int height) {
+    if (width <= 0 || height <= 0 || viewport.isEmpty()) return;
+
+    Graphics2D viewportGraphics = (Graphics2D) g.create();
+    viewportGraphics.clipRect(0, 0, width, height);
+    viewportGraphics.scale(width / viewport.getWidth(), height / viewport.getHeight());
+    // the data is drawn with its y axis going up from the bottom of dymax rows
+    viewportGraphics.translate(-viewport.getX(), viewport.getMaxY() - dataset.dymax);
+    draw(viewportGraphics, background);
+    viewportGraphics.dispose();
+  }
+
   public abstract static class Integer extends DatasetXYtoZRenderer {
     protected DatasetXYtoZ.Integer datasetI;
 
@@ -3,47 +3,33 @@ package spec.lib.graph;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
-import spec.lib.MathPlus;
 
 public class DatasetXYtoZRendererIntegerColor extends DatasetXYtoZRenderer.Integer {
   public DatasetXYtoZRendererIntegerColor(DatasetXYtoZ.Integer datasetI) {
     super(datasetI);
   }
 
-  /** sets the data that will actually be plotted as z */
+  /**
+   * sets the data that will actually be plotted as z ... and the limits to the smallest and the
+   * largest of it, found in the same pass
+   */
   public void setData() {
-    // manipulate the limits also so that a new scale will be used
-    // and the graph Key will be updated for this
-    datasetI.upperLimit = datasetI.absoluteUpperLimit = (double) java.lang.Integer.MIN_VALUE;
-    datasetI.lowerLimit = datasetI.absoluteLowerLimit = (double) java.lang.Integer.MAX_VALUE;
-
-    switch (datasetI.scale) {
-      case Dataset.LOG_10:
-        for (int i = 0; i < datasetI.zValue.length; i++) {
-          for (int j = 0; j < datasetI.subLength; j++) {
-            datasetI.data[i][j] = datasetI._log10(datasetI.zValue[i][j]);
-          }
-        }
-        break;
-      case Dataset.LOG_E:
-        for (int i = 0; i < datasetI.zValue.length; i++) {
-          for (int j = 0; j < datasetI.subLength; j++) {
-            datasetI.data[i][j] = datasetI._log(datasetI.zValue[i][j]);
-          }
-        }
-        break;
-      case Dataset.LINEAR:
-      default:
-        for (int i = 0; i < datasetI.zValue.length; i++) {
-          for (int j = 0; j < datasetI.subLength; j++) {
-            datasetI.data[i][j] = datasetI.zValue[i][j];
-          }
-        }
-        break;
+    double[] minMax = {java.lang.Double.MAX_VALUE, -1.0 * java.lang.Double.MAX_VALUE};
+    for (int i = 0; i < datasetI.length; i++) {
+      Dataset.scaleValues(
+          datasetI.zValue,
+          i * datasetI.subLength,
+          datasetI.data[i],
+          0,
+          datasetI.subLength,
+          datasetI.scale,
+          minMax);
     }
 
-    datasetI.upperLimit = datasetI.absoluteUpperLimit = MathPlus.getMaxValue(datasetI.data);
-    datasetI.lowerLimit = datasetI.absoluteLowerLimit = MathPlus.getMinValue(datasetI.data);
+    // manipulate the limits also so that a new scale will be used
+    // and the graph Key will be updated for this
+    datasetI.upperLimit = datasetI.absoluteUpperLimit = minMax[1];
+    datasetI.lowerLimit = datasetI.absoluteLowerLimit = minMax[0];
   }
 
   /**
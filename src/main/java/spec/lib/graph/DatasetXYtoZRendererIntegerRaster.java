@@ -0,0 +1,378 @@
+package spec.lib.graph;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Draws the same colors as DatasetXYtoZRendererIntegerColor, but rather than filling a rectangle
+ * for each channel, it looks up the RGB value of each percentage once, writes the pixels row by row
+ * straight into the int array of a TYPE_INT_RGB image, and draws that image in one call. Set it on
+ * a dataset through DatasetXYtoZ.setRenderer
+ *
+ * <p>The image is cut into stripes of STRIPE_HEIGHT rows, which are colored in parallel on the
+ * common fork/join pool. Each stripe only writes its own rows of pixels.
+ *
+ * <p>A viewport is drawn straight from the data at the resolution it is drawn at ... only the
+ * channels within it are read, and the channels which fall under one pixel are pooled into it by
+ * their largest or average value (see setPoolMethod). Zoomed out to a few channels a pixel or
+ * more, it is colored from the level of the pyramid of the dataset with about one cell a pixel
+ * (see DatasetXYtoZ.Integer.getPyramid), once that has been built.
+ */
+public class DatasetXYtoZRendererIntegerRaster extends DatasetXYtoZRendererIntegerColor {
+  /** the RGB value of the color of each percentage, 0 to 100, in the color table */
+  protected int[] rgbTable = new int[101];
+
+  /** the image the pixels are written into ... kept from one draw to the next of the same size */
+  protected BufferedImage rasterImage;
+
+  /** the number of rows of pixels colored together by one task */
+  public static final int STRIPE_HEIGHT = 64;
+
+  public DatasetXYtoZRendererIntegerRaster(DatasetXYtoZ.Integer datasetI) {
+    super(datasetI);
+  }
+
+  /**
+   * This draws the color representation of the z data It uses the concept of a maximum and minimum
+   * range. ... THERE IS A LITTLE HACK ... Every value is in the range 1 to 100 % except the data
+   * value is exactly zero (then it is 0 %)
+   *
+   * @param the background color of the dataset
+   */
+  public synchronized void draw(Graphics2D g, Color background) {
+    int width = (int) datasetI.dxmax;
+    int height = (int) datasetI.dymax;
+    if (width <= 0 || height <= 0) return;
+
+    setRGBTable(background);
+
+    setRasterImageSize(width, height);
+
+    if (datasetI.dataType != DatasetXYtoZ.Y_OF_X && datasetI.dataType != DatasetXYtoZ.X_OF_Y)
+      return;
+
+    int[] pixels = ((DataBufferInt) rasterImage.getRaster().getDataBuffer()).getData();
+    int limitRange = (int) (datasetI.upperLimit - datasetI.lowerLimit);
+
+    if (colorStripes(pixels, width, height, limitRange, null))
+      g.drawImage(rasterImage, 0, 0, null);
+  }
+
+  /**
+   * draws the part of the z data within viewport (in data co-ordinates) onto a width by height
+   * area, at 0, 0 ... Only the channels within viewport are colored, and the channels under each
+   * pixel are pooled into it. Pixels outside of the data get the background color
+   *
+   * @param the background color of the dataset
+   */
+  public synchronized void draw(
+      Graphics2D g, Color background, Rectangle2D viewport, int width, int height) {
+    if (width <= 0 || height <= 0 || viewport.isEmpty()) return;
+
+    setRGBTable(background);
+    setRasterImageSize(width, height);
+
+    if (datasetI.dataType != DatasetXYtoZ.Y_OF_X && datasetI.dataType != DatasetXYtoZ.X_OF_Y)
+      return;
+
+    Viewport v = new Viewport(viewport, width, height, background.getRGB());
+
+    // the level of the pyramid with at most one cell a pixel in either direction
+    double channelsPerPixel = Math.min(viewport.getWidth() / width, viewport.getHeight() / height);
+    int level = 0;
+    while (level < 30 && (1 << (level + 1)) <= channelsPerPixel) level++;
+    if (level > 0) {
+      DatasetXYtoZPyramid pyramid = datasetI.getPyramid(poolMethod);
+      if (pyramid != null) {
+        v.pyramid = pyramid;
+        v.level = Math.min(level, pyramid.getLevelCount());
+      }
+    }
+
+    int[] pixels = ((DataBufferInt) rasterImage.getRaster().getDataBuffer()).getData();
+    int limitRange = (int) (datasetI.upperLimit - datasetI.lowerLimit);
+
+    if (colorStripes(pixels, width, height, limitRange, v)) g.drawImage(rasterImage, 0, 0, null);
+  }
+
+  /** makes rasterImage width by height pixels, if it is not already */
+  private void setRasterImageSize(int width, int height) {
+    if (rasterImage == null
+        || rasterImage.getWidth() != width
+        || rasterImage.getHeight() != height)
+      rasterImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+  }
+
+  /**
+   * colors the pixels in stripes of rows, in parallel ... of the whole data if viewport is null.
+   * Returns false if interrupted
+   */
+  private boolean colorStripes(
+      int[] pixels, int width, int height, int limitRange, Viewport viewport) {
+    List stripes = new ArrayList();
+    for (int row = 0; row < height; row += STRIPE_HEIGHT) {
+      int toRow = Math.min(height, row + STRIPE_HEIGHT);
+      stripes.add(new Stripe(pixels, width, height, limitRange, viewport, row, toRow));
+    }
+
+    if (stripes.size() == 1) ((Stripe) stripes.get(0)).call();
+    else {
+      List futures = ForkJoinPool.commonPool().invokeAll(stripes);
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          ((Future) futures.get(i)).get();
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          return false;
+        } catch (ExecutionException ee) {
+          throw new RuntimeException("Error in coloring the dataset image", ee.getCause());
+        }
+      }
+    }
+
+    return true;
+  }
+
+  /** colors the rows of pixels from fromRow (inclusive) to toRow (exclusive), top down */
+  protected void colorRows(
+      int[] pixels, int width, int height, int limitRange, int fromRow, int toRow) {
+    switch (datasetI.dataType) {
+      case DatasetXYtoZ.Y_OF_X:
+        // each data [i] is a row of the image, drawn from the bottom up
+        for (int row = fromRow; row < toRow; row++) {
+          double[] data = datasetI.data[height - 1 - row];
+          int offset = row * width;
+          for (int j = 0; j < width; j++) {
+            pixels[offset + j] = rgbTable[getPercentage(data[j], limitRange)];
+          }
+        }
+        break;
+      case DatasetXYtoZ.X_OF_Y:
+        // each data [i] is a column of the image, drawn from the bottom up
+        for (int row = fromRow; row < toRow; row++) {
+          int j = height - 1 - row;
+          int offset = row * width;
+          for (int i = 0; i < width; i++) {
+            pixels[offset + i] = rgbTable[getPercentage(datasetI.data[i][j], limitRange)];
+          }
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * colors the rows of pixels of viewport from fromRow (inclusive) to toRow (exclusive), top down
+   * ... each pixel from the largest or average value of the channels under it
+   */
+  protected void colorViewportRows(
+      int[] pixels, int width, int limitRange, Viewport viewport, int fromRow, int toRow) {
+    if (viewport.pyramid != null) {
+      colorPyramidRows(pixels, width, limitRange, viewport, fromRow, toRow);
+      return;
+    }
+
+    boolean average = (poolMethod == POOL_AVERAGE);
+    double[][] data = datasetI.data;
+    boolean yOfX = (datasetI.dataType == DatasetXYtoZ.Y_OF_X);
+
+    for (int row = fromRow; row < toRow; row++) {
+      // the rows of pixels go down, the y channels go up
+      int pixelY = viewport.yFrom.length - 1 - row;
+      int yFrom = viewport.yFrom[pixelY];
+      int yTo = viewport.yTo[pixelY];
+      int offset = row * width;
+
+      for (int column = 0; column < width; column++) {
+        int xFrom = viewport.xFrom[column];
+        int xTo = viewport.xTo[column];
+        if (xFrom >= xTo || yFrom >= yTo) {
+          // outside of the data
+          pixels[offset + column] = viewport.backgroundRGB;
+          continue;
+        }
+
+        double value = average ? 0 : -1.0 * java.lang.Double.MAX_VALUE;
+        for (int y = yFrom; y < yTo; y++) {
+          for (int x = xFrom; x < xTo; x++) {
+            double d = yOfX ? data[y][x] : data[x][y];
+            if (average) value += d;
+            else if (d > value) value = d;
+          }
+        }
+        if (average) value /= (double) (xTo - xFrom) * (yTo - yFrom);
+
+        pixels[offset + column] = rgbTable[getPercentage(value, limitRange)];
+      }
+    }
+  }
+
+  /**
+   * colors the rows of pixels of viewport from fromRow (inclusive) to toRow (exclusive), top down
+   * ... each pixel from the cells of viewport.level of the pyramid covering the channels under it.
+   * So the blocks of channels at the edges of the pixel are pooled whole
+   */
+  protected void colorPyramidRows(
+      int[] pixels, int width, int limitRange, Viewport viewport, int fromRow, int toRow) {
+    DatasetXYtoZPyramid pyramid = viewport.pyramid;
+    boolean average = (pyramid.getPoolMethod() == POOL_AVERAGE);
+    boolean yOfX = (datasetI.dataType == DatasetXYtoZ.Y_OF_X);
+    int shift = viewport.level;
+    float[] cells = pyramid.cells[shift - 1];
+    int cellSubLength = pyramid.subLengths[shift - 1];
+
+    for (int row = fromRow; row < toRow; row++) {
+      // the rows of pixels go down, the y channels go up
+      int pixelY = viewport.yFrom.length - 1 - row;
+      int yFrom = viewport.yFrom[pixelY];
+      int yTo = viewport.yTo[pixelY];
+      int offset = row * width;
+
+      for (int column = 0; column < width; column++) {
+        int xFrom = viewport.xFrom[column];
+        int xTo = viewport.xTo[column];
+        if (xFrom >= xTo || yFrom >= yTo) {
+          // outside of the data
+          pixels[offset + column] = viewport.backgroundRGB;
+          continue;
+        }
+
+        // the cells covering the channels, in the order of the data arrays
+        int iFrom = (yOfX ? yFrom : xFrom) >> shift;
+        int iTo = (((yOfX ? yTo : xTo) - 1) >> shift) + 1;
+        int jFrom = (yOfX ? xFrom : yFrom) >> shift;
+        int jTo = (((yOfX ? xTo : yTo) - 1) >> shift) + 1;
+
+        double value = average ? 0 : -1.0 * java.lang.Double.MAX_VALUE;
+        for (int i = iFrom; i < iTo; i++) {
+          int cellOffset = i * cellSubLength;
+          for (int j = jFrom; j < jTo; j++) {
+            float cell = cells[cellOffset + j];
+            if (average) value += cell;
+            else if (cell > value) value = cell;
+          }
+        }
+        if (average) {
+          // the channels in the cells ... those at the ends of the data may hold fewer
+          long channels =
+              (long) (Math.min(iTo << shift, pyramid.length) - (iFrom << shift))
+                  * (Math.min(jTo << shift, pyramid.subLength) - (jFrom << shift));
+          value /= channels;
+        }
+
+        pixels[offset + column] = rgbTable[getPercentage(value, limitRange)];
+      }
+    }
+  }
+
+  /**
+   * the percentage of the whole range that value is, from 1 to 100 ... 0 if value is exactly zero.
+   * The same as in DatasetXYtoZRendererIntegerColor.draw
+   */
+  protected final int getPercentage(double value, int limitRange) {
+    if ((int) value == 0) return 0;
+
+    int b = (int) ((value - datasetI.lowerLimit) / limitRange * 100);
+    if (b < 1) b = 1;
+    else if (b > 100) b = 100;
+
+    return b;
+  }
+
+  /**
+   * The channels under each column and each row of pixels of a viewport ... from xFrom [column]
+   * (inclusive) to xTo [column] (exclusive), and likewise for the rows, counted from the bottom.
+   * None if the pixel is outside of the data. Colored from level of pyramid, if that is not null
+   */
+  protected final class Viewport {
+    final int[] xFrom;
+    final int[] xTo;
+    final int[] yFrom;
+    final int[] yTo;
+    final int backgroundRGB;
+    DatasetXYtoZPyramid pyramid;
+    int level;
+
+    Viewport(Rectangle2D viewport, int width, int height, int backgroundRGB) {
+      xFrom = new int[width];
+      xTo = new int[width];
+      setChannels(viewport.getMinX(), viewport.getMaxX(), (int) datasetI.dxmax, xFrom, xTo);
+      yFrom = new int[height];
+      yTo = new int[height];
+      setChannels(viewport.getMinY(), viewport.getMaxY(), (int) datasetI.dymax, yFrom, yTo);
+      this.backgroundRGB = backgroundRGB;
+    }
+
+    /**
+     * sets the channels under each of from.length pixels spread evenly from min to max ... those
+     * whose centers lie under the pixel, or if there are none (zoomed in to less than a channel a
+     * pixel) the one under the center of the pixel
+     */
+    private void setChannels(double min, double max, int channels, int[] from, int[] to) {
+      double step = (max - min) / from.length;
+      for (int pixel = 0; pixel < from.length; pixel++) {
+        double low = min + pixel * step;
+        int first = (int) Math.ceil(low - 0.5);
+        int last = (int) Math.ceil(low + step - 0.5);
+        if (last <= first) {
+          first = (int) Math.floor(low + step / 2);
+          last = first + 1;
+        }
+        from[pixel] = Math.max(first, 0);
+        to[pixel] = Math.min(last, channels);
+      }
+    }
+  }
+
+  /** one stripe of rows of the image, colored by one task ... of viewport if it is not null */
+  private final class Stripe implements Callable {
+    private final int[] pixels;
+    private final int width;
+    private final int height;
+    private final int limitRange;
+    private final Viewport viewport;
+    private final int fromRow;
+    private final int toRow;
+
+    Stripe(
+        int[] pixels,
+        int width,
+        int height,
+        int limitRange,
+        Viewport viewport,
+        int fromRow,
+        int toRow) {
+      this.pixels = pixels;
+      this.width = width;
+      this.height = height;
+      this.limitRange = limitRange;
+      this.viewport = viewport;
+      this.fromRow = fromRow;
+      this.toRow = toRow;
+    }
+
+    public Object call() {
+      if (viewport == null) colorRows(pixels, width, height, limitRange, fromRow, toRow);
+      else colorViewportRows(pixels, width, limitRange, viewport, fromRow, toRow);
+      return null;
+    }
+  }
+
+  /** looks up the RGB value of each percentage in the color table of the dataset */
+  protected void setRGBTable(Color background) {
+    for (int b = 0; b <= 100; b++) {
+      Color theColor = (Color) datasetI.colorTable.get(Byte.valueOf((byte) b));
+      rgbTable[b] = (theColor == null) ? background.getRGB() : theColor.getRGB();
+    }
+  }
+}
@@ -73,6 +73,11 @@ public abstract class DatasetXtoY extends Dataset {
    */
   public double[] ydata;
 
+  /** the smallest and the largest of ydata, found as it is set (see setData) */
+  protected double ydataMin = java.lang.Double.MAX_VALUE;
+
+  protected double ydataMax = -1.0 * java.lang.Double.MAX_VALUE;
+
   /**
    * Array of the uncertainty in a dataset value Each dataset value has associated with it 2 error
    * values, upDistance and downDistance, representing the error above and below the measured value
@@ -88,6 +93,12 @@ public abstract class DatasetXtoY extends Dataset {
    */
   DatasetXtoYRenderer renderer;
 
+  /**
+   * counts the changes to the plotted data, the errors shown and the render method ... a drawing
+   * of the dataset kept from before is out of date once this has changed
+   */
+  protected int drawVersion;
+
   // instance initializer ... initializing these variables
   {
     /** The dataset name */
@@ -146,6 +157,12 @@ public abstract class DatasetXtoY extends Dataset {
   public void setRenderMethod(int renderMethod, int errorInYType) {
     setErrorInYType(errorInYType);
     resetRenderer(renderMethod);
+    drawVersion++;
+  }
+
+  /** the number of changes to what is drawn for the dataset ... see drawVersion */
+  public int getDrawVersion() {
+    return drawVersion;
   }
 
   public void setErrorInYType(int errorInYType) {
@@ -365,29 +382,15 @@ public abstract class DatasetXtoY extends Dataset {
      * dataset ... based on the renderMethod and errorInYType
      */
     public void resetRenderer(int renderMethod) {
-      switch (renderMethod) {
-        case DatasetXtoYRenderer.DIAGONAL:
-          if (renderer == null || !(renderer instanceof DatasetXtoYRendererIntegerDiag))
-            this.setRenderer(new DatasetXtoYRendererIntegerDiag(this));
-          break;
-        case DatasetXtoYRenderer.HORIZONTAL_VERTICAL:
-          if (renderer == null || !(renderer instanceof DatasetXtoYRendererIntegerHV))
-            this.setRenderer(new DatasetXtoYRendererIntegerHV(this));
-          break;
-        case DatasetXtoYRenderer.VERTICAL_HORIZONTAL:
-          if (renderer == null || !(renderer instanceof DatasetXtoYRendererIntegerVH))
-            this.setRenderer(new DatasetXtoYRendererIntegerVH(this));
-          break;
-        default:
-          if (renderer == null || !(renderer instanceof DatasetXtoYRendererIntegerDiag))
-            this.setRenderer(new DatasetXtoYRendererIntegerDiag(this));
-          break;
-      }
+      // the one renderer draws every render method ... it is only made once
+      if (renderer == null) this.setRenderer(new DatasetXtoYRenderer.Integer(this, renderMethod));
+      else renderer.setRenderMethod(renderMethod);
     }
 
     /** sets the data that will actually be plotted as y */
     public void setData() {
       renderer.setData();
+      drawVersion++;
     }
 
     /**
@@ -396,6 +399,7 @@ public abstract class DatasetXtoY extends Dataset {
     public void setShowError(boolean b) {
       showErrorInY = b;
       renderer.setShowError(b);
+      drawVersion++;
     }
 
     /**
@@ -438,19 +442,11 @@ public abstract class DatasetXtoY extends Dataset {
     public Point2D.Double getClosestPoint(double x, double y) {
 
       Point2D.Double aPoint = new Point2D.Double();
-      double xdiff = 0.0, ydiff = 0.0, diff = 0.0, newdiff = 0.0;
-
-      for (int i = 0; i < numDataPoints; i++) {
-        xdiff = (xdata[i] - x);
-        ydiff = (ydata[i] - y);
-
-        newdiff = xdiff * xdiff + ydiff * ydiff;
-
-        if (newdiff < diff) {
-          aPoint.x = xdata[i];
-          aPoint.y = ydata[i];
-          diff = newdiff;
-        }
+      // found by the renderer, from the blocks of points around x
+      int i = renderer.getClosestIndex(x, y);
+      if (i >= 0) {
+        aPoint.x = xdata[i];
+        aPoint.y = ydata[i];
       }
       return aPoint;
     }
@@ -479,8 +475,9 @@ public abstract class DatasetXtoY extends Dataset {
 
       setXMax(Math.max(optionalXMax, MathPlus.getMaxValue(xdata)));
       setXMin(Math.min(optionalXMin, MathPlus.getMinValue(xdata)));
-      setYMax(Math.max(optionalYMax, MathPlus.getMaxValue(ydata)));
-      setYMin(Math.min(optionalYMin, MathPlus.getMinValue(ydata)));
+      // the y range was found as ydata was set
+      setYMax(Math.max(optionalYMax, ydataMax));
+      setYMin(Math.min(optionalYMin, ydataMin));
     }
   }
 
@@ -596,29 +593,15 @@ public abstract class DatasetXtoY extends Dataset {
      * dataset ... based on the renderMethod and errorInYType
      */
     public void resetRenderer(int renderMethod) {
-      switch (renderMethod) {
-        case DatasetXtoYRenderer.DIAGONAL:
-          if (renderer == null || !(renderer instanceof DatasetXtoYRendererDoubleDiag))
-            this.setRenderer(new DatasetXtoYRendererDoubleDiag(this));
-          break;
-        case DatasetXtoYRenderer.HORIZONTAL_VERTICAL:
-          if (renderer == null || !(renderer instanceof DatasetXtoYRendererDoubleHV))
-            this.setRenderer(new DatasetXtoYRendererDoubleHV(this));
-          break;
-        case DatasetXtoYRenderer.VERTICAL_HORIZONTAL:
-          if (renderer == null || !(renderer instanceof DatasetXtoYRendererDoubleVH))
-            this.setRenderer(new DatasetXtoYRendererDoubleVH(this));
-          break;
-        default:
-          if (renderer == null || !(renderer instanceof DatasetXtoYRendererDoubleDiag))
-            this.setRenderer(new DatasetXtoYRendererDoubleDiag(this));
-          break;
-      }
+      // the one renderer draws every render method ... it is only made once
+      if (renderer == null) this.setRenderer(new DatasetXtoYRenderer.Double(this, renderMethod));
+      else renderer.setRenderMethod(renderMethod);
     }
 
     /** sets the data that will actually be plotted as y */
     public void setData() {
       renderer.setData();
+      drawVersion++;
     }
 
     /**
@@ -627,6 +610,7 @@ public abstract class DatasetXtoY extends Dataset {
     public void setShowError(boolean b) {
       showErrorInY = b;
       renderer.setShowError(b);
+      drawVersion++;
     }
 
     /**
@@ -669,19 +653,11 @@ public abstract class DatasetXtoY extends Dataset {
     public Point2D.Double getClosestPoint(double x, double y) {
 
       Point2D.Double aPoint = new Point2D.Double();
-      double xdiff = 0.0, ydiff = 0.0, diff = 0.0, newdiff = 0.0;
-
-      for (int i = 0; i < numDataPoints; i++) {
-        xdiff = (xdata[i] - x);
-        ydiff = (ydata[i] - y);
-
-        newdiff = xdiff * xdiff + ydiff * ydiff;
-
-        if (newdiff < diff) {
-          aPoint.x = xdata[i];
-          aPoint.y = ydata[i];
-          diff = newdiff;
-        }
+      // found by the renderer, from the blocks of points around x
+      int i = renderer.getClosestIndex(x, y);
+      if (i >= 0) {
+        aPoint.x = xdata[i];
+        aPoint.y = ydata[i];
       }
       return aPoint;
     }
@@ -710,8 +686,9 @@ public abstract class DatasetXtoY extends Dataset {
 
       setXMax(Math.max(optionalXMax, MathPlus.getMaxValue(xdata)));
       setXMin(Math.min(optionalXMin, MathPlus.getMinValue(xdata)));
-      setYMax(Math.max(optionalYMax, MathPlus.getMaxValue(ydata)));
-      setYMin(Math.min(optionalYMin, MathPlus.getMinValue(ydata)));
+      // the y range was found as ydata was set
+      setYMax(Math.max(optionalYMax, ydataMax));
+      setYMin(Math.min(optionalYMin, ydataMin));
     }
   }
 
@@ -1,9 +1,19 @@
 package spec.lib.graph;
 
+import java.awt.BasicStroke;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
-import java.awt.geom.Point2D;
-
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+
+/**
+ * Draws an X to Y dataset onto a graphics context, with each of the render methods ... DIAGONAL,
+ * HORIZONTAL_VERTICAL and VERTICAL_HORIZONTAL. The Integer and Double subclasses only work out the
+ * x positions and y data from their own type of arrays. The drawing itself is one loop over float
+ * arrays of the positions of the points, for all the render methods and types of error.
+ */
 public abstract class DatasetXtoYRenderer {
 
   /** points are directly connected to each other */
@@ -16,34 +26,211 @@ public abstract class DatasetXtoYRenderer {
   protected DatasetXtoY dataset;
   protected boolean showErrorInY = false;
 
-  /** necessary for the drawing */
-  protected Point2D.Float p0;
+  /** how the points are connected ... DIAGONAL, HORIZONTAL_VERTICAL or VERTICAL_HORIZONTAL */
+  protected int renderMethod;
+
+  /** true if the points are connected by a horizontal and a vertical line, rather than one line */
+  protected boolean steps;
+
+  /**
+   * the shape of the render method, as offsets (0 or 1) from point k of pointX and pointY ... the
+   * corner of the step from point k to point k + 1 is at (pointX [k + cornerX], pointY [k +
+   * cornerY]), and its error bar is drawn at x (pointX [k + errorX] + pointX [k + 1]) / 2 from y
+   * pointY [k + errorY]. So the one drawing loop serves every render method, without testing it
+   * for each point
+   */
+  protected int cornerX;
+
+  protected int cornerY;
+  protected int errorX;
+  protected int errorY;
 
-  protected Point2D.Float p1;
+  /**
+   * the side of x the data point of getY (x) is on ... -1 for at or left of x, 1 for at or right of
+   * x, and 0 for either side
+   */
+  protected int getYSide;
+
+  /**
+   * the indices of the data points in the order of their x, points of equal x in the order they
+   * are in, without the points whose x is not a number ... made by getXOrder when first needed
+   * after the data is set, null until then
+   */
+  protected int[] xOrder;
+
+  /**
+   * the spacing of the x values, when they increase evenly from point to point (xdata [i] is about
+   * xdata [0] + i * xStep), so that the point of an x can be found directly ... 0 otherwise
+   */
+  protected double xStep;
+
+  /**
+   * the points in x order (see getXOrder) are cut into blocks of this many, in turn, for
+   * getClosestIndex ... a block is passed over as a whole when none of its points can be closer
+   * than the closest point found so far
+   */
+  public static final int POINTS_PER_BLOCK = 32;
+
+  /**
+   * the smallest and the largest y data of each block of points (see POINTS_PER_BLOCK) ... made by
+   * getClosestIndex when first needed after the data is set, null until then
+   */
+  protected double[] blockYMin;
+
+  protected double[] blockYMax;
+
+  /**
+   * if true, the lines of a draw (steps and error bars) are collected into path and drawn a few
+   * at a time, rather than with one call and one new Line2D each. The lines of a path are filled
+   * as one shape, so the picture is not always the same to the pixel ... antialiased lines are
+   * blended once where they overlap rather than once each, and without antialiasing the pixels
+   * right on the edge of lines of a pixel or less, or with butt or square caps, can go either way.
+   * Lines wider than a pixel with round caps (the default lineStyle) match without antialiasing
+   */
+  protected boolean batchDraw = true;
+
+  /** the lines of the current draw, when batchDraw ... kept from one draw to the next */
+  protected Path2D.Float path = new Path2D.Float();
+
+  /** the number of lines in the path */
+  protected int numPathLines;
+
+  /**
+   * the path is drawn, and started again, once it holds this many lines ... one very long path is
+   * slower to stroke than the lines on their own. Can be set by the spec.graph.linesPerPath system
+   * property
+   */
+  protected static int linesPerPath =
+      java.lang.Integer.getInteger("spec.graph.linesPerPath", 16).intValue();
+
+  /**
+   * the positions on the graphics context of the start point and the points to draw ... point 0 is
+   * the optional start point (or else the first data point), and point k + 1 is data point
+   * drawIndex [k]. Set by initDraw
+   */
+  protected float[] pointX = new float[1];
+
+  protected float[] pointY = new float[1];
+
+  /** how far the error bar of each point to draw reaches up and down ... set by initDraw */
+  protected float[] upErrorDist = new float[0];
+
+  protected float[] downErrorDist = new float[0];
 
   protected int h;
   protected int w;
 
-  protected float upErrorDist;
-  protected float downErrorDist;
-
   protected double xAxisRange;
   protected double yAxisRange;
 
   protected AxisX xAxis;
   protected AxisY yAxis;
 
-  public DatasetXtoYRenderer(DatasetXtoY dataset) {
+  /**
+   * the indices of the data points to draw, in order ... drawIndex [0] to drawIndex [numDrawPoints
+   * - 1]. Set by initDraw
+   */
+  protected int[] drawIndex = new int[0];
+
+  protected int numDrawPoints;
+
+  /**
+   * the points are only thinned out into the min/max/first/last of each pixel column when there
+   * are more than this many of them in each column, on average
+   */
+  public static final int POINTS_PER_COLUMN_TO_THIN = 2;
+
+  /**
+   * true if the points of the current draw may be thinned out ... only when the graphics context
+   * snaps them to whole pixels of the device and does not blend the lines (see canThin). Set by
+   * initDraw
+   */
+  protected boolean thinPoints;
+
+  public DatasetXtoYRenderer(DatasetXtoY dataset, int renderMethod) {
     this.dataset = dataset;
     xAxis = dataset.getAxisX();
     yAxis = dataset.getAxisY();
+    setRenderMethod(renderMethod);
+  }
+
+  /** sets how the points are connected ... DIAGONAL for any other value than the render methods */
+  public void setRenderMethod(int renderMethod) {
+    switch (renderMethod) {
+      case HORIZONTAL_VERTICAL:
+        // the corner is under (or over) the next point, the error bar half way along the step
+        steps = true;
+        cornerX = 1;
+        cornerY = 0;
+        errorX = 0;
+        errorY = 0;
+        getYSide = -1;
+        break;
+      case VERTICAL_HORIZONTAL:
+        // the corner is under (or over) this point, the error bar half way along the step
+        steps = true;
+        cornerX = 0;
+        cornerY = 1;
+        errorX = 0;
+        errorY = 1;
+        getYSide = 1;
+        break;
+      case DIAGONAL:
+      default:
+        // the error bar is on the next point
+        renderMethod = DIAGONAL;
+        steps = false;
+        cornerX = 1;
+        cornerY = 1;
+        errorX = 1;
+        errorY = 1;
+        getYSide = 0;
+        break;
+    }
+    this.renderMethod = renderMethod;
+  }
+
+  public int getRenderMethod() {
+    return renderMethod;
   }
 
   public void setShowError(boolean b) {
     showErrorInY = b;
   }
 
-  /** subclasses should always call this to perform default stuff, in their draw method */
+  /**
+   * sets whether the lines of a draw are drawn as paths, or one call at a time ... see batchDraw
+   */
+  public void setBatchDraw(boolean b) {
+    batchDraw = b;
+  }
+
+  public boolean isBatchDraw() {
+    return batchDraw;
+  }
+
+  /**
+   * draws the line from (x1, y1) to (x2, y2) ... or adds it to the path, when batchDraw. Each line
+   * is a path of its own, so it is capped and dashed the same way as when drawn on its own
+   */
+  protected final void drawLine(Graphics2D g, float x1, float y1, float x2, float y2) {
+    if (batchDraw) {
+      path.moveTo(x1, y1);
+      path.lineTo(x2, y2);
+      if (++numPathLines >= linesPerPath) finishDraw(g);
+    } else g.draw(new Line2D.Float(x1, y1, x2, y2));
+  }
+
+  /** draws the lines collected in the path ... subclasses call this at the end of a draw */
+  protected void finishDraw(Graphics2D g) {
+    if (batchDraw) {
+      if (numPathLines > 0) g.draw(path);
+      path.reset();
+      numPathLines = 0;
+    }
+  }
+
+  /** sets up the drawing ... the stroke, the axes, and the points to draw with their positions */
   protected void initDraw(Graphics2D g, Dimension dim) {
     g.setStroke(dataset.lineAttribute.lineStyle);
     g.setColor(dataset.lineAttribute.lineColor);
@@ -51,38 +238,223 @@ public abstract class DatasetXtoYRenderer {
     xAxis = dataset.getAxisX();
     yAxis = dataset.getAxisY();
 
-    p0 = new Point2D.Float();
-    p1 = new Point2D.Float();
-
     h = dim.height;
     w = dim.width;
 
     xAxisRange = xAxis.axisMax - xAxis.axisMin;
     yAxisRange = yAxis.axisMax - yAxis.axisMin;
 
-    upErrorDist = downErrorDist = 0.0f;
+    path.reset();
+    numPathLines = 0;
+    thinPoints = canThin(g);
+    selectDrawPoints();
+    setDrawPoints();
   }
 
-  /** render the dataset on the graphics context */
-  public void draw(Graphics2D g, Dimension dim) {
+  /**
+   * sets pointX and pointY for the points to draw, and their error distances if the errors are
+   * shown
+   */
+  protected void setDrawPoints() {
+    if (pointX.length < numDrawPoints + 1) {
+      pointX = new float[numDrawPoints + 1];
+      pointY = new float[numDrawPoints + 1];
+    }
+
+    // translate these points to conform to the java rendering model
+    if (dataset.optionalStartPoint != null) {
+      pointX[0] = dataset.optionalStartPoint.x;
+      pointY[0] = dataset.optionalStartPoint.y;
+    } else if (dataset.numDataPoints > 0) {
+      pointX[0] = getPointX(0);
+      pointY[0] = getPointY(0);
+    }
+    setPointX();
+    double[] ydata = dataset.ydata;
+    for (int k = 0; k < numDrawPoints; k++) {
+      // use (h-1) to accomodate the (0,0) starting position
+      pointY[k + 1] = (float) ((yAxis.axisMax - ydata[drawIndex[k]]) / yAxisRange * (h - 1));
+    }
+
+    if (!showErrorInY || dataset.errorInY == null) return;
+
+    if (upErrorDist.length < numDrawPoints) {
+      upErrorDist = new float[numDrawPoints];
+      downErrorDist = new float[numDrawPoints];
+    }
+    double[] errorInY = dataset.errorInY;
     switch (dataset.errorInYType) {
       case DatasetXtoY.ERROR_ALTERNATING:
-        drawAlt(g, dim);
+        for (int k = 0; k < numDrawPoints; k++) {
+          int i = drawIndex[k];
+          upErrorDist[k] = (float) (errorInY[i * 2] / yAxisRange * h);
+          downErrorDist[k] = (float) (errorInY[i * 2 + 1] / yAxisRange * h);
+        }
         break;
       case DatasetXtoY.ERROR_DUPLICATE:
-        drawDup(g, dim);
+        for (int k = 0; k < numDrawPoints; k++) {
+          upErrorDist[k] = downErrorDist[k] = (float) (errorInY[drawIndex[k]] / yAxisRange * h);
+        }
         break;
       case DatasetXtoY.ERROR_HALF:
-        drawHalf(g, dim);
+      default:
+        for (int k = 0; k < numDrawPoints; k++) {
+          upErrorDist[k] =
+              downErrorDist[k] = (float) (errorInY[drawIndex[k]] / yAxisRange * h / 2.0);
+        }
         break;
     }
   }
 
-  protected abstract void drawAlt(Graphics2D g, Dimension dim);
+  /** sets pointX [k + 1] to the x position of data point drawIndex [k], for each point to draw */
+  protected abstract void setPointX();
+
+  /** the x value of data point i */
+  protected abstract double getXData(int i);
 
-  protected abstract void drawDup(Graphics2D g, Dimension dim);
+  /** the x position of data point i on the graphics context */
+  protected float getPointX(int i) {
+    return (float) ((getXData(i) - xAxis.axisMin) / xAxisRange * w);
+  }
 
-  protected abstract void drawHalf(Graphics2D g, Dimension dim);
+  /** the y position of data point i on the graphics context */
+  protected float getPointY(int i) {
+    // use (h-1) to accomodate the (0,0) starting position
+    return (float) ((yAxis.axisMax - dataset.ydata[i]) / yAxisRange * (h - 1));
+  }
+
+  /**
+   * selects the data points to draw into drawIndex ... the level of detail stage of the drawing.
+   * When the x values increase from point to point, the points left of the graph (but the first
+   * and last ones) and right of the graph (but the first one) are dropped, since nothing drawn
+   * from them can be seen. The first point is kept for the line to it from the optional start
+   * point. If there are still more than POINTS_PER_COLUMN_TO_THIN points to each pixel column,
+   * and thinPoints, only the first, last, lowest and highest points of each column are kept, in
+   * their order ... the lines through them cover the same pixels of the column as the lines
+   * through all of its points, so the drawing work follows the width of the graph rather than the
+   * number of points. The points are not thinned out while the errors are shown, since each point
+   * has its own error bar
+   */
+  protected void selectDrawPoints() {
+    int numDataPoints = dataset.numDataPoints;
+    if (drawIndex.length < numDataPoints) drawIndex = new int[numDataPoints];
+    numDrawPoints = 0;
+
+    // lines just outside the graph can still reach into it by their width
+    float margin = 2.0f + dataset.lineAttribute.lineStyle.getLineWidth();
+
+    // the first and last points (inclusive) that can be seen, if the x values increase
+    int first = 0;
+    int last = Math.min(0, numDataPoints - 1);
+    for (int i = 0; i < numDataPoints; i++) {
+      if (i > 0 && getXData(i) < getXData(i - 1)) {
+        // the x values are not in order ... draw every point
+        first = 0;
+        last = numDataPoints - 1;
+        break;
+      }
+      if (getPointX(i) < -margin) first = i + 1;
+      if (getPointX(i) <= w + margin) last = Math.min(i + 1, numDataPoints - 1);
+    }
+    // keep the last point left of the graph, the line from it comes into the graph
+    if (first > 0) {
+      drawIndex[numDrawPoints++] = 0;
+      first = Math.max(1, first - 1);
+    }
+
+    if (!(thinPoints)
+        || (last - first + 1) <= POINTS_PER_COLUMN_TO_THIN * Math.max(1, w)
+        || (showErrorInY && dataset.errorInY != null)) {
+      for (int i = first; i <= last; i++) {
+        drawIndex[numDrawPoints++] = i;
+      }
+      return;
+    }
+
+    int columnStart = first;
+    int column = getColumn(first);
+    for (int i = first + 1; i <= last + 1; i++) {
+      int nextColumn = (i <= last) ? getColumn(i) : column;
+      if (i <= last && nextColumn == column) continue;
+
+      addColumnPoints(columnStart, i - 1);
+      columnStart = i;
+      column = nextColumn;
+    }
+  }
+
+  /**
+   * the pixel column data point i is snapped to ... the points of a column are then all drawn at
+   * the same x, so that only the lowest and highest of them (and the ends) matter to the pixels
+   */
+  private int getColumn(int i) {
+    return (int) Math.floor(getPointX(i) + 0.25f);
+  }
+
+  /**
+   * true if the points can be thinned out for a draw on the graphics context g without changing a
+   * pixel ... when it is not antialiased and the strokes are normalized, every point of a line
+   * wider than a pixel is moved to x.25 of its pixel column (the 0.25 of getColumn) before the
+   * line is drawn, and only as long as the user space columns are the device ones. Lines of a pixel
+   * or less are drawn from the exact points instead, antialiased lines blend where they overlap,
+   * and the dashes start again with each line, so thinning those out would change the picture
+   */
+  protected boolean canThin(Graphics2D g) {
+    BasicStroke stroke = dataset.lineAttribute.lineStyle;
+    if (stroke.getLineWidth() <= 1.0f || stroke.getDashArray() != null) return false;
+
+    Object antialiasing = g.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+    Object strokeControl = g.getRenderingHint(RenderingHints.KEY_STROKE_CONTROL);
+    AffineTransform transform = g.getTransform();
+    return antialiasing != RenderingHints.VALUE_ANTIALIAS_ON
+        && strokeControl != RenderingHints.VALUE_STROKE_PURE
+        && (transform.getType() & ~AffineTransform.TYPE_TRANSLATION) == 0
+        && transform.getTranslateX() == Math.rint(transform.getTranslateX());
+  }
+
+  /** adds the first, last, lowest and highest of the points from start to end, in their order */
+  private void addColumnPoints(int start, int end) {
+    int minIndex = start;
+    int maxIndex = start;
+    for (int i = start + 1; i <= end; i++) {
+      if (dataset.ydata[i] < dataset.ydata[minIndex]) minIndex = i;
+      if (dataset.ydata[i] > dataset.ydata[maxIndex]) maxIndex = i;
+    }
+
+    drawIndex[numDrawPoints++] = start;
+    int low = Math.min(minIndex, maxIndex);
+    int high = Math.max(minIndex, maxIndex);
+    if (low != start && low != end) drawIndex[numDrawPoints++] = low;
+    if (high != start && high != end && high != low) drawIndex[numDrawPoints++] = high;
+    if (end != start) drawIndex[numDrawPoints++] = end;
+  }
+
+  /** render the dataset on the graphics context */
+  public void draw(Graphics2D g, Dimension dim) {
+    initDraw(g, dim);
+
+    boolean showError = showErrorInY && (dataset.errorInY != null);
+    float[] x = pointX;
+    float[] y = pointY;
+    for (int k = 0; k < numDrawPoints; k++) {
+      // from point k to point k + 1 ... through the corner of the step, for the step methods
+      if (steps) {
+        float x2 = x[k + cornerX];
+        float y2 = y[k + cornerY];
+        drawLine(g, x[k], y[k], x2, y2);
+        drawLine(g, x2, y2, x[k + 1], y[k + 1]);
+      } else drawLine(g, x[k], y[k], x[k + 1], y[k + 1]);
+
+      if (showError) {
+        float errorBarX = (x[k + errorX] + x[k + 1]) / 2;
+        float errorBarY = y[k + errorY];
+        drawLine(g, errorBarX, errorBarY, errorBarX, errorBarY - upErrorDist[k]);
+        drawLine(g, errorBarX, errorBarY, errorBarX, errorBarY + downErrorDist[k]);
+      }
+    }
+
+    finishDraw(g);
+  }
 
   /**
    * **** ALWAYS USE DOUBLE FOR CONSISTENCY *** given an x value (on horizontal axis), get the
@@ -92,70 +464,323 @@ public abstract class DatasetXtoYRenderer {
    */
   protected abstract double getY(double x);
 
-  /** sets the data that will actually be plotted as y and the error also */
-  public void setData() {
-    switch (dataset.errorInYType) {
-      case DatasetXtoY.ERROR_ALTERNATING:
-        setDataAlt();
-        break;
-      case DatasetXtoY.ERROR_DUPLICATE:
-        setDataDup();
-        break;
-      case DatasetXtoY.ERROR_HALF:
-        setDataHalf();
-        break;
+  /**
+   * the data point of getY (x) ... of the points on the side of x of the render method (see
+   * getYSide), the one with the x closest to x, and the first one in the data of those with the
+   * same x. -1 if there is none. Takes a binary search of the points sorted by x (see getXOrder),
+   * or none at all when the x values are evenly spaced, rather than a look at every point
+   */
+  protected int getYIndex(double x) {
+    int[] order = getXOrder();
+    int n = order.length;
+
+    // the first point (in x order) at or right of x, and the last one left of x
+    int right = getXOrderIndex(x);
+    int left = right - 1;
+    if (right < n && getXData(order[right]) == x) left = right;
+    // the first point of those of the same x
+    else if (left >= 0) left = getXOrderIndex(getXData(order[left]));
+
+    int i;
+    if (getYSide < 0) i = (left >= 0) ? order[left] : -1;
+    else if (getYSide > 0) i = (right < n) ? order[right] : -1;
+    else if (left < 0) i = (right < n) ? order[right] : -1;
+    else if (right >= n) i = order[left];
+    else {
+      // either side ... the closer one, or the first in the data if both are as close
+      double leftDiff = x - getXData(order[left]);
+      double rightDiff = getXData(order[right]) - x;
+      if (leftDiff != rightDiff) i = (leftDiff < rightDiff) ? order[left] : order[right];
+      else i = Math.min(order[left], order[right]);
+    }
+
+    // as far as a double goes, it is no corresponding value
+    if (i >= 0 && !(Math.abs(getXData(i) - x) < java.lang.Double.MAX_VALUE)) return -1;
+    return i;
+  }
+
+  /**
+   * the index into getXOrder () of the first point whose x is at or right of x ... the number of
+   * points if there is none
+   */
+  protected int getXOrderIndex(double x) {
+    int[] order = getXOrder();
+    int from = 0;
+    int to = order.length;
+    if (to == 0 || java.lang.Double.isNaN(x)) return to;
+
+    if (xStep > 0) {
+      // evenly spaced ... straight to about the point, then the step or so to the point itself
+      double k = Math.ceil((x - getXData(order[0])) / xStep);
+      int index = (int) Math.max(0, Math.min(to, k));
+      while (index > 0 && getXData(order[index - 1]) >= x) index--;
+      while (index < to && getXData(order[index]) < x) index++;
+      return index;
+    }
+
+    while (from < to) {
+      int middle = (from + to) >>> 1;
+      if (getXData(order[middle]) < x) from = middle + 1;
+      else to = middle;
+    }
+    return from;
+  }
+
+  /**
+   * the indices of the data points in the order of their x (see xOrder) ... made here the first
+   * time after the data is set. The data of a spectrum is already in order, so this is usually one
+   * pass over it, which also finds out if the x values are evenly spaced
+   */
+  protected int[] getXOrder() {
+    if (xOrder != null) return xOrder;
+
+    int numDataPoints = dataset.numDataPoints;
+    int[] order = new int[numDataPoints];
+    int n = 0;
+    boolean sorted = true;
+    for (int i = 0; i < numDataPoints; i++) {
+      if (java.lang.Double.isNaN(getXData(i))) continue;
+      if (n > 0 && getXData(i) < getXData(order[n - 1])) sorted = false;
+      order[n++] = i;
+    }
+    if (n < numDataPoints) {
+      int[] numbers = new int[n];
+      System.arraycopy(order, 0, numbers, 0, n);
+      order = numbers;
+    }
+
+    xStep = 0;
+    if (!(sorted)) {
+      sortByX(order);
+    } else if (n > 1) {
+      // evenly spaced if every x is within a quarter of a step of where it would be
+      double x0 = getXData(order[0]);
+      double step = (getXData(order[n - 1]) - x0) / (n - 1);
+      boolean even = (step > 0 && !(java.lang.Double.isInfinite(step)));
+      for (int k = 1; even && k < n; k++) {
+        if (!(Math.abs(getXData(order[k]) - (x0 + k * step)) <= step / 4)) even = false;
+      }
+      if (even) xStep = step;
+    }
+
+    xOrder = order;
+    return order;
+  }
+
+  /**
+   * the data point closest to the (x, y) position in data space, the first one in the data of those
+   * as close ... -1 if there is none. Starts from the block of points around x, and goes through
+   * the blocks on either side only until their x alone is farther than the closest point so far,
+   * passing over those whose y range is too far. So a query is a search of a few blocks rather than
+   * a look at every point, whatever the number of points
+   */
+  protected int getClosestIndex(double x, double y) {
+    int[] order = getXOrder();
+    if (blockYMin == null) setBlockYRange();
+
+    int numBlocks = blockYMin.length;
+    if (numBlocks == 0) return -1;
+    int home = Math.min(getXOrderIndex(x), order.length - 1) / POINTS_PER_BLOCK;
+
+    double[] ydata = dataset.ydata;
+    double closestDiff = java.lang.Double.POSITIVE_INFINITY;
+    int closest = -1;
+    // the blocks from home to the right, then those left of it
+    for (int pass = 0; pass < 2; pass++) {
+      int step = (pass == 0) ? 1 : -1;
+      for (int b = (pass == 0) ? home : home - 1; b >= 0 && b < numBlocks; b += step) {
+        int from = b * POINTS_PER_BLOCK;
+        int to = Math.min(from + POINTS_PER_BLOCK, order.length);
+
+        // how far the block can be, at least, in x and in y
+        double xdiff = Math.max(getXData(order[from]) - x, x - getXData(order[to - 1]));
+        xdiff = Math.max(0, xdiff);
+        if (xdiff * xdiff > closestDiff) break;
+        double ydiff = Math.max(0, Math.max(blockYMin[b] - y, y - blockYMax[b]));
+        if (xdiff * xdiff + ydiff * ydiff > closestDiff) continue;
+
+        for (int k = from; k < to; k++) {
+          int i = order[k];
+          xdiff = getXData(i) - x;
+          ydiff = ydata[i] - y;
+          double diff = xdiff * xdiff + ydiff * ydiff;
+          if (diff < closestDiff || (diff == closestDiff && i < closest)) {
+            closest = i;
+            closestDiff = diff;
+          }
+        }
+      }
     }
+    return closest;
   }
 
-  protected abstract void setDataAlt();
+  /** sets blockYMin and blockYMax, of each block of the points in x order */
+  private void setBlockYRange() {
+    int[] order = getXOrder();
+    double[] ydata = dataset.ydata;
+    int numBlocks = (order.length + POINTS_PER_BLOCK - 1) / POINTS_PER_BLOCK;
+    double[] yMin = new double[numBlocks];
+    double[] yMax = new double[numBlocks];
+    for (int b = 0; b < numBlocks; b++) {
+      yMin[b] = java.lang.Double.POSITIVE_INFINITY;
+      yMax[b] = java.lang.Double.NEGATIVE_INFINITY;
+      int to = Math.min((b + 1) * POINTS_PER_BLOCK, order.length);
+      for (int k = b * POINTS_PER_BLOCK; k < to; k++) {
+        double value = ydata[order[k]];
+        if (value < yMin[b]) yMin[b] = value;
+        if (value > yMax[b]) yMax[b] = value;
+      }
+    }
+    blockYMin = yMin;
+    blockYMax = yMax;
+  }
+
+  /** sorts the indices of order by the x of their data points ... equal x stay in their order */
+  private void sortByX(int[] order) {
+    int n = order.length;
+    int[] from = order;
+    int[] to = new int[n];
+    // merge sort, runs of width 1, 2, 4 ... merged from one array into the other
+    for (int width = 1; width < n; width *= 2) {
+      for (int start = 0; start < n; start += 2 * width) {
+        int middle = Math.min(start + width, n);
+        int end = Math.min(start + 2 * width, n);
+        int l = start;
+        int r = middle;
+        for (int k = start; k < end; k++) {
+          // the left one first if they are equal, so the sort is stable
+          if (l < middle && (r >= end || !(getXData(from[r]) < getXData(from[l]))))
+            to[k] = from[l++];
+          else to[k] = from[r++];
+        }
+      }
+      int[] swap = from;
+      from = to;
+      to = swap;
+    }
+    if (from != order) System.arraycopy(from, 0, order, 0, n);
+  }
 
-  protected abstract void setDataDup();
+  /** sets the data that will actually be plotted as y and the error also */
+  public void setData() {
+    // the x values may have changed too ... sort them again when next needed
+    xOrder = null;
+    blockYMin = null;
+    blockYMax = null;
+    setYData();
+
+    if (dataset.errorInYValue != null && dataset.errorInY == null)
+      dataset.errorInY = new double[dataset.errorInYValue.length];
+
+    if (dataset.errorInYValue == null || dataset.errorInY == null) return;
+
+    double[] errorInY = dataset.errorInY;
+    double[] errorInYValue = dataset.errorInYValue;
+    int scale = dataset.scale;
+    // whichever the error type, each error value is plotted in the scale of the dataset
+    for (int i = 0; i < Math.min(errorInY.length, errorInYValue.length); i++) {
+      errorInY[i] = toScale(errorInYValue[i], scale);
+    }
+  }
 
-  protected abstract void setDataHalf();
+  /**
+   * sets the y data that will actually be plotted, from the y values of the dataset ... and
+   * ydataMin and ydataMax of the dataset, found in the same pass
+   */
+  protected abstract void setYData();
+
+  /** value, as plotted in scale (Dataset.LINEAR, Dataset.LOG_10 or Dataset.LOG_E) */
+  protected final double toScale(double value, int scale) {
+    switch (scale) {
+      case Dataset.LOG_10:
+        return dataset._log10(value);
+      case Dataset.LOG_E:
+        return dataset._log(value);
+      case Dataset.LINEAR:
+      default:
+        return value;
+    }
+  }
 
-  public abstract static class Integer extends DatasetXtoYRenderer {
+  public static class Integer extends DatasetXtoYRenderer {
     protected DatasetXtoY.Integer datasetI;
 
-    public Integer(DatasetXtoY.Integer datasetI) {
-      super(datasetI);
+    public Integer(DatasetXtoY.Integer datasetI, int renderMethod) {
+      super(datasetI, renderMethod);
       this.datasetI = datasetI;
     }
 
-    /** subclasses should always call this to perform default stuff, in their draw method */
-    protected void initDraw(Graphics2D g, Dimension dim) {
-      super.initDraw(g, dim);
-      // translate these points to conform to the java rendering model
-      if (datasetI.optionalStartPoint != null) {
-        p0.x = datasetI.optionalStartPoint.x;
-        p0.y = datasetI.optionalStartPoint.y;
-      } else {
-        p0.x = (float) ((datasetI.xdata[0] - xAxis.axisMin) / xAxisRange * w);
-        // use (h-1) to accomodate the (0,0) starting position
-        p0.y = (float) ((yAxis.axisMax - datasetI.ydata[0]) / yAxisRange * (h - 1));
+    protected double getXData(int i) {
+      return datasetI.xdata[i];
+    }
+
+    protected void setPointX() {
+      int[] xdata = datasetI.xdata;
+      for (int k = 0; k < numDrawPoints; k++) {
+        pointX[k + 1] = (float) ((xdata[drawIndex[k]] - xAxis.axisMin) / xAxisRange * w);
       }
     }
+
+    protected void setYData() {
+      double[] minMax = {java.lang.Double.MAX_VALUE, -1.0 * java.lang.Double.MAX_VALUE};
+      Dataset.scaleValues(
+          datasetI.yValue, 0, datasetI.ydata, 0, datasetI.yValue.length, datasetI.scale, minMax);
+      datasetI.ydataMin = minMax[0];
+      datasetI.ydataMax = minMax[1];
+    }
+
+    /**
+     * **** ALWAYS USE DOUBLE FOR CONSISTENCY *** given an x value (on horizontal axis), get the
+     * corresponding y value if no corresponding y value, 0.0 is returned ... for example, when the
+     * first data point is to the right of the parsed x value for the step-like cases ...
+     * VERTICAL_HORIZONTAL & HORIZONTAL_VERTICAL
+     */
+    protected double getY(double x) {
+      // the int value, contained in data set, which is the closest to x
+      int i = getYIndex((int) x);
+      if (i < 0) return 0.0;
+      return (double) (int) datasetI.ydata[i];
+    }
   }
 
-  public abstract static class Double extends DatasetXtoYRenderer {
+  public static class Double extends DatasetXtoYRenderer {
     protected DatasetXtoY.Double datasetD;
 
-    public Double(DatasetXtoY.Double datasetD) {
-      super(datasetD);
+    public Double(DatasetXtoY.Double datasetD, int renderMethod) {
+      super(datasetD, renderMethod);
       this.datasetD = datasetD;
     }
 
-    /** subclasses should always call this to perform default stuff, in their draw method */
-    protected void initDraw(Graphics2D g, Dimension dim) {
-      super.initDraw(g, dim);
-      // translate these points to conform to the java rendering model
-      if (datasetD.optionalStartPoint != null) {
-        p0.x = datasetD.optionalStartPoint.x;
-        p0.y = datasetD.optionalStartPoint.y;
-      } else {
-        p0.x = (float) ((datasetD.xdata[0] - xAxis.axisMin) / xAxisRange * w);
-        // use (h-1) to accomodate the (0,0) starting position
-        p0.y = (float) ((yAxis.axisMax - datasetD.ydata[0]) / yAxisRange * (h - 1));
+    protected double getXData(int i) {
+      return datasetD.xdata[i];
+    }
+
+    protected void setPointX() {
+      double[] xdata = datasetD.xdata;
+      for (int k = 0; k < numDrawPoints; k++) {
+        pointX[k + 1] = (float) ((xdata[drawIndex[k]] - xAxis.axisMin) / xAxisRange * w);
       }
     }
+
+    protected void setYData() {
+      double[] minMax = {java.lang.Double.MAX_VALUE, -1.0 * java.lang.Double.MAX_VALUE};
+      Dataset.scaleValues(
+          datasetD.yValue, 0, datasetD.ydata, 0, datasetD.yValue.length, datasetD.scale, minMax);
+      datasetD.ydataMin = minMax[0];
+      datasetD.ydataMax = minMax[1];
+    }
+
+    /**
+     * **** ALWAYS USE DOUBLE FOR CONSISTENCY *** given an x value (on horizontal axis), get the
+     * corresponding y value if no corresponding y value, 0.0 is returned ... for example, when the
+     * first data point is to the right of the parsed x value for the step-like cases ...
+     * VERTICAL_HORIZONTAL & HORIZONTAL_VERTICAL
+     */
+    protected double getY(double x) {
+      // the double value, contained in data set, which is the closest to x
+      int i = getYIndex(x);
+      if (i < 0) return 0.0;
+      return datasetD.ydata[i];
+    }
   }
 }
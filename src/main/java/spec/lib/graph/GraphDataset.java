@@ -1,6 +1,7 @@
 package spec.lib.graph;
 
 import java.awt.AWTEvent;
+import java.awt.AlphaComposite;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics;
@@ -15,10 +16,15 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Vector;
+import java.util.concurrent.ExecutionException;
 import javax.swing.ButtonGroup;
 import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JComponent;
@@ -27,6 +33,7 @@ import javax.swing.JMenuItem;
 import javax.swing.JPopupMenu;
 import javax.swing.JRadioButtonMenuItem;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.border.LineBorder;
 
 /**
@@ -495,6 +502,12 @@ public abstract class GraphDataset extends JComponent
     /** Vector containing a list of attached Datasets */
     protected Vector dataset = new Vector();
 
+    /**
+     * the Layer of each attached dataset ... its own drawing, on a transparent image, which is only
+     * redrawn when the dataset, its axes or the size of the component have changed
+     */
+    protected Map datasetToLayerMap = new HashMap();
+
     protected JCheckBoxMenuItem isColorPlottingChkBox;
 
     // initialize the dash styles for this class, and then the BasicStrokes
@@ -593,6 +606,7 @@ public abstract class GraphDataset extends JComponent
       if (dataset.contains(d)) {
         d.removePropertyChangeListener(this);
         dataset.remove(d);
+        releaseLayer(d);
         // if (d == primaryDataset)
         // setPrimaryDataset ( (DatasetXtoY) dataset.get (0) );
       }
@@ -606,6 +620,7 @@ public abstract class GraphDataset extends JComponent
         d.removePropertyChangeListener(this);
         dataset.remove(d);
       }
+      releaseLayers();
 
       // setPrimaryDataset (null);
     }
@@ -639,12 +654,13 @@ public abstract class GraphDataset extends JComponent
 
       for (int i = 0; i < dataset.size(); i++) {
         d = (DatasetXtoY) (dataset.get(i));
+        // there are only 10 colors and styles ... beyond that, they are used again in order
         if (isColorPlot) {
           // for all datasets, set a different line color, use a straight unbroken line
-          d.setLineAttributes(lineColor[i], lineStyle[0]);
+          d.setLineAttributes(lineColor[i % lineColor.length], lineStyle[0]);
         } else {
           // for all datasets, set a different line style and set line color to black
-          d.setLineAttributes(lineColor[0], lineStyle[i]);
+          d.setLineAttributes(lineColor[0], lineStyle[i % lineStyle.length]);
         }
       }
     }
@@ -663,8 +679,8 @@ public abstract class GraphDataset extends JComponent
       repaint();
     }
 
-    // draws the datasets onto that image itself ...
-    // paint is called for general repainting while draws are called for updating the graphImage
+    // draws each dataset onto its own layer ... only the layers which are out of date
+    // paint is called for general repainting while draws are called for updating the layers
     public void draw() {
       // re-initialize the transient graphics context
       datasetGraphics = (Graphics2D) this.getGraphics();
@@ -674,17 +690,91 @@ public abstract class GraphDataset extends JComponent
 
       if (w < 15 || h < 15) return;
 
-      graphImage = (BufferedImage) this.createImage(w, h);
+      for (int i = 0; i < dataset.size(); i++) {
+        DatasetXtoY d = (DatasetXtoY) dataset.get(i);
+        Layer layer = (Layer) datasetToLayerMap.get(d);
+        if (layer == null) {
+          layer = new Layer();
+          datasetToLayerMap.put(d, layer);
+        }
+        if (!(layer.isDrawn(d, w, h))) layer.draw(d, w, h);
+      }
+    }
+
+    /** drops the layer of d, and gives its image back to the ImageBufferPool */
+    protected void releaseLayer(DatasetXtoY d) {
+      Layer layer = (Layer) datasetToLayerMap.remove(d);
+      if (layer != null) ImageBufferPool.releaseImage(layer.image);
+    }
 
-      Graphics2D g = graphImage.createGraphics();
+    /** drops all the layers, and gives their images back to the ImageBufferPool */
+    protected void releaseLayers() {
+      for (Iterator it = datasetToLayerMap.values().iterator(); it.hasNext(); ) {
+        ImageBufferPool.releaseImage(((Layer) it.next()).image);
+      }
+      datasetToLayerMap.clear();
+    }
+
+    /**
+     * The drawing of one dataset, on a transparent image, with the state of the dataset and of its
+     * axes it was drawn with. Adding, removing or restyling one dataset then only redraws its own
+     * layer, and the others are just painted again.
+     */
+    protected final class Layer {
+      protected BufferedImage image;
+
+      protected int drawVersion;
+      protected double xAxisMin;
+      protected double xAxisMax;
+      protected double yAxisMin;
+      protected double yAxisMax;
+      protected Color lineColor;
+      protected BasicStroke lineStyle;
+
+      /** true if the layer holds the drawing of d, as it is now, on a w by h image */
+      protected boolean isDrawn(DatasetXtoY d, int w, int h) {
+        // the line attributes are set again on every draw of the graph, so compare their values
+        return image != null
+            && image.getWidth() == w
+            && image.getHeight() == h
+            && drawVersion == d.getDrawVersion()
+            && xAxisMin == d.getAxisX().axisMin
+            && xAxisMax == d.getAxisX().axisMax
+            && yAxisMin == d.getAxisY().axisMin
+            && yAxisMax == d.getAxisY().axisMax
+            && d.getLineColor().equals(lineColor)
+            && d.getLineStyle().equals(lineStyle);
+      }
+
+      /**
+       * draws d onto the image of the layer, cleared first ... the image is swapped for one of the
+       * new size through the ImageBufferPool, if the size has changed
+       */
+      protected void draw(DatasetXtoY d, int w, int h) {
+        if (image == null || image.getWidth() != w || image.getHeight() != h) {
+          ImageBufferPool.releaseImage(image);
+          image = ImageBufferPool.getImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+
+        Graphics2D g = image.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, w, h);
+        g.setComposite(AlphaComposite.SrcOver);
 
-      if (!(printFlag)) {
         // cause the graphics to be rendered with high quality and anti-aliased
         g.setRenderingHints(Graph.qualityHints);
-      } else {
+        g.setColor(XtoY.this.getForeground());
+        d.draw(g, XtoY.this.getSize());
+        g.dispose();
+
+        drawVersion = d.getDrawVersion();
+        xAxisMin = d.getAxisX().axisMin;
+        xAxisMax = d.getAxisX().axisMax;
+        yAxisMin = d.getAxisY().axisMin;
+        yAxisMax = d.getAxisY().axisMax;
+        lineColor = d.getLineColor();
+        lineStyle = d.getLineStyle();
       }
-
-      draw(g, false);
     }
 
     /**
@@ -713,7 +803,7 @@ public abstract class GraphDataset extends JComponent
       draw(g, true);
     }
 
-    /** To update the graph image ... just calls draw to get a full repaint */
+    /** To update the graph image ... just calls draw, which redraws the layers out of date */
     protected void updateGraphImage() {
       draw();
     }
@@ -739,8 +829,9 @@ public abstract class GraphDataset extends JComponent
     }
 
     /**
-     * paints the off-screen image (graphImage) into the component paint is called for general
-     * repainting while draws are called for updating the drawings
+     * paints the background, and the layer of each dataset over it in the order they were attached,
+     * into the component paint is called for general repainting while draws are called for
+     * updating the drawings
      */
     protected void paintComponent(Graphics g_orig) {
       super.paintComponent(g_orig);
@@ -754,8 +845,13 @@ public abstract class GraphDataset extends JComponent
           this.drawGrid(g, d.yAxis.numMajorTics, d.xAxis.numMajorTics);
         }
       } else {
-        if (graphImage != null && this.isShowing()) {
-          g.drawImage(graphImage, 0, 0, this);
+        if (!(datasetToLayerMap.isEmpty()) && this.isShowing()) {
+          g.setColor(this.getBackground());
+          g.fillRect(0, 0, this.getWidth(), this.getHeight());
+          for (int i = 0; i < dataset.size(); i++) {
+            Layer layer = (Layer) datasetToLayerMap.get(dataset.get(i));
+            if (layer != null && layer.image != null) g.drawImage(layer.image, 0, 0, this);
+          }
           if (primaryDataset != null) {
             DatasetXtoY d = (DatasetXtoY) primaryDataset;
             this.drawGrid(g, d.yAxis.numMajorTics, d.xAxis.numMajorTics);
@@ -825,6 +921,10 @@ public abstract class GraphDataset extends JComponent
         this.repaint();
       } else if (source == isColorPlottingChkBox) {
         setColorPlotting(isColorPlottingChkBox.isSelected());
+      } else if (command.equals(REDRAW_COMMAND)) {
+        // a redraw draws every layer again
+        releaseLayers();
+        super.actionPerformed(e);
       } else if (command.equals(UNCERTAINTY_COMMAND)) {
         uncertaintyChkBox.doClick();
       } else {
@@ -839,9 +939,18 @@ public abstract class GraphDataset extends JComponent
     /** constraint here: there can only be one Data Set */
     protected DatasetXYtoZ dataset;
 
-    /** buffered Image of the whole dataset */
+    /**
+     * buffered Image of the part of the dataset within the axes ranges, drawn at the size of the
+     * component
+     */
     protected BufferedImage datasetImage;
 
+    /**
+     * counts the calls to draw ... a datasetImage drawn in the background is only published if no
+     * later draw has been started since
+     */
+    private int drawCount = 0;
+
     public final String BLACK_BACKGROUND_COLORMAP_COMMAND = "blackBgColorMap";
     public final String WHITE_BACKGROUND_COLORMAP_COMMAND = "whiteBgColorMap";
 
@@ -849,6 +958,10 @@ public abstract class GraphDataset extends JComponent
     protected JRadioButtonMenuItem blackBgRadioButton;
     protected JRadioButtonMenuItem whiteBgRadioButton;
 
+    // Pooling buttons
+    protected JRadioButtonMenuItem maximumPoolRadioButton;
+    protected JRadioButtonMenuItem averagePoolRadioButton;
+
     /** do not allow anyone instantiate this class without passing the GraphAxisData reference */
     private XYtoZ() {}
 
@@ -875,6 +988,25 @@ public abstract class GraphDataset extends JComponent
       blackBgRadioButton.setSelected(true);
 
       popup.add(colorMapMenu);
+
+      // add the menuItem for changing how the channels under one pixel are shown
+      JMenu poolMenu = new JMenu("Channels per Pixel");
+
+      ButtonGroup poolGroup = new ButtonGroup();
+      maximumPoolRadioButton =
+          (JRadioButtonMenuItem) poolMenu.add(new JRadioButtonMenuItem("Maximum"));
+      poolGroup.add(maximumPoolRadioButton);
+      maximumPoolRadioButton.addActionListener(this);
+
+      averagePoolRadioButton =
+          (JRadioButtonMenuItem) poolMenu.add(new JRadioButtonMenuItem("Average"));
+      poolGroup.add(averagePoolRadioButton);
+      averagePoolRadioButton.addActionListener(this);
+
+      // the maximum is the default of the renderers, so set it selected first
+      maximumPoolRadioButton.setSelected(true);
+
+      popup.add(poolMenu);
     }
 
     /** check if a data set is attached */
@@ -928,48 +1060,119 @@ public abstract class GraphDataset extends JComponent
     }
 
     /**
-     * ************************ draws the dataset onto that itself ... (which is a component) paint
-     * is called for general repainting while draws are called for updating the graphImage
-     * ************************ NOW: draw just updates the datasetImage. datasetImage is contained
-     * in the dataset class. Depending on the axis range and the axis range upon which the
-     * datasetImage was created, a graphImage is created for this component In paint, this
-     * graphImage is then scaled to fill the whole component ************************** Basically,
-     * it works like this: the datasetImage has its number of pixels equal to the axisRange limits
-     * This method will allow easy scaling and refreshing ***************************
+     * draws the dataset onto the datasetImage, which is also the graphImage ... paint is called for
+     * general repainting while draws are called for updating the graphImage. Only the part of the
+     * dataset within the axes ranges (its viewport) is drawn, straight from the data, at the size
+     * of the component. So a zoom draws the channels it shows at the resolution they are shown at,
+     * rather than scaling up part of an image of the whole dataset, and the image only takes as
+     * much memory as the component, whatever the size of the dataset.
+     *
+     * <p>On the event thread, the new datasetImage is drawn on a worker thread, and the component
+     * keeps painting the previous one until the new one is done. It is then published in one step
+     * (the datasetImage and graphImage are swapped on the event thread) and repainted. When
+     * printing, or when not called on the event thread, it is drawn straight away as before.
      */
     public void draw() {
       // initialize the transient graphics context
       datasetGraphics = (Graphics2D) this.getGraphics();
 
-      datasetImage = null;
-
-      int datasetImageWidth = (int) (dataset.getXMax() - dataset.getXMin());
-      int datasetImageHeight = (int) (dataset.getYMax() - dataset.getYMin());
+      final DatasetXYtoZ aDataset = dataset;
+      if (aDataset == null) return;
+
+      final int datasetImageWidth = this.getWidth();
+      final int datasetImageHeight = this.getHeight();
+      if (datasetImageWidth <= 0 || datasetImageHeight <= 0) return;
+
+      // the axes ranges are read here, on the calling thread, before the drawing starts
+      final Rectangle2D viewport = aDataset.getViewport();
+      final boolean highQuality = !(printFlag);
+      final Color foreground = this.getForeground();
+      final int thisDraw = ++drawCount;
+
+      if (printFlag || !(SwingUtilities.isEventDispatchThread())) {
+        publishDatasetImage(
+            drawDatasetImage(
+                aDataset,
+                viewport,
+                datasetImageWidth,
+                datasetImageHeight,
+                highQuality,
+                foreground));
+        return;
+      }
 
-      datasetImage = (BufferedImage) this.createImage(datasetImageWidth, datasetImageHeight);
+      new SwingWorker() {
+        protected Object doInBackground() {
+          return drawDatasetImage(
+              aDataset, viewport, datasetImageWidth, datasetImageHeight, highQuality, foreground);
+        }
 
-      Graphics2D g = datasetImage.createGraphics();
+        protected void done() {
+          try {
+            // a later draw has started ... this image is already out of date
+            if (thisDraw != drawCount) {
+              ImageBufferPool.releaseImage((BufferedImage) get());
+              return;
+            }
+
+            publishDatasetImage((BufferedImage) get());
+          } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+          } catch (ExecutionException ee) {
+            System.out.println("Error in drawing the dataset\n" + ee.getCause());
+          }
+        }
+      }.execute();
+    }
 
-      if (!(printFlag)) {
+    /**
+     * draws the viewport of aDataset onto a new datasetImage, from the ImageBufferPool ... safe to
+     * call on any thread
+     */
+    private static BufferedImage drawDatasetImage(
+        DatasetXYtoZ aDataset,
+        Rectangle2D viewport,
+        int width,
+        int height,
+        boolean highQuality,
+        Color foreground) {
+      if (width <= 0 || height <= 0) return null;
+
+      BufferedImage image = ImageBufferPool.getImage(width, height, BufferedImage.TYPE_INT_RGB);
+      Graphics2D g = image.createGraphics();
+
+      if (highQuality) {
         // cause the graphics to be rendered with high quality and anti-aliased
         g.setRenderingHints(Graph.qualityHints);
-      } else {
       }
 
       g.setColor(Color.black);
-      g.fillRect(0, 0, datasetImageWidth, datasetImageHeight);
-      g.setColor(this.getForeground());
+      g.fillRect(0, 0, width, height);
+      g.setColor(foreground);
 
-      // draw the main dataset on this datasetImage buffered image
-      dataset.draw(g);
+      // draw the viewport of the main dataset on this datasetImage buffered image
+      aDataset.draw(g, viewport, width, height);
+      g.dispose();
 
-      // update the graph image
-      updateGraphImage();
+      return image;
     }
 
-    /** To update the graph image ... gets the subimage based on the current axis limits */
+    /**
+     * makes image the datasetImage and the graph image, and repaints ... the previous datasetImage
+     * is given back to the ImageBufferPool
+     */
+    private void publishDatasetImage(BufferedImage image) {
+      if (datasetImage != image) ImageBufferPool.releaseImage(datasetImage);
+      datasetImage = graphImage = image;
+      repaint();
+    }
+
+    /**
+     * To update the graph image ... just calls draw, since the graph image only holds the part of
+     * the dataset within the current axis limits
+     */
     protected void updateGraphImage() {
-      graphImage = dataset.getGraphImage(datasetImage);
+      draw();
     }
 
     /**
@@ -989,6 +1192,8 @@ public abstract class GraphDataset extends JComponent
 
       AffineTransform oldTransform = g.getTransform();
 
+      // the graph image is drawn at the size of the component ... it is only scaled for the
+      // moment the component has been resized and it has not yet been drawn again
       AffineTransform at =
           AffineTransform.getScaleInstance(
               (double) getWidth() / graphImage.getWidth(),
@@ -1024,9 +1229,10 @@ public abstract class GraphDataset extends JComponent
       return true;
     }
 
-    /** if the dataset color map changed, redraw the graphDataset */
+    /** if the dataset color map or data changed, redraw the graphDataset */
     public void propertyChange(PropertyChangeEvent e) {
-      if (e.getPropertyName().equals(DatasetXYtoZ.COLOR_MAP_PROPERTY)) {
+      if (e.getPropertyName().equals(DatasetXYtoZ.COLOR_MAP_PROPERTY)
+          || e.getPropertyName().equals(DatasetXYtoZ.DATA_PROPERTY)) {
         draw();
         repaint();
       }
@@ -1067,6 +1273,13 @@ public abstract class GraphDataset extends JComponent
       } else if (source == whiteBgRadioButton) {
         if (whiteBgRadioButton.isSelected())
           dataset.setColorMap(GraphSupport.whiteBackgroundColorMap);
+      } else if (source == maximumPoolRadioButton || source == averagePoolRadioButton) {
+        if (dataset == null) return;
+        dataset.setPoolMethod(
+            maximumPoolRadioButton.isSelected()
+                ? DatasetXYtoZRenderer.POOL_MAXIMUM
+                : DatasetXYtoZRenderer.POOL_AVERAGE);
+        draw();
       } else if (command.equals(BLACK_BACKGROUND_COLORMAP_COMMAND)) {
         blackBgRadioButton.doClick();
       } else if (command.equals(WHITE_BACKGROUND_COLORMAP_COMMAND)) {
@@ -204,7 +204,10 @@ public abstract class GraphKey extends JComponent implements PropertyChangeListe
       detachDataset();
     }
 
-    /** Dataset.SCALE_PROPERTY, DatasetXYtoZ.COLOR_MAP_PROPERTY listened for */
+    /**
+     * Dataset.SCALE_PROPERTY, DatasetXYtoZ.COLOR_MAP_PROPERTY, DatasetXYtoZ.DATA_PROPERTY listened
+     * for
+     */
     public void propertyChange(PropertyChangeEvent e) {
       Object source = e.getSource();
 
@@ -212,7 +215,8 @@ public abstract class GraphKey extends JComponent implements PropertyChangeListe
       if (e.getPropertyName().equals(Dataset.SCALE_PROPERTY)) {
         componentPanel.validate();
         if (source == dataset) datasetComponent.repaint();
-      } else if (e.getPropertyName().equals(DatasetXYtoZ.COLOR_MAP_PROPERTY)) {
+      } else if (e.getPropertyName().equals(DatasetXYtoZ.COLOR_MAP_PROPERTY)
+          || e.getPropertyName().equals(DatasetXYtoZ.DATA_PROPERTY)) {
         if (source == dataset) datasetComponent.repaint();
       } else super.propertyChange(e);
     }
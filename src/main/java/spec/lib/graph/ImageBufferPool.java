@@ -0,0 +1,146 @@
+package spec.lib.graph;
+
+import java.awt.image.BufferedImage;
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A pool of the off-screen images the graphs draw onto, so that they are used again from one draw
+ * (and one resize) to the next, rather than made again each time.
+ *
+ * <p>The images are made with their width and height rounded up to a multiple of BUCKET_SIZE, and
+ * handed out as subimages of the size asked for. So a graph resized by a few pixels gets back the
+ * image it had, and images of sizes near each other share their buckets. The contents of an image
+ * got from the pool are undefined ... they have to be cleared or drawn over completely.
+ *
+ * <p>The free images are held through soft references, so the garbage collector can still take
+ * them back when memory is short, and the pool never holds more than maxPoolBytes of them. All the
+ * methods are synchronized, since the images of XY to Z datasets are drawn on worker threads.
+ */
+public class ImageBufferPool {
+  /** the widths and heights of the images made are multiples of this */
+  public static final int BUCKET_SIZE = 64;
+
+  /**
+   * the most bytes of free images kept for later ... can be set by the spec.graph.imagePoolBytes
+   * system property
+   */
+  private static long maxPoolBytes =
+      Long.getLong("spec.graph.imagePoolBytes", 64L << 20).longValue();
+
+  /** the FreeImage of each free image, the most recently released first */
+  private static final LinkedList freeImages = new LinkedList();
+
+  /** the bytes of the free images in freeImages, including those already collected */
+  private static long freeBytes = 0;
+
+  /** the whole image each subimage handed out by getImage is part of */
+  private static final Map viewToImageMap = new WeakHashMap();
+
+  /** do not allow anyone instantiate this class */
+  private ImageBufferPool() {}
+
+  /**
+   * gets an image of width by height pixels, of type BufferedImage.TYPE_INT_RGB or
+   * BufferedImage.TYPE_INT_ARGB_PRE, from the pool ... or a new one if none of its bucket is free.
+   * Give it back with releaseImage once it is no longer drawn or painted
+   */
+  public static synchronized BufferedImage getImage(int width, int height, int imageType) {
+    int bucketWidth = getBucketSize(width);
+    int bucketHeight = getBucketSize(height);
+
+    BufferedImage image = null;
+    for (Iterator it = freeImages.iterator(); it.hasNext(); ) {
+      FreeImage ref = (FreeImage) it.next();
+      BufferedImage freeImage = (BufferedImage) ref.get();
+      if (freeImage == null) {
+        // collected ... forget it
+        it.remove();
+        freeBytes -= ref.bytes;
+      } else if (freeImage.getType() == imageType
+          && freeImage.getWidth() == bucketWidth
+          && freeImage.getHeight() == bucketHeight) {
+        it.remove();
+        freeBytes -= ref.bytes;
+        image = freeImage;
+        break;
+      }
+    }
+
+    if (image == null) image = new BufferedImage(bucketWidth, bucketHeight, imageType);
+
+    if (width == bucketWidth && height == bucketHeight) return image;
+
+    BufferedImage view = image.getSubimage(0, 0, width, height);
+    viewToImageMap.put(view, image);
+    return view;
+  }
+
+  /**
+   * gives an image got from getImage back to the pool, to be handed out again ... it must not be
+   * drawn or painted after this. Images not got from the pool are ignored
+   */
+  public static synchronized void releaseImage(BufferedImage view) {
+    if (view == null) return;
+
+    BufferedImage image = (BufferedImage) viewToImageMap.remove(view);
+    if (image == null) image = view;
+    if (image.getWidth() % BUCKET_SIZE != 0 || image.getHeight() % BUCKET_SIZE != 0) return;
+    if (image.getType() != BufferedImage.TYPE_INT_RGB
+        && image.getType() != BufferedImage.TYPE_INT_ARGB_PRE) return;
+
+    // released twice ... it must only be handed out once
+    for (Iterator it = freeImages.iterator(); it.hasNext(); ) {
+      if (((FreeImage) it.next()).get() == image) return;
+    }
+
+    FreeImage ref = new FreeImage(image);
+    if (ref.bytes > maxPoolBytes) return;
+
+    freeImages.addFirst(ref);
+    freeBytes += ref.bytes;
+    trimToMaxPoolBytes();
+  }
+
+  /** the most bytes of free images the pool keeps */
+  public static synchronized long getMaxPoolBytes() {
+    return maxPoolBytes;
+  }
+
+  /** sets the most bytes of free images the pool keeps ... 0 turns the pool off */
+  public static synchronized void setMaxPoolBytes(long aMaxPoolBytes) {
+    maxPoolBytes = Math.max(0, aMaxPoolBytes);
+    trimToMaxPoolBytes();
+  }
+
+  /** the bytes of the free images the pool holds now, including those already collected */
+  public static synchronized long getFreeBytes() {
+    return freeBytes;
+  }
+
+  /** drops the images released longest ago, until the free images are within maxPoolBytes */
+  private static void trimToMaxPoolBytes() {
+    while (freeBytes > maxPoolBytes && !(freeImages.isEmpty())) {
+      freeBytes -= ((FreeImage) freeImages.removeLast()).bytes;
+    }
+  }
+
+  /** size rounded up to a multiple of BUCKET_SIZE */
+  private static int getBucketSize(int size) {
+    return Math.max(1, (size + BUCKET_SIZE - 1) / BUCKET_SIZE) * BUCKET_SIZE;
+  }
+
+  /** a free image, with its size in bytes kept for once it has been collected */
+  private static final class FreeImage extends SoftReference {
+    final long bytes;
+
+    FreeImage(BufferedImage image) {
+      super(image);
+      // both image types of the pool have 4 bytes for each pixel
+      bytes = 4L * image.getWidth() * image.getHeight();
+    }
+  }
+}
@@ -0,0 +1,276 @@
+package spec.spectrum;
+
+/**
+ * Element-wise arithmetic on the channel arrays of spectra, with the propagation of the
+ * uncertainties. Both SpecChannel.OneDim and the flat arrays of SpecChannel.TwoDim are plain
+ * arrays of channels, so the same kernels serve Spectrum, ManipulateSpectrum and both dimensions.
+ *
+ * <p>Each kernel works on the channels from (inclusive) to to (exclusive), and the result arrays
+ * may be the same as the first operand arrays (for the in place operations). When the vector API
+ * can be used (see vectorKernels), add, subtract and multiply run the kernels of ChannelVectors,
+ * which work on a vector of channels at a time. Otherwise, and for the other operations, the
+ * scalar loops here are used ... the uncertainties and the counts are worked out in the same
+ * loop, reading each channel once.
+ *
+ * <p>The ...Rows methods work on the flat arrays of a two dimensional spectrum, one y row after
+ * another, and hand blocks of rows to RowBlocks to run in parallel on large spectra.
+ */
+public class ChannelArithmetic {
+  public static final int ADD = 0;
+  public static final int SUBTRACT = 1;
+  public static final int MULTIPLY = 2;
+  public static final int DIVIDE = 3;
+
+  /**
+   * true if the kernels of ChannelVectors are used ... only when the JVM was started with
+   * --add-modules jdk.incubator.vector and the processor has vectors of more than one double. Can
+   * be turned off by setting the spec.spectrum.vectorKernels system property to false
+   */
+  private static final boolean vectorKernels = canUseVectorKernels();
+
+  /**
+   * count [i] = count1 [i] (operation) count2 [i], and the uncertainty of the result from
+   * uncertainty1 and uncertainty2, for every channel from from to to
+   *
+   * @exception ArithmeticException if dividing by a zero count
+   */
+  public static void apply(
+      int operation,
+      int[] count1,
+      double[] uncertainty1,
+      int[] count2,
+      double[] uncertainty2,
+      int[] count,
+      double[] uncertainty,
+      int from,
+      int to) {
+    switch (operation) {
+      case ADD:
+        if (vectorKernels) {
+          ChannelVectors.addOrSubtract(
+              false, count1, uncertainty1, count2, uncertainty2, count, uncertainty, from, to);
+          break;
+        }
+        for (int i = from; i < to; i++) {
+          uncertainty[i] =
+              Math.sqrt((uncertainty1[i] * uncertainty1[i]) + (uncertainty2[i] * uncertainty2[i]));
+          count[i] = count1[i] + count2[i];
+        }
+        break;
+      case SUBTRACT:
+        // the errors of a difference add up the same way as those of a sum
+        if (vectorKernels) {
+          ChannelVectors.addOrSubtract(
+              true, count1, uncertainty1, count2, uncertainty2, count, uncertainty, from, to);
+          break;
+        }
+        for (int i = from; i < to; i++) {
+          uncertainty[i] =
+              Math.sqrt((uncertainty1[i] * uncertainty1[i]) + (uncertainty2[i] * uncertainty2[i]));
+          count[i] = count1[i] - count2[i];
+        }
+        break;
+      case MULTIPLY:
+        if (vectorKernels) {
+          ChannelVectors.multiply(
+              count1, uncertainty1, count2, uncertainty2, count, uncertainty, from, to);
+          break;
+        }
+        for (int i = from; i < to; i++) {
+          double a = count2[i] * uncertainty1[i];
+          double b = count1[i] * uncertainty2[i];
+          uncertainty[i] = Math.sqrt(a * a + b * b);
+          count[i] = count1[i] * count2[i];
+        }
+        break;
+      case DIVIDE:
+        // the counts are divided as integers, here as well as in the ratio for the uncertainty
+        for (int i = from; i < to; i++) {
+          int c1 = count1[i];
+          int c2 = count2[i];
+          uncertainty[i] =
+              (c1 / c2)
+                  * Math.sqrt(
+                      (uncertainty1[i] * uncertainty1[i]) / (c1 * c1)
+                          + (uncertainty2[i] * uncertainty2[i]) / (c2 * c2));
+          count[i] = c1 / c2;
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown operation: " + operation);
+    }
+  }
+
+  /** the same as apply, over all the channels */
+  public static void apply(
+      int operation,
+      int[] count1,
+      double[] uncertainty1,
+      int[] count2,
+      double[] uncertainty2,
+      int[] count,
+      double[] uncertainty) {
+    apply(
+        operation, count1, uncertainty1, count2, uncertainty2, count, uncertainty, 0, count.length);
+  }
+
+  /** count [i] = count [i] (operation) count2 [i] in place, over all the channels */
+  public static void apply(
+      int operation, int[] count, double[] uncertainty, int[] count2, double[] uncertainty2) {
+    apply(operation, count, uncertainty, count2, uncertainty2, count, uncertainty, 0, count.length);
+  }
+
+  /**
+   * the same as apply, over all the channels of a two dimensional spectrum with rows of rowLength
+   * channels ... in parallel blocks of rows on large spectra
+   */
+  public static void applyRows(
+      final int operation,
+      final int[] count1,
+      final double[] uncertainty1,
+      final int[] count2,
+      final double[] uncertainty2,
+      final int[] count,
+      final double[] uncertainty,
+      final int rowLength) {
+    RowBlocks.run(
+        getNumRows(count, rowLength),
+        rowLength,
+        new RowBlocks.Body() {
+          public void run(int block, int fromRow, int toRow) {
+            apply(
+                operation,
+                count1,
+                uncertainty1,
+                count2,
+                uncertainty2,
+                count,
+                uncertainty,
+                fromRow * rowLength,
+                toRow * rowLength);
+          }
+        });
+  }
+
+  /** count [i] = count [i] (operation) count2 [i] in place, over all the rows */
+  public static void applyRows(
+      int operation,
+      int[] count,
+      double[] uncertainty,
+      int[] count2,
+      double[] uncertainty2,
+      int rowLength) {
+    applyRows(operation, count, uncertainty, count2, uncertainty2, count, uncertainty, rowLength);
+  }
+
+  /** the same as scale, over all the rows */
+  public static void scaleRows(
+      final int[] count, final double[] uncertainty, final double value, final int rowLength) {
+    RowBlocks.run(
+        getNumRows(count, rowLength),
+        rowLength,
+        new RowBlocks.Body() {
+          public void run(int block, int fromRow, int toRow) {
+            scale(count, uncertainty, value, fromRow * rowLength, toRow * rowLength);
+          }
+        });
+  }
+
+  /** the same as offset, over all the rows */
+  public static void offsetRows(final int[] count, final int value, final int rowLength) {
+    RowBlocks.run(
+        getNumRows(count, rowLength),
+        rowLength,
+        new RowBlocks.Body() {
+          public void run(int block, int fromRow, int toRow) {
+            offset(count, value, fromRow * rowLength, toRow * rowLength);
+          }
+        });
+  }
+
+  /**
+   * sums each numYInGroup by numXInGroup rectangle of channels of a specShape0 by specShape1
+   * spectrum into one channel of newCount, and adds up their uncertainties in quadrature into
+   * newUncertainty ... newCount and newUncertainty hold (specShape0 / numYInGroup) rows of
+   * (specShape1 / numXInGroup) channels. Blocks of the new rows are worked on in parallel on large
+   * spectra.
+   */
+  public static void compressRows(
+      final int[] count,
+      final double[] uncertainty,
+      final int specShape1,
+      final int numYInGroup,
+      final int numXInGroup,
+      final int[] newCount,
+      final double[] newUncertainty,
+      final int newSpecShape0,
+      final int newSpecShape1) {
+    RowBlocks.run(
+        newSpecShape0,
+        numYInGroup * specShape1,
+        new RowBlocks.Body() {
+          public void run(int block, int fromRow, int toRow) {
+            for (int i = fromRow; i < toRow; i++) {
+              for (int j = 0; j < newSpecShape1; j++) {
+                // sum over the rectangular region that is made into one channel
+                int countSum = 0;
+                double uncertaintySum = 0.0;
+                for (int a = i * numYInGroup; a < (i + 1) * numYInGroup; a++) {
+                  int offset = a * specShape1;
+                  for (int b = j * numXInGroup; b < (j + 1) * numXInGroup; b++) {
+                    countSum = countSum + count[offset + b];
+                    uncertaintySum =
+                        uncertaintySum + (uncertainty[offset + b] * uncertainty[offset + b]);
+                  }
+                }
+                newCount[i * newSpecShape1 + j] = countSum;
+                newUncertainty[i * newSpecShape1 + j] = Math.sqrt(uncertaintySum);
+              }
+            }
+          }
+        });
+  }
+
+  /** count [i] = (int) (count [i] * value) and uncertainty [i] *= value, from from to to */
+  public static void scale(int[] count, double[] uncertainty, double value, int from, int to) {
+    for (int i = from; i < to; i++) {
+      uncertainty[i] = uncertainty[i] * value;
+      count[i] = (int) (count[i] * value);
+    }
+  }
+
+  /** count [i] += value, from from to to ... the uncertainties are not changed */
+  public static void offset(int[] count, int value, int from, int to) {
+    for (int i = from; i < to; i++) {
+      count[i] += value;
+    }
+  }
+
+  private static int getNumRows(int[] count, int rowLength) {
+    return (rowLength == 0) ? 0 : count.length / rowLength;
+  }
+
+  /** true if the vector API is there and the kernels of ChannelVectors are worth using */
+  private static boolean canUseVectorKernels() {
+    String property = System.getProperty("spec.spectrum.vectorKernels", "true");
+    if (!(Boolean.valueOf(property).booleanValue())) return false;
+    try {
+      // an incubator module is only there if the JVM was started with it ... ChannelVectors
+      // cannot even be loaded otherwise
+      Class.forName("jdk.incubator.vector.DoubleVector");
+      return ChannelVectors.isUsable();
+    } catch (ClassNotFoundException e) {
+      return false;
+    } catch (LinkageError e) {
+      return false;
+    } catch (RuntimeException e) {
+      // the processor has no vector shape that fits
+      return false;
+    }
+  }
+
+  /** true if add, subtract and multiply run on the vector API */
+  public static boolean isVectorKernels() {
+    return vectorKernels;
+  }
+}
@@ -0,0 +1,103 @@
+package spec.spectrum;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The kernels of ChannelArithmetic written with the vector API of the jdk.incubator.vector module.
+ * Each step works on as many channels as the widest double vector of the processor holds, with
+ * their counts in an int vector of as many lanes, and works out the uncertainties and the counts
+ * together. The channels left over at the end are worked out one at a time.
+ *
+ * <p>There are only kernels for add, subtract and multiply ... the JIT compiler already turns the
+ * scalar loops of offset into SIMD instructions, an integer divide has no vector instruction, and
+ * the conversion of the scaled counts back to ints is slower in vectors than one at a time.
+ *
+ * <p>The lane operations are the same as the scalar ones, in the same order (the vector API does
+ * not fuse a multiply and an add), so the results are the same to the bit as those of the scalar
+ * kernels.
+ *
+ * <p>Only used through ChannelArithmetic, which checks that the module is there before this class
+ * is loaded ... the module is only there when the JVM is started with --add-modules
+ * jdk.incubator.vector.
+ */
+final class ChannelVectors {
+  private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+  /** int vectors of as many lanes as DOUBLES */
+  private static final VectorSpecies<Integer> INTS =
+      VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLES.length() * 32));
+
+  private ChannelVectors() {}
+
+  /** true if the processor has vectors of more than one double, and the kernels are worth it */
+  static boolean isUsable() {
+    return DOUBLES.length() > 1;
+  }
+
+  /** ChannelArithmetic.ADD, or ChannelArithmetic.SUBTRACT if subtract */
+  static void addOrSubtract(
+      boolean subtract,
+      int[] count1,
+      double[] uncertainty1,
+      int[] count2,
+      double[] uncertainty2,
+      int[] count,
+      double[] uncertainty,
+      int from,
+      int to) {
+    int i = from;
+    for (int bound = to - DOUBLES.length(); i <= bound; i += DOUBLES.length()) {
+      DoubleVector u1 = DoubleVector.fromArray(DOUBLES, uncertainty1, i);
+      DoubleVector u2 = DoubleVector.fromArray(DOUBLES, uncertainty2, i);
+      IntVector c1 = IntVector.fromArray(INTS, count1, i);
+      IntVector c2 = IntVector.fromArray(INTS, count2, i);
+
+      u1.mul(u1).add(u2.mul(u2)).sqrt().intoArray(uncertainty, i);
+      (subtract ? c1.sub(c2) : c1.add(c2)).intoArray(count, i);
+    }
+
+    for (; i < to; i++) {
+      uncertainty[i] =
+          Math.sqrt((uncertainty1[i] * uncertainty1[i]) + (uncertainty2[i] * uncertainty2[i]));
+      count[i] = subtract ? count1[i] - count2[i] : count1[i] + count2[i];
+    }
+  }
+
+  /** ChannelArithmetic.MULTIPLY */
+  static void multiply(
+      int[] count1,
+      double[] uncertainty1,
+      int[] count2,
+      double[] uncertainty2,
+      int[] count,
+      double[] uncertainty,
+      int from,
+      int to) {
+    int i = from;
+    for (int bound = to - DOUBLES.length(); i <= bound; i += DOUBLES.length()) {
+      IntVector c1 = IntVector.fromArray(INTS, count1, i);
+      IntVector c2 = IntVector.fromArray(INTS, count2, i);
+      DoubleVector a = toDoubles(c2).mul(DoubleVector.fromArray(DOUBLES, uncertainty1, i));
+      DoubleVector b = toDoubles(c1).mul(DoubleVector.fromArray(DOUBLES, uncertainty2, i));
+
+      a.mul(a).add(b.mul(b)).sqrt().intoArray(uncertainty, i);
+      c1.mul(c2).intoArray(count, i);
+    }
+
+    for (; i < to; i++) {
+      double a = count2[i] * uncertainty1[i];
+      double b = count1[i] * uncertainty2[i];
+      uncertainty[i] = Math.sqrt(a * a + b * b);
+      count[i] = count1[i] * count2[i];
+    }
+  }
+
+  /** the counts as doubles, lane for lane */
+  private static DoubleVector toDoubles(IntVector counts) {
+    return (DoubleVector) counts.convertShape(VectorOperators.I2D, DOUBLES, 0);
+  }
+}
@@ -255,13 +255,16 @@ public abstract class DrawableSpectrum implements SpectrumInterface, PropertyCha
       int specShape0 = ((Spectrum.TwoDim) spectrum).getSpecChannel().getSpecShape0();
       int specShape1 = ((Spectrum.TwoDim) spectrum).getSpecChannel().getSpecShape1();
 
-      int[][] data = ((Spectrum.TwoDim) spectrum).getSpecChannel().getSpecCount();
-      double[][] dataError = ((Spectrum.TwoDim) spectrum).getSpecChannel().getSpecUncertainty();
+      // the dataset shares the flat channel arrays, rather than a rectangular copy of them
+      SpecChannel.TwoDim specChannel = ((Spectrum.TwoDim) spectrum).getSpecChannel();
+      int[] data = specChannel.getFlatSpecCount();
 
       // set up dataset and graph
       try {
-        dataset = new DatasetXYtoZ.Integer(data, DatasetXYtoZ.Y_OF_X);
-        ((DatasetXYtoZ.Integer) dataset).setErrorInZ(dataError);
+        dataset = new DatasetXYtoZ.Integer(data, specShape0, specShape1, DatasetXYtoZ.Y_OF_X);
+        // square root errors are not copied into the dataset ... they follow from the counts
+        if (!(specChannel.hasPoissonUncertainty()))
+          ((DatasetXYtoZ.Integer) dataset).setErrorInZ(specChannel.getFlatSpecUncertainty());
         dataset.setName(this.getSpectrum().getSpecName());
 
         dataset.setAxisX(xAxis);
@@ -274,6 +277,35 @@ public abstract class DrawableSpectrum implements SpectrumInterface, PropertyCha
         System.out.println(e.getMessage());
       }
     }
+
+    /**
+     * must be called after changing the counts of the spectrum channel in place, if not through the
+     * manipulations of the spectrum (which call Spectrum.TwoDim.countsChanged themselves) ... the
+     * dataset shares them, so it sets its data again from them (building its pyramid again) and is
+     * redrawn, once the spectrum fires its SPECTRUM_COUNTS_PROPERTY
+     */
+    public void countsChanged() {
+      ((Spectrum.TwoDim) spectrum).countsChanged();
+    }
+
+    /**
+     * also sets the data of the dataset again when the counts of the spectrum change in place ...
+     * with the uncertainties, once the manipulation has made them more than square root errors
+     */
+    public void propertyChange(PropertyChangeEvent e) {
+      super.propertyChange(e);
+      if (!(e.getPropertyName().equals(Spectrum.SPECTRUM_COUNTS_PROPERTY)) || dataset == null)
+        return;
+
+      SpecChannel.TwoDim specChannel = ((Spectrum.TwoDim) spectrum).getSpecChannel();
+      try {
+        if (!(specChannel.hasPoissonUncertainty()))
+          ((DatasetXYtoZ.Integer) dataset).setErrorInZ(specChannel.getFlatSpecUncertainty());
+      } catch (Exception ex) {
+        System.out.println(ex.getMessage());
+      }
+      ((DatasetXYtoZ.Integer) dataset).dataChanged();
+    }
   }
 
   /** class to manage displaying information about this drawable spectrum */
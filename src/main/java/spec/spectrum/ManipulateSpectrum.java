@@ -37,7 +37,8 @@ public abstract class ManipulateSpectrum {
       specChannel = ((Spectrum.OneDim) spectrum).getSpecChannel();
       specShape = specChannel.getSpecShape();
       specCount = specChannel.getSpecCount();
-      specUncertainty = specChannel.getSpecUncertainty();
+      // the manipulations change the uncertainties in place
+      specUncertainty = specChannel.materializeSpecUncertainty();
     }
 
     /*
@@ -69,13 +70,14 @@ public abstract class ManipulateSpectrum {
       int[] specCount = new int[specShape1];
       double[] specUncertainty = new double[specShape1];
 
-      for (int i = 0; i < specShape1; i++) {
-        specUncertainty[i] =
-            Math.sqrt(
-                (specUncertainty1[i] * specUncertainty1[i])
-                    + (specUncertainty2[i] * specUncertainty2[i]));
-        specCount[i] = specCount1[i] + specCount2[i];
-      }
+      ChannelArithmetic.apply(
+          ChannelArithmetic.ADD,
+          specCount1,
+          specUncertainty1,
+          specCount2,
+          specUncertainty2,
+          specCount,
+          specUncertainty);
 
       String specName = spectrum1.getSpecName() + "_+_" + spectrum2.getSpecName();
       specChannel = new SpecChannel.OneDim(specShape1, specCount, specUncertainty);
@@ -107,13 +109,14 @@ public abstract class ManipulateSpectrum {
       int[] specCount = new int[specShape1];
       double[] specUncertainty = new double[specShape1];
 
-      for (int i = 0; i < specShape1; i++) {
-        specUncertainty[i] =
-            Math.sqrt(
-                (specUncertainty1[i] * specUncertainty1[i])
-                    + (specUncertainty2[i] * specUncertainty2[i]));
-        specCount[i] = specCount1[i] - specCount2[i];
-      }
+      ChannelArithmetic.apply(
+          ChannelArithmetic.SUBTRACT,
+          specCount1,
+          specUncertainty1,
+          specCount2,
+          specUncertainty2,
+          specCount,
+          specUncertainty);
 
       String specName = spectrum1.getSpecName() + "_-_" + spectrum2.getSpecName();
       specChannel = new SpecChannel.OneDim(specShape1, specCount, specUncertainty);
@@ -145,13 +148,14 @@ public abstract class ManipulateSpectrum {
       int[] specCount = new int[specShape1];
       double[] specUncertainty = new double[specShape1];
 
-      for (int i = 0; i < specShape1; i++) {
-        specUncertainty[i] =
-            Math.sqrt(
-                Math.pow(specCount2[i] * specUncertainty1[i], 2)
-                    + Math.pow(specCount1[i] * specUncertainty2[i], 2));
-        specCount[i] = specCount1[i] * specCount2[i];
-      }
+      ChannelArithmetic.apply(
+          ChannelArithmetic.MULTIPLY,
+          specCount1,
+          specUncertainty1,
+          specCount2,
+          specUncertainty2,
+          specCount,
+          specUncertainty);
 
       String specName = spectrum1.getSpecName() + "_*_" + spectrum2.getSpecName();
       specChannel = new SpecChannel.OneDim(specShape1, specCount, specUncertainty);
@@ -183,15 +187,14 @@ public abstract class ManipulateSpectrum {
       int[] specCount = new int[specShape1];
       double[] specUncertainty = new double[specShape1];
 
-      for (int i = 0; i < specShape1; i++) {
-        specUncertainty[i] =
-            (specCount1[i] / specCount2[i])
-                * Math.sqrt(
-                    (specUncertainty1[i] * specUncertainty1[i]) / (specCount1[i] * specCount1[i])
-                        + (specUncertainty2[i] * specUncertainty2[i])
-                            / (specCount2[i] * specCount2[i]));
-        specCount[i] = specCount[i] / specCount2[i];
-      }
+      ChannelArithmetic.apply(
+          ChannelArithmetic.DIVIDE,
+          specCount1,
+          specUncertainty1,
+          specCount2,
+          specUncertainty2,
+          specCount,
+          specUncertainty);
 
       String specName = spectrum1.getSpecName() + "_/_" + spectrum2.getSpecName();
       specChannel = new SpecChannel.OneDim(specShape1, specCount, specUncertainty);
@@ -210,13 +213,9 @@ public abstract class ManipulateSpectrum {
       if (specShape != specShape2)
         throw new SpecChannel.ShapeException("Spectrum must have the same shape ... ");
 
-      for (int i = 0; i < specShape; i++) {
-        specUncertainty[i] =
-            Math.sqrt(
-                (specUncertainty[i] * specUncertainty[i])
-                    + (specUncertainty2[i] * specUncertainty2[i]));
-        specCount[i] += specCount2[i];
-      }
+      ChannelArithmetic.apply(
+          ChannelArithmetic.ADD, specCount, specUncertainty, specCount2, specUncertainty2);
+      specChannel.countsChanged();
     }
 
     /** subtract this spectrum to the parsed spectrum channel by channel */
@@ -230,13 +229,9 @@ public abstract class ManipulateSpectrum {
       if (specShape != specShape2)
         throw new SpecChannel.ShapeException("Spectrum must have the same shape ... ");
 
-      for (int i = 0; i < specShape; i++) {
-        specUncertainty[i] =
-            Math.sqrt(
-                (specUncertainty[i] * specUncertainty[i])
-                    + (specUncertainty2[i] * specUncertainty2[i]));
-        specCount[i] -= specCount2[i];
-      }
+      ChannelArithmetic.apply(
+          ChannelArithmetic.SUBTRACT, specCount, specUncertainty, specCount2, specUncertainty2);
+      specChannel.countsChanged();
     }
 
     /** multiply this spectrum by the parsed spectrum channel by channel */
@@ -250,13 +245,9 @@ public abstract class ManipulateSpectrum {
       if (specShape != specShape2)
         throw new SpecChannel.ShapeException("Spectrum must have the same shape ... ");
 
-      for (int i = 0; i < specShape; i++) {
-        specUncertainty[i] =
-            Math.sqrt(
-                Math.pow(specCount2[i] * specUncertainty[i], 2)
-                    + Math.pow(specCount[i] * specUncertainty2[i], 2));
-        specCount[i] *= specCount2[i];
-      }
+      ChannelArithmetic.apply(
+          ChannelArithmetic.MULTIPLY, specCount, specUncertainty, specCount2, specUncertainty2);
+      specChannel.countsChanged();
     }
 
     /** divide this spectrum by the parsed spectrum channel by channel */
@@ -270,15 +261,9 @@ public abstract class ManipulateSpectrum {
       if (specShape != specShape2)
         throw new SpecChannel.ShapeException("Spectrum must have the same shape ... ");
 
-      for (int i = 0; i < specShape; i++) {
-        specUncertainty[i] =
-            (specCount[i] / specCount2[i])
-                * Math.sqrt(
-                    (specUncertainty[i] * specUncertainty[i]) / (specCount[i] * specCount[i])
-                        + (specUncertainty2[i] * specUncertainty2[i])
-                            / (specCount2[i] * specCount2[i]));
-        specCount[i] /= specCount2[i];
-      }
+      ChannelArithmetic.apply(
+          ChannelArithmetic.DIVIDE, specCount, specUncertainty, specCount2, specUncertainty2);
+      specChannel.countsChanged();
     }
 
     /**
@@ -325,34 +310,26 @@ public abstract class ManipulateSpectrum {
 
     /** multiply the count for each channel by a double value */
     public void multiply(double value) {
-      for (int i = 0; i < specShape; i++) {
-        specCount[i] = (int) (specCount[i] * value);
-        specUncertainty[i] = specUncertainty[i] * value;
-      }
+      ChannelArithmetic.scale(specCount, specUncertainty, value, 0, specCount.length);
+      specChannel.countsChanged();
     }
 
     /** add an int value to the count for each channel */
     public void add(int value) {
-      for (int i = 0; i < specShape; i++) {
-        specCount[i] += value;
-        // uncertainty does not change
-      }
+      ChannelArithmetic.offset(specCount, value, 0, specCount.length);
+      specChannel.countsChanged();
     }
 
     /**
      * find the area between an interval of channels (inclusive) ... basically add the channel
-     * counts in the range Convention is that channels are labelled from 1 to specShape
+     * counts in the range Convention is that channels are labelled from 1 to specShape. Taken from
+     * the cumulative sums of the spec channel
      */
     public int area(int lowChannel, int highChannel) throws Exception {
       if ((lowChannel >= highChannel) || (highChannel > specShape))
         throw new Exception("Invalid range of values");
 
-      int area = 0;
-      for (int i = lowChannel - 1; i < highChannel; i++) {
-        area += specCount[i];
-      }
-
-      return area;
+      return (int) specChannel.getCountSum(lowChannel - 1, highChannel);
     }
 
     /**
@@ -373,8 +350,8 @@ public abstract class ManipulateSpectrum {
     SpecChannel.TwoDim specChannel;
     int specShape0;
     int specShape1;
-    int[][] specCount;
-    double[][] specUncertainty;
+    int[] specCount;
+    double[] specUncertainty;
 
     public TwoDim(Spectrum.TwoDim spectrum) {
       super();
@@ -388,8 +365,9 @@ public abstract class ManipulateSpectrum {
       specChannel = ((Spectrum.TwoDim) spectrum).getSpecChannel();
       specShape0 = specChannel.getSpecShape0();
       specShape1 = specChannel.getSpecShape1();
-      specCount = specChannel.getSpecCount();
-      specUncertainty = specChannel.getSpecUncertainty();
+      specCount = specChannel.getFlatSpecCount();
+      // the manipulations change the uncertainties in place
+      specUncertainty = specChannel.materializeSpecUncertainty();
     }
 
     /*
@@ -412,25 +390,25 @@ public abstract class ManipulateSpectrum {
       if (!((specShape01 == specShape02) && (specShape11 == specShape12)))
         throw new SpecChannel.ShapeException("Spectrum must have the same shape ... ");
 
-      int[][] specCount1 = specChannel1.getSpecCount();
-      double[][] specUncertainty1 = specChannel1.getSpecUncertainty();
+      int[] specCount1 = specChannel1.getFlatSpecCount();
+      double[] specUncertainty1 = specChannel1.getFlatSpecUncertainty();
 
-      int[][] specCount2 = specChannel2.getSpecCount();
-      double[][] specUncertainty2 = specChannel2.getSpecUncertainty();
+      int[] specCount2 = specChannel2.getFlatSpecCount();
+      double[] specUncertainty2 = specChannel2.getFlatSpecUncertainty();
 
       SpecChannel.TwoDim specChannel;
-      int[][] specCount = new int[specShape01][specShape11];
-      double[][] specUncertainty = new double[specShape01][specShape11];
-
-      for (int i = 0; i < specShape01; i++) {
-        for (int j = 0; j < specShape11; j++) {
-          specUncertainty[i][j] =
-              Math.sqrt(
-                  (specUncertainty1[i][j] * specUncertainty1[i][j])
-                      + (specUncertainty2[i][j] * specUncertainty2[i][j]));
-          specCount[i][j] = specCount1[i][j] + specCount2[i][j];
-        }
-      }
+      int[] specCount = new int[specShape01 * specShape11];
+      double[] specUncertainty = new double[specShape01 * specShape11];
+
+      ChannelArithmetic.applyRows(
+          ChannelArithmetic.ADD,
+          specCount1,
+          specUncertainty1,
+          specCount2,
+          specUncertainty2,
+          specCount,
+          specUncertainty,
+          specShape11);
 
       String specName = spectrum1.getSpecName() + "_+_" + spectrum2.getSpecName();
       specChannel = new SpecChannel.TwoDim(specShape01, specShape11, specCount, specUncertainty);
@@ -453,25 +431,25 @@ public abstract class ManipulateSpectrum {
       if (!((specShape01 == specShape02) && (specShape11 == specShape12)))
         throw new SpecChannel.ShapeException("Spectrum must have the same shape ... ");
 
-      int[][] specCount1 = specChannel1.getSpecCount();
-      double[][] specUncertainty1 = specChannel1.getSpecUncertainty();
+      int[] specCount1 = specChannel1.getFlatSpecCount();
+      double[] specUncertainty1 = specChannel1.getFlatSpecUncertainty();
 
-      int[][] specCount2 = specChannel2.getSpecCount();
-      double[][] specUncertainty2 = specChannel2.getSpecUncertainty();
+      int[] specCount2 = specChannel2.getFlatSpecCount();
+      double[] specUncertainty2 = specChannel2.getFlatSpecUncertainty();
 
       SpecChannel.TwoDim specChannel;
-      int[][] specCount = new int[specShape01][specShape11];
-      double[][] specUncertainty = new double[specShape01][specShape11];
-
-      for (int i = 0; i < specShape01; i++) {
-        for (int j = 0; j < specShape11; j++) {
-          specUncertainty[i][j] =
-              Math.sqrt(
-                  (specUncertainty1[i][j] * specUncertainty1[i][j])
-                      + (specUncertainty2[i][j] * specUncertainty2[i][j]));
-          specCount[i][j] = specCount1[i][j] - specCount2[i][j];
-        }
-      }
+      int[] specCount = new int[specShape01 * specShape11];
+      double[] specUncertainty = new double[specShape01 * specShape11];
+
+      ChannelArithmetic.applyRows(
+          ChannelArithmetic.SUBTRACT,
+          specCount1,
+          specUncertainty1,
+          specCount2,
+          specUncertainty2,
+          specCount,
+          specUncertainty,
+          specShape11);
 
       String specName = spectrum1.getSpecName() + "_-_" + spectrum2.getSpecName();
       specChannel = new SpecChannel.TwoDim(specShape01, specShape11, specCount, specUncertainty);
@@ -494,25 +472,25 @@ public abstract class ManipulateSpectrum {
       if (!((specShape01 == specShape02) && (specShape11 == specShape12)))
         throw new SpecChannel.ShapeException("Spectrum must have the same shape ... ");
 
-      int[][] specCount1 = specChannel1.getSpecCount();
-      double[][] specUncertainty1 = specChannel1.getSpecUncertainty();
+      int[] specCount1 = specChannel1.getFlatSpecCount();
+      double[] specUncertainty1 = specChannel1.getFlatSpecUncertainty();
 
-      int[][] specCount2 = specChannel2.getSpecCount();
-      double[][] specUncertainty2 = specChannel2.getSpecUncertainty();
+      int[] specCount2 = specChannel2.getFlatSpecCount();
+      double[] specUncertainty2 = specChannel2.getFlatSpecUncertainty();
 
       SpecChannel.TwoDim specChannel;
-      int[][] specCount = new int[specShape01][specShape11];
-      double[][] specUncertainty = new double[specShape01][specShape11];
-
-      for (int i = 0; i < specShape01; i++) {
-        for (int j = 0; j < specShape11; j++) {
-          specUncertainty[i][j] =
-              Math.sqrt(
-                  Math.pow(specCount2[i][j] * specUncertainty1[i][j], 2)
-                      + Math.pow(specCount1[i][j] * specUncertainty2[i][j], 2));
-          specCount[i][j] = specCount1[i][j] * specCount2[i][j];
-        }
-      }
+      int[] specCount = new int[specShape01 * specShape11];
+      double[] specUncertainty = new double[specShape01 * specShape11];
+
+      ChannelArithmetic.applyRows(
+          ChannelArithmetic.MULTIPLY,
+          specCount1,
+          specUncertainty1,
+          specCount2,
+          specUncertainty2,
+          specCount,
+          specUncertainty,
+          specShape11);
 
       String specName = spectrum1.getSpecName() + "_*_" + spectrum2.getSpecName();
       specChannel = new SpecChannel.TwoDim(specShape01, specShape11, specCount, specUncertainty);
@@ -535,28 +513,25 @@ public abstract class ManipulateSpectrum {
       if (!((specShape01 == specShape02) && (specShape11 == specShape12)))
         throw new SpecChannel.ShapeException("Spectrum must have the same shape ... ");
 
-      int[][] specCount1 = specChannel1.getSpecCount();
-      double[][] specUncertainty1 = specChannel1.getSpecUncertainty();
+      int[] specCount1 = specChannel1.getFlatSpecCount();
+      double[] specUncertainty1 = specChannel1.getFlatSpecUncertainty();
 
-      int[][] specCount2 = specChannel2.getSpecCount();
-      double[][] specUncertainty2 = specChannel2.getSpecUncertainty();
+      int[] specCount2 = specChannel2.getFlatSpecCount();
+      double[] specUncertainty2 = specChannel2.getFlatSpecUncertainty();
 
       SpecChannel.TwoDim specChannel;
-      int[][] specCount = new int[specShape01][specShape11];
-      double[][] specUncertainty = new double[specShape01][specShape11];
-
-      for (int i = 0; i < specShape01; i++) {
-        for (int j = 0; j < specShape11; j++) {
-          specUncertainty[i][j] =
-              (specCount1[i][j] / specCount2[i][j])
-                  * Math.sqrt(
-                      (specUncertainty1[i][j] * specUncertainty1[i][j])
-                              / (specCount1[i][j] * specCount1[i][j])
-                          + (specUncertainty2[i][j] * specUncertainty2[i][j])
-                              / (specCount2[i][j] * specCount2[i][j]));
-          specCount[i][j] = specCount1[i][j] + specCount2[i][j];
-        }
-      }
+      int[] specCount = new int[specShape01 * specShape11];
+      double[] specUncertainty = new double[specShape01 * specShape11];
+
+      ChannelArithmetic.applyRows(
+          ChannelArithmetic.DIVIDE,
+          specCount1,
+          specUncertainty1,
+          specCount2,
+          specUncertainty2,
+          specCount,
+          specUncertainty,
+          specShape11);
 
       String specName = spectrum1.getSpecName() + "_/_" + spectrum2.getSpecName();
       specChannel = new SpecChannel.TwoDim(specShape01, specShape11, specCount, specUncertainty);
@@ -569,22 +544,21 @@ public abstract class ManipulateSpectrum {
       SpecChannel.TwoDim specChannel2 = spectrum2.getSpecChannel();
       int specShape02 = specChannel2.getSpecShape0();
       int specShape12 = specChannel2.getSpecShape1();
-      int[][] specCount2 = specChannel2.getSpecCount();
-      double[][] specUncertainty2 = specChannel2.getSpecUncertainty();
+      int[] specCount2 = specChannel2.getFlatSpecCount();
+      double[] specUncertainty2 = specChannel2.getFlatSpecUncertainty();
 
       // throw exception if not the same shape
       if (!((specShape0 == specShape02) && (specShape1 == specShape12)))
         throw new SpecChannel.ShapeException("Spectrum must have the same shape ... ");
 
-      for (int i = 0; i < specShape02; i++) {
-        for (int j = 0; j < specShape12; j++) {
-          specUncertainty[i][j] =
-              Math.sqrt(
-                  (specUncertainty[i][j] * specUncertainty[i][j])
-                      + (specUncertainty2[i][j] * specUncertainty2[i][j]));
-          specCount[i][j] += specCount2[i][j];
-        }
-      }
+      ChannelArithmetic.applyRows(
+          ChannelArithmetic.ADD,
+          specCount,
+          specUncertainty,
+          specCount2,
+          specUncertainty2,
+          specShape1);
+      ((Spectrum.TwoDim) spectrum).countsChanged();
     }
 
     /** subtract this spectrum to the parsed spectrum channel by channel */
@@ -592,22 +566,21 @@ public abstract class ManipulateSpectrum {
       SpecChannel.TwoDim specChannel2 = spectrum2.getSpecChannel();
       int specShape02 = specChannel2.getSpecShape0();
       int specShape12 = specChannel2.getSpecShape1();
-      int[][] specCount2 = specChannel2.getSpecCount();
-      double[][] specUncertainty2 = specChannel2.getSpecUncertainty();
+      int[] specCount2 = specChannel2.getFlatSpecCount();
+      double[] specUncertainty2 = specChannel2.getFlatSpecUncertainty();
 
       // throw exception if not the same shape
       if (!((specShape0 == specShape02) && (specShape1 == specShape12)))
         throw new SpecChannel.ShapeException("Spectrum must have the same shape ... ");
 
-      for (int i = 0; i < specShape02; i++) {
-        for (int j = 0; j < specShape12; j++) {
-          specUncertainty[i][j] =
-              Math.sqrt(
-                  (specUncertainty[i][j] * specUncertainty[i][j])
-                      + (specUncertainty2[i][j] * specUncertainty2[i][j]));
-          specCount[i][j] -= specCount2[i][j];
-        }
-      }
+      ChannelArithmetic.applyRows(
+          ChannelArithmetic.SUBTRACT,
+          specCount,
+          specUncertainty,
+          specCount2,
+          specUncertainty2,
+          specShape1);
+      ((Spectrum.TwoDim) spectrum).countsChanged();
     }
 
     /** multiply this spectrum by the parsed spectrum channel by channel */
@@ -615,22 +588,21 @@ public abstract class ManipulateSpectrum {
       SpecChannel.TwoDim specChannel2 = spectrum2.getSpecChannel();
       int specShape02 = specChannel2.getSpecShape0();
       int specShape12 = specChannel2.getSpecShape1();
-      int[][] specCount2 = specChannel2.getSpecCount();
-      double[][] specUncertainty2 = specChannel2.getSpecUncertainty();
+      int[] specCount2 = specChannel2.getFlatSpecCount();
+      double[] specUncertainty2 = specChannel2.getFlatSpecUncertainty();
 
       // throw exception if not the same shape
       if (!((specShape0 == specShape02) && (specShape1 == specShape12)))
         throw new SpecChannel.ShapeException("Spectrum must have the same shape ... ");
 
-      for (int i = 0; i < specShape02; i++) {
-        for (int j = 0; j < specShape12; j++) {
-          specUncertainty[i][j] =
-              Math.sqrt(
-                  Math.pow(specCount2[i][j] * specUncertainty[i][j], 2)
-                      + Math.pow(specCount[i][j] * specUncertainty2[i][j], 2));
-          specCount[i][j] *= specCount2[i][j];
-        }
-      }
+      ChannelArithmetic.applyRows(
+          ChannelArithmetic.MULTIPLY,
+          specCount,
+          specUncertainty,
+          specCount2,
+          specUncertainty2,
+          specShape1);
+      ((Spectrum.TwoDim) spectrum).countsChanged();
     }
 
     /** divide this spectrum by the parsed spectrum channel by channel */
@@ -638,25 +610,21 @@ public abstract class ManipulateSpectrum {
       SpecChannel.TwoDim specChannel2 = spectrum2.getSpecChannel();
       int specShape02 = specChannel2.getSpecShape0();
       int specShape12 = specChannel2.getSpecShape1();
-      int[][] specCount2 = specChannel2.getSpecCount();
-      double[][] specUncertainty2 = specChannel2.getSpecUncertainty();
+      int[] specCount2 = specChannel2.getFlatSpecCount();
+      double[] specUncertainty2 = specChannel2.getFlatSpecUncertainty();
 
       // throw exception if not the same shape
       if (!((specShape0 == specShape02) && (specShape1 == specShape12)))
         throw new SpecChannel.ShapeException("Spectrum must have the same shape ... ");
 
-      for (int i = 0; i < specShape02; i++) {
-        for (int j = 0; j < specShape12; j++) {
-          specUncertainty[i][j] =
-              (specCount[i][j] / specCount2[i][j])
-                  * Math.sqrt(
-                      (specUncertainty[i][j] * specUncertainty[i][j])
-                              / (specCount[i][j] * specCount[i][j])
-                          + (specUncertainty2[i][j] * specUncertainty2[i][j])
-                              / (specCount2[i][j] * specCount2[i][j]));
-          specCount[i][j] /= specCount2[i][j];
-        }
-      }
+      ChannelArithmetic.applyRows(
+          ChannelArithmetic.DIVIDE,
+          specCount,
+          specUncertainty,
+          specCount2,
+          specUncertainty2,
+          specShape1);
+      ((Spectrum.TwoDim) spectrum).countsChanged();
     }
 
     /**
@@ -680,28 +648,19 @@ public abstract class ManipulateSpectrum {
       int newSpecShape0 = specShape0 / numYInGroup;
       int newSpecShape1 = specShape1 / numXInGroup;
       // calculate the new spec counts and uncertainties
-      int[][] newSpecCount = new int[newSpecShape0][newSpecShape1];
-      double[][] newSpecUncertainty = new double[newSpecShape0][newSpecShape1];
-      // holds the count and uncertainty sum before the cound is set
-      int countSum = 0;
-      double uncertaintySum = 0.0;
-
-      // loop through to set the newSpecCount for each channel in the new SpecChannel
-      for (int i = 0; i < newSpecShape0; i++) {
-        for (int j = 0; j < newSpecShape1; j++) {
-          // get the average over the rectangular region that is made into one channel
-          countSum = 0;
-          for (int a = i * numYInGroup; a < (i + 1) * numYInGroup; a++) {
-            for (int b = j * numXInGroup; b < (j + 1) * numXInGroup; b++) {
-              countSum = countSum + specCount[a][b];
-              uncertaintySum = uncertaintySum + (specUncertainty[a][b] * specUncertainty[a][b]);
-            }
-          }
-          // newSpecCount is the total area (sum of counts) over that rectangular region
-          newSpecCount[i][j] = countSum;
-          newSpecUncertainty[i][j] = Math.sqrt(uncertaintySum);
-        }
-      }
+      int[] newSpecCount = new int[newSpecShape0 * newSpecShape1];
+      double[] newSpecUncertainty = new double[newSpecShape0 * newSpecShape1];
+      // newSpecCount is the total area (sum of counts) over each rectangular region
+      ChannelArithmetic.compressRows(
+          specCount,
+          specUncertainty,
+          specShape1,
+          numYInGroup,
+          numXInGroup,
+          newSpecCount,
+          newSpecUncertainty,
+          newSpecShape0,
+          newSpecShape1);
 
       try {
         specChannel.setSpecChannelAttributes(
@@ -714,21 +673,14 @@ public abstract class ManipulateSpectrum {
 
     /** multiply the count for each channel by a double value */
     public void multiply(double value) {
-      for (int i = 0; i < specShape0; i++) {
-        for (int j = 0; j < specShape1; j++) {
-          specCount[i][j] = (int) (specCount[i][j] * value);
-          specUncertainty[i][j] = specUncertainty[i][j] * value;
-        }
-      }
+      ChannelArithmetic.scaleRows(specCount, specUncertainty, value, specShape1);
+      ((Spectrum.TwoDim) spectrum).countsChanged();
     }
 
     /** add an int value to the count for each channel */
     public void add(int value) {
-      for (int i = 0; i < specShape0; i++) {
-        for (int j = 0; j < specShape1; j++) {
-          specCount[i][j] += value;
-        }
-      }
+      ChannelArithmetic.offsetRows(specCount, value, specShape1);
+      ((Spectrum.TwoDim) spectrum).countsChanged();
     }
   }
 }
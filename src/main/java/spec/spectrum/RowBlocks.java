@@ -0,0 +1,93 @@
+package spec.spectrum;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs work over the rows of a two dimensional spectrum in blocks of rows, on the common fork/join
+ * pool when the spectrum is large enough to be worth it, and on the calling thread otherwise.
+ *
+ * <p>The rows are always cut into the same blocks for the same number of rows and channels,
+ * whichever way they are run, and a Body only ever writes to the channels of its own rows. So
+ * the results are the same to the bit whether or not the work runs in parallel.
+ */
+public class RowBlocks {
+  /** spectra with at least this many channels are worked on in parallel */
+  private static int parallelThreshold =
+      Integer.getInteger("spec.spectrum.parallelThreshold", 1 << 18).intValue();
+
+  /** The work done on one block of rows */
+  public abstract static class Body {
+    /** works on the rows from fromRow (inclusive) to toRow (exclusive) ... block is its number */
+    public abstract void run(int block, int fromRow, int toRow);
+  }
+
+  /** the number of channels from which the work is done in parallel */
+  public static int getParallelThreshold() {
+    return parallelThreshold;
+  }
+
+  /**
+   * sets the number of channels from which the work is done in parallel ... Integer.MAX_VALUE turns
+   * the parallel mode off. The initial value can be given by the spec.spectrum.parallelThreshold
+   * system property.
+   */
+  public static void setParallelThreshold(int aParallelThreshold) {
+    parallelThreshold = Math.max(1, aParallelThreshold);
+  }
+
+  /** the number of blocks numRows rows of rowLength channels are cut into */
+  public static int getBlockCount(int numRows, int rowLength) {
+    if (numRows <= 1 || (long) numRows * rowLength < parallelThreshold) return 1;
+
+    return Math.min(numRows, 4 * ForkJoinPool.getCommonPoolParallelism());
+  }
+
+  /**
+   * runs body over numRows rows of rowLength channels ... once with all the rows if there are
+   * fewer channels than the threshold, else once for each block of rows on the fork/join pool.
+   * Returns the number of blocks, which is getBlockCount (numRows, rowLength).
+   */
+  public static int run(int numRows, int rowLength, Body body) {
+    int numBlocks = getBlockCount(numRows, rowLength);
+
+    if (numBlocks == 1) body.run(0, 0, numRows);
+    else ForkJoinPool.commonPool().invoke(new Task(body, numRows, numBlocks, 0, numBlocks));
+
+    return numBlocks;
+  }
+
+  /** splits the blocks from fromBlock to toBlock in two until there is only one to run */
+  private static final class Task extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final Body body;
+    private final int numRows;
+    private final int numBlocks;
+    private final int fromBlock;
+    private final int toBlock;
+
+    Task(Body body, int numRows, int numBlocks, int fromBlock, int toBlock) {
+      this.body = body;
+      this.numRows = numRows;
+      this.numBlocks = numBlocks;
+      this.fromBlock = fromBlock;
+      this.toBlock = toBlock;
+    }
+
+    protected void compute() {
+      if (toBlock - fromBlock == 1) {
+        body.run(
+            fromBlock,
+            (int) (((long) fromBlock * numRows) / numBlocks),
+            (int) (((long) toBlock * numRows) / numBlocks));
+        return;
+      }
+
+      int middle = (fromBlock + toBlock) >>> 1;
+      invokeAll(
+          new Task(body, numRows, numBlocks, fromBlock, middle),
+          new Task(body, numRows, numBlocks, middle, toBlock));
+    }
+  }
+}
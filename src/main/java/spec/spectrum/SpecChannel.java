@@ -10,6 +10,11 @@ public abstract class SpecChannel implements Cloneable, Serializable {
   protected int maxCount = 0;
   /** array holding the position of the maximum count */
   protected int[] maxCountPosition;
+  /**
+   * cumulative sums of the counts, built by the first sum query and kept until the counts change
+   * ... null while there are none. Not serialized, since it is rebuilt on demand
+   */
+  protected transient long[] countSums;
 
   /** checks if two specChannels have the same shape */
   public abstract boolean isSameShape(SpecChannel a, SpecChannel b);
@@ -32,6 +37,15 @@ public abstract class SpecChannel implements Cloneable, Serializable {
     // return ( Arrays.binarySearch (array2, value) );
   }
 
+  /** returns a new array holding the Poisson error (square root) of each count */
+  protected static final double[] getPoissonUncertainty(int[] count) {
+    double[] uncertainty = new double[count.length];
+    for (int i = 0; i < count.length; i++) {
+      uncertainty[i] = Math.sqrt((double) count[i]);
+    }
+    return uncertainty;
+  }
+
   /** returns the maximum channel count */
   public int getMaxCount() {
     return maxCount;
@@ -42,13 +56,24 @@ public abstract class SpecChannel implements Cloneable, Serializable {
     return maxCountPosition;
   }
 
+  /**
+   * drops the cumulative sums of the counts ... must be called after changing the counts in place
+   * (e.g through the arrays returned by getSpecCount or getFlatSpecCount), so that the sums are
+   * rebuilt from the new counts
+   */
+  public void countsChanged() {
+    countSums = null;
+  }
+
   public static class OneDim extends SpecChannel {
     private int specShape;
     /** array containing the counts of the spectrum channels */
     protected int[] specCount;
     /**
      * the uncertainty of each count in the spec count ... cannot be arbitrarily set since it
-     * depends on the count
+     * depends on the count. While it is null, the uncertainty is the Poisson error, the square
+     * root of the count, and is worked out when asked for ... the array is only made once an
+     * operation changes the uncertainties (see materializeSpecUncertainty)
      */
     protected double[] specUncertainty;
 
@@ -66,7 +91,6 @@ public abstract class SpecChannel implements Cloneable, Serializable {
       super();
       specShape = aSpecShape;
       specCount = new int[specShape];
-      specUncertainty = new double[specShape];
       maxCountPosition[0] = -1;
     }
 
@@ -75,11 +99,13 @@ public abstract class SpecChannel implements Cloneable, Serializable {
       super();
       specShape = aOneDim.specShape;
       specCount = new int[specShape];
-      specUncertainty = new double[specShape];
 
       // copy the arrays locally ... instead of sharing the same array
       System.arraycopy(aOneDim.specCount, 0, specCount, 0, specShape);
-      System.arraycopy(aOneDim.specUncertainty, 0, specUncertainty, 0, specShape);
+      if (aOneDim.specUncertainty != null) {
+        specUncertainty = new double[specShape];
+        System.arraycopy(aOneDim.specUncertainty, 0, specUncertainty, 0, specShape);
+      }
       maxCount = aOneDim.getMaxCount();
       maxCountPosition = aOneDim.getMaxCountPosition();
     }
@@ -87,7 +113,7 @@ public abstract class SpecChannel implements Cloneable, Serializable {
     /**
      * for spectrum read in from a file or sth ... where the error is a simple function of the
      * number of counts it shares the same array as the passes specCount array *** NOT A COPY ***
-     * and then creates the uncertainty array as a square root of the count array
+     * and leaves the uncertainty as the square root of the count, worked out on demand
      *
      * @exception SpectrumException thrown if the specShape and specCount are not equal in length
      */
@@ -99,22 +125,41 @@ public abstract class SpecChannel implements Cloneable, Serializable {
 
       this.specShape = specShape;
       specCount = aSpecCount;
-      specUncertainty = new double[specShape];
 
       maxCount = Integer.MIN_VALUE;
-      // sets the spec count to equal this array and resets the uncertainties
+      // sets the spec count to equal this array ... the uncertainties follow from it
       for (int i = 0; i < aSpecCount.length; i++) {
         maxCount = Math.max(maxCount, specCount[i]);
-        specUncertainty[i] = Math.sqrt((double) specCount[i]);
       }
 
       maxCountPosition[0] = this.search(specCount, maxCount);
       if (maxCountPosition[0] < 0) maxCountPosition[0] = -1;
     }
 
+    /**
+     * for spectrum read in from a file where the reader already found the maximum count (and its
+     * position) while decoding ... same as OneDim (int, int[]) but does not rescan the counts for
+     * the maximum. Shares the passed specCount array *** NOT A COPY ***
+     *
+     * @exception SpectrumException thrown if the specShape and specCount are not equal in length
+     */
+    public OneDim(int specShape, int[] aSpecCount, int aMaxCount, int aMaxCountPosition)
+        throws SpectrumException {
+      super();
+      if (specShape != aSpecCount.length)
+        throw new SpectrumException(
+            "The spec shape is not equal to the number of elements" + " in the passed array");
+
+      this.specShape = specShape;
+      specCount = aSpecCount;
+
+      maxCount = aMaxCount;
+      maxCountPosition[0] = aMaxCountPosition;
+    }
+
     /**
      * it shares the same array as the passes specCount array and also with the uncertainty array
-     * passes *** NOT A COPY ***
+     * passes *** NOT A COPY *** ... a null uncertainty array means the square root of the count
      *
      * @exception SpectrumException thrown if the specShape and specCount and uncertainty are not
      *     equal in length
@@ -137,16 +182,19 @@ public abstract class SpecChannel implements Cloneable, Serializable {
 
     /**
      * sets the spec channel attributes to equal these arguments Preferred Way to set the spec
-     * channel attributes THE ARRAYS ARE NOT COPIED LOCALLY
+     * channel attributes THE ARRAYS ARE NOT COPIED LOCALLY ... a null aSpecUncertainty means the
+     * uncertainty is the square root of the count
      */
     public void setSpecChannelAttributes(
         int aSpecShape, int[] aSpecCount, double[] aSpecUncertainty) throws SpectrumException {
-      if ((aSpecCount.length != aSpecShape) || (aSpecUncertainty.length != aSpecShape))
+      if ((aSpecCount.length != aSpecShape)
+          || (aSpecUncertainty != null && aSpecUncertainty.length != aSpecShape))
         throw new SpectrumException("The number of elements in array must equal the specShape");
 
       specShape = aSpecShape;
       specCount = aSpecCount;
       specUncertainty = aSpecUncertainty;
+      countsChanged();
 
       maxCount = MathPlus.getMaxValue(specCount);
       maxCountPosition[0] = this.search(specCount, maxCount);
@@ -158,25 +206,76 @@ public abstract class SpecChannel implements Cloneable, Serializable {
       // actual number of elements to copy from the array
       int length = Math.min(specShape, aSpecCount.length);
       System.arraycopy(aSpecCount, 0, specCount, 0, length);
+      countsChanged();
       maxCount = MathPlus.getMaxValue(specCount);
       maxCountPosition[0] = this.search(specCount, maxCount);
     }
 
     /** sets the spec Uncertainty to equal this array as much as possible ... a copy is made */
-    protected void setSpecUncertainty(int[] aSpecUncertainty) {
+    protected void setSpecUncertainty(double[] aSpecUncertainty) {
       // actual number of elements to copy from the array
       int length = Math.min(specShape, aSpecUncertainty.length);
-      System.arraycopy(aSpecUncertainty, 0, specUncertainty, 0, length);
+      System.arraycopy(aSpecUncertainty, 0, materializeSpecUncertainty(), 0, length);
     }
 
     public int[] getSpecCount() {
       return specCount;
     }
 
+    /**
+     * returns the uncertainties. While they are still the square root of the counts, this is a
+     * newly computed array that the spec channel does not keep ... use materializeSpecUncertainty
+     * to change the uncertainties in place
+     */
     public double[] getSpecUncertainty() {
+      if (specUncertainty != null) return specUncertainty;
+      return getPoissonUncertainty(specCount);
+    }
+
+    /** returns the uncertainty of one channel ... indexed as getSpecCount */
+    public double getSpecUncertainty(int i) {
+      if (specUncertainty != null) return specUncertainty[i];
+      return Math.sqrt((double) specCount[i]);
+    }
+
+    /**
+     * returns the array of uncertainties kept by the spec channel *** NOT A COPY ***, making it
+     * from the counts first if the uncertainties were still being worked out on demand. Call this
+     * before an operation that changes the uncertainties (or the counts, without changing the
+     * uncertainties)
+     */
+    public double[] materializeSpecUncertainty() {
+      if (specUncertainty == null) specUncertainty = getPoissonUncertainty(specCount);
       return specUncertainty;
     }
 
+    /** true while the uncertainties are the square root of the counts, worked out on demand */
+    public boolean hasPoissonUncertainty() {
+      return (specUncertainty == null);
+    }
+
+    /**
+     * the sum of the counts of the channels from from (inclusive) to to (exclusive) ... in constant
+     * time, from the cumulative sums of the counts
+     */
+    public long getCountSum(int from, int to) {
+      long[] sums = getCountSums();
+      return sums[to] - sums[from];
+    }
+
+    /** sums [i] is the sum of the counts of the channels before i ... built if there is none */
+    private long[] getCountSums() {
+      long[] sums = countSums;
+      if (sums == null) {
+        sums = new long[specCount.length + 1];
+        for (int i = 0; i < specCount.length; i++) {
+          sums[i + 1] = sums[i] + specCount[i];
+        }
+        countSums = sums;
+      }
+      return sums;
+    }
+
     public int getSpecShape() {
       return specShape;
     }
@@ -213,19 +312,23 @@ public abstract class SpecChannel implements Cloneable, Serializable {
     the counts for the TwoDSpectrum in SPCLIB format are stored as {y,x} values ...
     i.e looping through every y value, ...
     all the x value subscripts in the rectangular array are stored ...
+
+    they are kept here the same way, in one flat array ... each y row of specShape1 x values
+    follows the one before it, so channel {y,x} is at specCount [y * specShape1 + x]
     */
 
     /** the width and height of the rectangular array representing the specChannel */
     private int specShape0;
 
     private int specShape1;
-    /** array containing the counts of the spectrum channels */
-    protected int[][] specCount;
+    /** array containing the counts of the spectrum channels, one y row after another */
+    protected int[] specCount;
     /**
      * the uncertainty of each count in the spec count ... cannot be arbitrarily set since it
-     * depends on the count
+     * depends on the count. Laid out the same way as specCount. While it is null, the uncertainty
+     * is the square root of the count, worked out when asked for (see OneDim.specUncertainty)
      */
-    protected double[][] specUncertainty;
+    protected double[] specUncertainty;
 
     {
       maxCountPosition = new int[] {-1, -1};
@@ -242,48 +345,65 @@ public abstract class SpecChannel implements Cloneable, Serializable {
       this.specShape0 = specShape0;
       this.specShape1 = specShape1;
 
-      specCount = new int[specShape0][specShape1];
-      specUncertainty = new double[specShape0][specShape1];
+      specCount = new int[specShape0 * specShape1];
       maxCountPosition[0] = maxCountPosition[1] = -1;
     }
 
     /**
      * for spectrum read in from a file or sth ... where the error is a simple function of the
-     * number of counts it shares the same array as the passes specCount array *** NOT A COPY ***
-     * and then creates the uncertainty array as a square root of the count array
+     * number of counts. The rectangular specCount array is copied into the flat layout, and the
+     * uncertainty is left as the square root of the count, worked out on demand
      *
      * @exception SpectrumException thrown if the specShapes and specCount are not equal in length
      */
     public TwoDim(int specShape0, int specShape1, int[][] aSpecCount) throws SpectrumException {
-      this(specShape0, specShape1);
+      this(specShape0, specShape1, flatten(specShape0, specShape1, aSpecCount));
+    }
 
-      int subLength;
+    /**
+     * for spectrum read in from a file or sth ... where the error is a simple function of the
+     * number of counts it shares the same array as the passes flat specCount array *** NOT A COPY
+     * *** and leaves the uncertainty as the square root of the count, worked out on demand
+     *
+     * @exception SpectrumException thrown if specCount does not hold specShape0 * specShape1
+     *     elements
+     */
+    public TwoDim(int specShape0, int specShape1, int[] aSpecCount) throws SpectrumException {
+      super();
+      checkLength(specShape0, specShape1, aSpecCount.length);
 
-      try {
-        subLength = Misc.getRectangularArrayHeight(aSpecCount);
-        if ((specShape0 != aSpecCount.length) || (specShape1 != subLength))
-          throw new SpectrumException(
-              "passed dimensions of rectangular array are not" + "equivalent to actual dimensions");
-      } catch (Misc.NotRectangularArrayException nrae) {
-        throw new SpectrumException("passed array is not rectangular");
-      }
+      this.specShape0 = specShape0;
+      this.specShape1 = specShape1;
+      specCount = aSpecCount;
+
+      setMaxCountPosition(Integer.MIN_VALUE);
+    }
 
+    /**
+     * for spectrum read in from a file where the reader already found the maximum count (and its
+     * {x, y} position) while decoding ... same as TwoDim (int, int, int[]) but does not rescan the
+     * counts for the maximum. Shares the passed flat specCount array *** NOT A COPY ***
+     *
+     * @exception SpectrumException thrown if specCount does not hold specShape0 * specShape1
+     *     elements
+     */
+    public TwoDim(
+        int specShape0, int specShape1, int[] aSpecCount, int aMaxCount, int[] aMaxCountPosition)
+        throws SpectrumException {
+      super();
+      checkLength(specShape0, specShape1, aSpecCount.length);
+
+      this.specShape0 = specShape0;
+      this.specShape1 = specShape1;
       specCount = aSpecCount;
 
-      maxCount = Integer.MIN_VALUE;
-      // loop through, since java implements these as arrays of arrays
-      for (int i = 0; i < specShape0; i++) {
-        for (int j = 0; j < specShape1; j++) {
-          specUncertainty[i][j] = Math.sqrt(specCount[i][j]);
-        }
-        maxCount = Math.max(maxCount, MathPlus.getMaxValue(specCount[i]));
-      }
-      setMaxCountPosition();
+      maxCount = aMaxCount;
+      maxCountPosition[0] = aMaxCountPosition[0];
+      maxCountPosition[1] = aMaxCountPosition[1];
     }
 
     /**
-     * it shares the same array as the passes specCount array and also with the uncertainty array
-     * passes *** NOT A COPY ***
+     * the rectangular specCount and uncertainty arrays are copied into the flat layout
      *
      * @exception SpectrumException thrown if the specShapes and specCount and uncertainty are not
      *     equal in length
@@ -299,27 +419,38 @@ public abstract class SpecChannel implements Cloneable, Serializable {
       }
     }
 
+    /**
+     * it shares the same array as the passes flat specCount array and also with the flat
+     * uncertainty array passes *** NOT A COPY *** ... a null uncertainty array means the square
+     * root of the count
+     *
+     * @exception SpectrumException thrown if specCount and uncertainty do not hold specShape0 *
+     *     specShape1 elements
+     */
+    public TwoDim(int specShape0, int specShape1, int[] aSpecCount, double[] aSpecUncertainty)
+        throws SpectrumException {
+      super();
+      setSpecChannelAttributes(specShape0, specShape1, aSpecCount, aSpecUncertainty);
+    }
+
     // Copy Constructor
     public TwoDim(TwoDim aTwoDim) {
       super();
       this.specShape0 = aTwoDim.specShape0;
       this.specShape1 = aTwoDim.specShape1;
 
-      specCount = new int[specShape0][specShape1];
-      specUncertainty = new double[specShape0][specShape1];
-
-      // loop through, since java implements these as arrays of arrays
-      for (int i = 0; i < specShape0; i++) {
-        System.arraycopy(aTwoDim.specCount[i], 0, specCount[i], 0, specShape1);
-      }
+      // one copy each, now that the channels are not stored as arrays of arrays
+      specCount = aTwoDim.specCount.clone();
+      if (aTwoDim.specUncertainty != null)
+        specUncertainty = aTwoDim.specUncertainty.clone();
 
       maxCount = aTwoDim.getMaxCount();
       maxCountPosition = aTwoDim.getMaxCountPosition();
     }
 
     /**
-     * sets the spec channel attributes to equal these arguments Preferred Way to set the spec
-     * channel attributes THE ARRAYS ARE NOT COPIED LOCALLY
+     * sets the spec channel attributes to equal these arguments. The rectangular arrays are copied
+     * into the flat layout
      */
     public void setSpecChannelAttributes(
         int aSpecShape0, int aSpecShape1, int[][] aSpecCount, double[][] aSpecUncertainty)
@@ -334,18 +465,15 @@ public abstract class SpecChannel implements Cloneable, Serializable {
             && (uncertaintyArrayHeight == aSpecShape1)))
           throw new Exception("The number of elements in array must equal the specShape");
 
-        specShape0 = aSpecShape0;
-        specShape1 = aSpecShape1;
-        specCount = aSpecCount;
-        specUncertainty = aSpecUncertainty;
-
-        // set the maximum channel count
-        maxCount = 0;
-        for (int i = 0; i < specCount.length; i++) {
-          maxCount = Math.max(maxCount, MathPlus.getMaxValue(specCount[i]));
+        int[] flatSpecCount = new int[aSpecShape0 * aSpecShape1];
+        double[] flatSpecUncertainty = new double[aSpecShape0 * aSpecShape1];
+        for (int i = 0; i < aSpecShape0; i++) {
+          System.arraycopy(aSpecCount[i], 0, flatSpecCount, i * aSpecShape1, aSpecShape1);
+          System.arraycopy(
+              aSpecUncertainty[i], 0, flatSpecUncertainty, i * aSpecShape1, aSpecShape1);
         }
 
-        setMaxCountPosition();
+        setSpecChannelAttributes(aSpecShape0, aSpecShape1, flatSpecCount, flatSpecUncertainty);
       } catch (Exception e) {
         System.out.println(e.getMessage());
         // rethrow the exception ... in case it is a NotRectangularArrayException
@@ -353,61 +481,262 @@ public abstract class SpecChannel implements Cloneable, Serializable {
       }
     }
 
+    /**
+     * sets the spec channel attributes to equal these arguments Preferred Way to set the spec
+     * channel attributes THE FLAT ARRAYS ARE NOT COPIED LOCALLY ... a null aSpecUncertainty means
+     * the uncertainty is the square root of the count
+     */
+    public void setSpecChannelAttributes(
+        int aSpecShape0, int aSpecShape1, int[] aSpecCount, double[] aSpecUncertainty)
+        throws SpectrumException {
+      checkLength(aSpecShape0, aSpecShape1, aSpecCount.length);
+      if (aSpecUncertainty != null)
+        checkLength(aSpecShape0, aSpecShape1, aSpecUncertainty.length);
+
+      specShape0 = aSpecShape0;
+      specShape1 = aSpecShape1;
+      specCount = aSpecCount;
+      specUncertainty = aSpecUncertainty;
+      countsChanged();
+
+      // set the maximum channel count
+      setMaxCountPosition(0);
+    }
+
     /** sets the spec count to equal this array as much as possible ... a copy is made */
     protected void setSpecCount(int[][] aSpecCount) {
       // actual number of elements to copy from the array
       int length0 = Math.min(specShape0, aSpecCount.length);
       int length1;
 
-      maxCount = 0;
-      // loop through, since java implements these as arrays of arrays
       for (int i = 0; i < length0; i++) {
         length1 = Math.min(specShape1, aSpecCount[i].length);
-        System.arraycopy(aSpecCount[i], 0, specCount[i], 0, length1);
-        maxCount = Math.max(maxCount, MathPlus.getMaxValue(specCount[i]));
+        System.arraycopy(aSpecCount[i], 0, specCount, i * specShape1, length1);
       }
-      setMaxCountPosition();
+      countsChanged();
+
+      setMaxCountPosition(0);
     }
 
     /** sets the spec Uncertainty to equal this array as much as possible ... a copy is made */
-    protected void setSpecUncertainty(int[][] aSpecUncertainty) {
+    protected void setSpecUncertainty(double[][] aSpecUncertainty) {
       // actual number of elements to copy from the array
       int length0 = Math.min(specShape0, aSpecUncertainty.length);
       int length1;
 
-      // loop through, since java implements these as arrays of arrays
+      materializeSpecUncertainty();
+
       for (int i = 0; i < length0; i++) {
         length1 = Math.min(specShape1, aSpecUncertainty[i].length);
-        System.arraycopy(aSpecUncertainty[i], 0, specUncertainty[i], 0, length1);
+        System.arraycopy(aSpecUncertainty[i], 0, specUncertainty, i * specShape1, length1);
       }
     }
 
-    private void setMaxCountPosition() {
-      int a = -1;
-      int b = -1;
+    /**
+     * sets maxCount to the largest of leastMaxCount and the counts, and maxCountPosition to the {x,
+     * y} position of the first channel holding maxCount ... {-1, -1} if none does. Blocks of rows
+     * are searched in parallel on large spectra, each for its own maximum and the first channel
+     * holding it; the first block with the overall maximum then holds its first channel.
+     */
+    private void setMaxCountPosition(int leastMaxCount) {
+      final int[] count = specCount;
+      final int rowLength = specShape1;
+      int numRows = (rowLength == 0) ? 0 : count.length / rowLength;
+
+      final int[] blockMaxCount = new int[RowBlocks.getBlockCount(numRows, rowLength)];
+      final int[] blockPosition = new int[blockMaxCount.length];
+      RowBlocks.run(
+          numRows,
+          rowLength,
+          new RowBlocks.Body() {
+            public void run(int block, int fromRow, int toRow) {
+              int max = Integer.MIN_VALUE;
+              int maxPosition = -1;
+              for (int i = fromRow * rowLength; i < toRow * rowLength; i++) {
+                if (maxPosition < 0 || count[i] > max) {
+                  max = count[i];
+                  maxPosition = i;
+                }
+              }
+              blockMaxCount[block] = max;
+              blockPosition[block] = maxPosition;
+            }
+          });
+
+      maxCount = leastMaxCount;
+      for (int i = 0; i < blockMaxCount.length; i++) {
+        maxCount = Math.max(maxCount, blockMaxCount[i]);
+      }
 
-      for (int i = 0; i < specCount.length; i++) {
-        a = this.search(specCount[i], maxCount);
-        if (a >= 0) {
-          b = i;
+      int position = -1;
+      for (int i = 0; i < blockMaxCount.length; i++) {
+        if (blockPosition[i] >= 0 && blockMaxCount[i] == maxCount) {
+          position = blockPosition[i];
           break;
         }
       }
 
-      if (a < 0) maxCountPosition[0] = -1;
-      else maxCountPosition[0] = a;
-      if (b < 0) maxCountPosition[1] = -1;
-      else maxCountPosition[1] = b;
+      if (position < 0) {
+        maxCountPosition[0] = -1;
+        maxCountPosition[1] = -1;
+      } else {
+        maxCountPosition[0] = position % specShape1;
+        maxCountPosition[1] = position / specShape1;
+      }
     }
 
+    private static void checkLength(int specShape0, int specShape1, int length)
+        throws SpectrumException {
+      if (specShape0 < 0 || specShape1 < 0 || (long) specShape0 * specShape1 != length)
+        throw new SpectrumException(
+            "passed dimensions of rectangular array are not" + "equivalent to actual dimensions");
+    }
+
+    /** copies a rectangular {y,x} array into a new flat array, one y row after another */
+    private static int[] flatten(int specShape0, int specShape1, int[][] aSpecCount)
+        throws SpectrumException {
+      try {
+        int subLength = Misc.getRectangularArrayHeight(aSpecCount);
+        if ((specShape0 != aSpecCount.length) || (specShape1 != subLength))
+          throw new SpectrumException(
+              "passed dimensions of rectangular array are not" + "equivalent to actual dimensions");
+      } catch (Misc.NotRectangularArrayException nrae) {
+        throw new SpectrumException("passed array is not rectangular");
+      }
+
+      int[] flatSpecCount = new int[specShape0 * specShape1];
+      for (int i = 0; i < specShape0; i++) {
+        System.arraycopy(aSpecCount[i], 0, flatSpecCount, i * specShape1, specShape1);
+      }
+      return flatSpecCount;
+    }
+
+    /**
+     * returns the counts as a rectangular {y,x} array ... this is a copy of the flat counts, so
+     * changes to it are not seen by the spec channel. Use getFlatSpecCount to work on the counts
+     * in place
+     *
+     * @deprecated this used to return the arrays of the spec channel itself, and now returns a
+     *     copy, so writes through it are lost ... use getFlatSpecCount (the counts themselves,
+     *     *** NOT A COPY ***, channel {y,x} at index y * getStride() + x) to change them in place
+     */
+    @Deprecated
     public int[][] getSpecCount() {
-      return specCount;
+      int[][] aSpecCount = new int[specShape0][specShape1];
+      for (int i = 0; i < specShape0; i++) {
+        System.arraycopy(specCount, i * specShape1, aSpecCount[i], 0, specShape1);
+      }
+      return aSpecCount;
     }
 
+    /**
+     * returns the uncertainties as a rectangular {y,x} array ... this is a copy, see getSpecCount
+     *
+     * @deprecated this used to return the arrays of the spec channel itself, and now returns a
+     *     copy, so writes through it are lost ... use materializeSpecUncertainty (the uncertainties
+     *     themselves, *** NOT A COPY ***, laid out as getFlatSpecCount) to change them in place, or
+     *     getFlatSpecUncertainty to read them
+     */
+    @Deprecated
     public double[][] getSpecUncertainty() {
+      double[][] aSpecUncertainty = new double[specShape0][specShape1];
+      for (int i = 0; i < specShape0; i++) {
+        if (specUncertainty == null) {
+          for (int j = 0; j < specShape1; j++) {
+            aSpecUncertainty[i][j] = Math.sqrt((double) specCount[i * specShape1 + j]);
+          }
+        } else {
+          System.arraycopy(specUncertainty, i * specShape1, aSpecUncertainty[i], 0, specShape1);
+        }
+      }
+      return aSpecUncertainty;
+    }
+
+    /**
+     * returns the flat array of counts *** NOT A COPY *** ... channel {y,x} is at index y *
+     * getStride() + x
+     */
+    public int[] getFlatSpecCount() {
+      return specCount;
+    }
+
+    /**
+     * returns the flat array of uncertainties *** NOT A COPY *** ... laid out as the counts. While
+     * they are still the square root of the counts, this is a newly computed array that the spec
+     * channel does not keep ... use materializeSpecUncertainty to change them in place
+     */
+    public double[] getFlatSpecUncertainty() {
+      if (specUncertainty != null) return specUncertainty;
+      return getPoissonUncertainty(specCount);
+    }
+
+    /**
+     * returns the flat array of uncertainties kept by the spec channel *** NOT A COPY ***, making
+     * it from the counts first if the uncertainties were still being worked out on demand. Call
+     * this before an operation that changes the uncertainties (or the counts, without changing the
+     * uncertainties)
+     */
+    public double[] materializeSpecUncertainty() {
+      if (specUncertainty == null) specUncertainty = getPoissonUncertainty(specCount);
       return specUncertainty;
     }
 
+    /** true while the uncertainties are the square root of the counts, worked out on demand */
+    public boolean hasPoissonUncertainty() {
+      return (specUncertainty == null);
+    }
+
+    /** the distance between the start of one y row and the next in the flat arrays */
+    public int getStride() {
+      return specShape1;
+    }
+
+    /** returns the count of channel {y,x} */
+    public int getSpecCount(int y, int x) {
+      return specCount[y * specShape1 + x];
+    }
+
+    /** returns the uncertainty of channel {y,x} */
+    public double getSpecUncertainty(int y, int x) {
+      if (specUncertainty != null) return specUncertainty[y * specShape1 + x];
+      return Math.sqrt((double) specCount[y * specShape1 + x]);
+    }
+
+    /**
+     * the sum of the counts of the channels in the rectangle from {fromY, fromX} (inclusive) to
+     * {toY, toX} (exclusive) ... in constant time, from the summed area table of the counts
+     */
+    public long getCountSum(int fromY, int fromX, int toY, int toX) {
+      long[] sums = getCountSums();
+      int stride = specShape1 + 1;
+      return sums[toY * stride + toX]
+          - sums[fromY * stride + toX]
+          - sums[toY * stride + fromX]
+          + sums[fromY * stride + fromX];
+    }
+
+    /**
+     * the summed area table ... sums [y * (specShape1 + 1) + x] is the sum of the counts of the
+     * channels above y and to the left of x. Built if there is none
+     */
+    private long[] getCountSums() {
+      long[] sums = countSums;
+      if (sums == null) {
+        int stride = specShape1 + 1;
+        sums = new long[(specShape0 + 1) * stride];
+        for (int y = 0; y < specShape0; y++) {
+          long rowSum = 0;
+          int offset = y * specShape1;
+          for (int x = 0; x < specShape1; x++) {
+            rowSum += specCount[offset + x];
+            sums[(y + 1) * stride + x + 1] = sums[y * stride + x + 1] + rowSum;
+          }
+        }
+        countSums = sums;
+      }
+      return sums;
+    }
+
     public int getSpecShape0() {
       return specShape0;
     }
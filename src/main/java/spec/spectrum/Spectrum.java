@@ -30,6 +30,9 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
   /** property for the color map */
   public static final String SPECTRUM_NAME_PROPERTY = "SPECTRUM NAME PROPERTY";
 
+  /** property for the counts of the spectrum channels, when they are changed in place */
+  public static final String SPECTRUM_COUNTS_PROPERTY = "SPECTRUM COUNTS PROPERTY";
+
   public String specName;
   protected int specDimension;
   protected Date specDate;
@@ -552,15 +555,11 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
       double[] specUncertainty2 = specChannel2.getSpecUncertainty();
 
       int[] specCount = specChannel.getSpecCount();
-      double[] specUncertainty = specChannel.getSpecUncertainty();
+      double[] specUncertainty = specChannel.materializeSpecUncertainty();
 
-      for (int i = 0; i < specShape; i++) {
-        specUncertainty[i] =
-            Math.sqrt(
-                (specUncertainty[i] * specUncertainty[i])
-                    + (specUncertainty2[i] * specUncertainty2[i]));
-        specCount[i] += specCount2[i];
-      }
+      ChannelArithmetic.apply(
+          ChannelArithmetic.ADD, specCount, specUncertainty, specCount2, specUncertainty2);
+      specChannel.countsChanged();
     }
 
     /** subtract this spectrum to the parsed spectrum channel by channel */
@@ -578,15 +577,11 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
       double[] specUncertainty2 = specChannel2.getSpecUncertainty();
 
       int[] specCount = specChannel.getSpecCount();
-      double[] specUncertainty = specChannel.getSpecUncertainty();
+      double[] specUncertainty = specChannel.materializeSpecUncertainty();
 
-      for (int i = 0; i < specShape; i++) {
-        specUncertainty[i] =
-            Math.sqrt(
-                (specUncertainty[i] * specUncertainty[i])
-                    + (specUncertainty2[i] * specUncertainty2[i]));
-        specCount[i] -= specCount2[i];
-      }
+      ChannelArithmetic.apply(
+          ChannelArithmetic.SUBTRACT, specCount, specUncertainty, specCount2, specUncertainty2);
+      specChannel.countsChanged();
     }
 
     /** multiply this spectrum by the parsed spectrum channel by channel */
@@ -604,15 +599,11 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
       double[] specUncertainty2 = specChannel2.getSpecUncertainty();
 
       int[] specCount = specChannel.getSpecCount();
-      double[] specUncertainty = specChannel.getSpecUncertainty();
+      double[] specUncertainty = specChannel.materializeSpecUncertainty();
 
-      for (int i = 0; i < specShape; i++) {
-        specUncertainty[i] =
-            Math.sqrt(
-                Math.pow(specCount2[i] * specUncertainty[i], 2)
-                    + Math.pow(specCount[i] * specUncertainty2[i], 2));
-        specCount[i] *= specCount2[i];
-      }
+      ChannelArithmetic.apply(
+          ChannelArithmetic.MULTIPLY, specCount, specUncertainty, specCount2, specUncertainty2);
+      specChannel.countsChanged();
     }
 
     /** divide this spectrum by the parsed spectrum channel by channel */
@@ -630,17 +621,11 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
       double[] specUncertainty2 = specChannel2.getSpecUncertainty();
 
       int[] specCount = specChannel.getSpecCount();
-      double[] specUncertainty = specChannel.getSpecUncertainty();
+      double[] specUncertainty = specChannel.materializeSpecUncertainty();
 
-      for (int i = 0; i < specShape; i++) {
-        specUncertainty[i] =
-            (specCount[i] / specCount2[i])
-                * Math.sqrt(
-                    (specUncertainty[i] * specUncertainty[i]) / (specCount[i] * specCount[i])
-                        + (specUncertainty2[i] * specUncertainty2[i])
-                            / (specCount2[i] * specCount2[i]));
-        specCount[i] /= specCount2[i];
-      }
+      ChannelArithmetic.apply(
+          ChannelArithmetic.DIVIDE, specCount, specUncertainty, specCount2, specUncertainty2);
+      specChannel.countsChanged();
     }
 
     /**
@@ -691,45 +676,35 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
 
     /** multiply the count for each channel by a double value */
     public void multiply(double value) {
-      int specShape = specChannel.getSpecShape();
       int[] specCount = specChannel.getSpecCount();
-      double[] specUncertainty = specChannel.getSpecUncertainty();
+      double[] specUncertainty = specChannel.materializeSpecUncertainty();
 
-      for (int i = 0; i < specShape; i++) {
-        specCount[i] = (int) (specCount[i] * value);
-        specUncertainty[i] = specUncertainty[i] * value;
-      }
+      ChannelArithmetic.scale(specCount, specUncertainty, value, 0, specCount.length);
+      specChannel.countsChanged();
     }
 
     /** add an int value to the count for each channel */
     public void add(int value) {
-      int specShape = specChannel.getSpecShape();
       int[] specCount = specChannel.getSpecCount();
-      double[] specUncertainty = specChannel.getSpecUncertainty();
+      // the uncertainty does not change ... so it must not follow the counts from now on
+      specChannel.materializeSpecUncertainty();
 
-      for (int i = 0; i < specShape; i++) {
-        specCount[i] += value;
-        // uncertainty does not change
-      }
+      ChannelArithmetic.offset(specCount, value, 0, specCount.length);
+      specChannel.countsChanged();
     }
 
     /**
      * find the area between an interval of channels (inclusive) ... basically add the channel
-     * counts in the range Convention is that channels are labelled from 1 to specShape
+     * counts in the range Convention is that channels are labelled from 1 to specShape. Taken from
+     * the cumulative sums of the spec channel, so it does not depend on the size of the interval
      */
     public int area(int lowChannel, int highChannel) throws Exception {
       int specShape = specChannel.getSpecShape();
-      int[] specCount = specChannel.getSpecCount();
 
       if ((lowChannel >= highChannel) || (highChannel > specShape))
         throw new Exception("Invalid range of values");
 
-      int area = 0;
-      for (int i = lowChannel - 1; i < highChannel; i++) {
-        area += specCount[i];
-      }
-
-      return area;
+      return (int) specChannel.getCountSum(lowChannel - 1, highChannel);
     }
 
     /**
@@ -773,13 +748,14 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
       int[] specCount = new int[specShape1];
       double[] specUncertainty = new double[specShape1];
 
-      for (int i = 0; i < specShape1; i++) {
-        specUncertainty[i] =
-            Math.sqrt(
-                (specUncertainty1[i] * specUncertainty1[i])
-                    + (specUncertainty2[i] * specUncertainty2[i]));
-        specCount[i] = specCount1[i] + specCount2[i];
-      }
+      ChannelArithmetic.apply(
+          ChannelArithmetic.ADD,
+          specCount1,
+          specUncertainty1,
+          specCount2,
+          specUncertainty2,
+          specCount,
+          specUncertainty);
 
       String specName = spectrum1.getSpecName() + "_+_" + spectrum2.getSpecName();
       specChannel = new SpecChannel.OneDim(specShape1, specCount, specUncertainty);
@@ -811,13 +787,14 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
       int[] specCount = new int[specShape1];
       double[] specUncertainty = new double[specShape1];
 
-      for (int i = 0; i < specShape1; i++) {
-        specUncertainty[i] =
-            Math.sqrt(
-                (specUncertainty1[i] * specUncertainty1[i])
-                    + (specUncertainty2[i] * specUncertainty2[i]));
-        specCount[i] = specCount1[i] - specCount2[i];
-      }
+      ChannelArithmetic.apply(
+          ChannelArithmetic.SUBTRACT,
+          specCount1,
+          specUncertainty1,
+          specCount2,
+          specUncertainty2,
+          specCount,
+          specUncertainty);
 
       String specName = spectrum1.getSpecName() + "_-_" + spectrum2.getSpecName();
       specChannel = new SpecChannel.OneDim(specShape1, specCount, specUncertainty);
@@ -849,13 +826,14 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
       int[] specCount = new int[specShape1];
       double[] specUncertainty = new double[specShape1];
 
-      for (int i = 0; i < specShape1; i++) {
-        specUncertainty[i] =
-            Math.sqrt(
-                Math.pow(specCount2[i] * specUncertainty1[i], 2)
-                    + Math.pow(specCount1[i] * specUncertainty2[i], 2));
-        specCount[i] = specCount1[i] * specCount2[i];
-      }
+      ChannelArithmetic.apply(
+          ChannelArithmetic.MULTIPLY,
+          specCount1,
+          specUncertainty1,
+          specCount2,
+          specUncertainty2,
+          specCount,
+          specUncertainty);
 
       String specName = spectrum1.getSpecName() + "_*_" + spectrum2.getSpecName();
       specChannel = new SpecChannel.OneDim(specShape1, specCount, specUncertainty);
@@ -887,15 +865,14 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
       int[] specCount = new int[specShape1];
       double[] specUncertainty = new double[specShape1];
 
-      for (int i = 0; i < specShape1; i++) {
-        specUncertainty[i] =
-            (specCount1[i] / specCount2[i])
-                * Math.sqrt(
-                    (specUncertainty1[i] * specUncertainty1[i]) / (specCount1[i] * specCount1[i])
-                        + (specUncertainty2[i] * specUncertainty2[i])
-                            / (specCount2[i] * specCount2[i]));
-        specCount[i] = specCount[i] / specCount2[i];
-      }
+      ChannelArithmetic.apply(
+          ChannelArithmetic.DIVIDE,
+          specCount1,
+          specUncertainty1,
+          specCount2,
+          specUncertainty2,
+          specCount,
+          specUncertainty);
 
       String specName = spectrum1.getSpecName() + "_/_" + spectrum2.getSpecName();
       specChannel = new SpecChannel.OneDim(specShape1, specCount, specUncertainty);
@@ -973,6 +950,16 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
       return (specChannel.getMaxCount());
     }
 
+    /**
+     * must be called after changing the counts of the spectrum channel in place (the manipulations
+     * here and in ManipulateSpectrum do) ... tells the spec channel, then fires the
+     * SPECTRUM_COUNTS_PROPERTY, so that a drawable spectrum sharing the counts draws them again
+     */
+    public void countsChanged() {
+      specChannel.countsChanged();
+      this.firePropertyChange(Spectrum.SPECTRUM_COUNTS_PROPERTY, null, specChannel);
+    }
+
     /*
      *************************************************************************
      * INSTANCE METHODS FOR MANIPULATIONS BETWEEN TWO TWO-DIMENSIONAL SPECTRA
@@ -992,21 +979,20 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
       if (!((specShape0 == specShape02) && (specShape1 == specShape12)))
         throw new SpecChannel.ShapeException("Spectrum must have the same shape ... ");
 
-      int[][] specCount = specChannel.getSpecCount();
-      double[][] specUncertainty = specChannel.getSpecUncertainty();
+      int[] specCount = specChannel.getFlatSpecCount();
+      double[] specUncertainty = specChannel.materializeSpecUncertainty();
 
-      int[][] specCount2 = specChannel2.getSpecCount();
-      double[][] specUncertainty2 = specChannel2.getSpecUncertainty();
+      int[] specCount2 = specChannel2.getFlatSpecCount();
+      double[] specUncertainty2 = specChannel2.getFlatSpecUncertainty();
 
-      for (int i = 0; i < specShape02; i++) {
-        for (int j = 0; j < specShape12; j++) {
-          specUncertainty[i][j] =
-              Math.sqrt(
-                  (specUncertainty[i][j] * specUncertainty[i][j])
-                      + (specUncertainty2[i][j] * specUncertainty2[i][j]));
-          specCount[i][j] += specCount2[i][j];
-        }
-      }
+      ChannelArithmetic.applyRows(
+          ChannelArithmetic.ADD,
+          specCount,
+          specUncertainty,
+          specCount2,
+          specUncertainty2,
+          specShape1);
+      countsChanged();
     }
 
     /** subtract this spectrum to the parsed spectrum channel by channel */
@@ -1022,21 +1008,20 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
       if (!((specShape0 == specShape02) && (specShape1 == specShape12)))
         throw new SpecChannel.ShapeException("Spectrum must have the same shape ... ");
 
-      int[][] specCount = specChannel.getSpecCount();
-      double[][] specUncertainty = specChannel.getSpecUncertainty();
+      int[] specCount = specChannel.getFlatSpecCount();
+      double[] specUncertainty = specChannel.materializeSpecUncertainty();
 
-      int[][] specCount2 = specChannel2.getSpecCount();
-      double[][] specUncertainty2 = specChannel2.getSpecUncertainty();
+      int[] specCount2 = specChannel2.getFlatSpecCount();
+      double[] specUncertainty2 = specChannel2.getFlatSpecUncertainty();
 
-      for (int i = 0; i < specShape02; i++) {
-        for (int j = 0; j < specShape12; j++) {
-          specUncertainty[i][j] =
-              Math.sqrt(
-                  (specUncertainty[i][j] * specUncertainty[i][j])
-                      + (specUncertainty2[i][j] * specUncertainty2[i][j]));
-          specCount[i][j] -= specCount2[i][j];
-        }
-      }
+      ChannelArithmetic.applyRows(
+          ChannelArithmetic.SUBTRACT,
+          specCount,
+          specUncertainty,
+          specCount2,
+          specUncertainty2,
+          specShape1);
+      countsChanged();
     }
 
     /** multiply this spectrum by the parsed spectrum channel by channel */
@@ -1052,21 +1037,20 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
       if (!((specShape0 == specShape02) && (specShape1 == specShape12)))
         throw new SpecChannel.ShapeException("Spectrum must have the same shape ... ");
 
-      int[][] specCount = specChannel.getSpecCount();
-      double[][] specUncertainty = specChannel.getSpecUncertainty();
+      int[] specCount = specChannel.getFlatSpecCount();
+      double[] specUncertainty = specChannel.materializeSpecUncertainty();
 
-      int[][] specCount2 = specChannel2.getSpecCount();
-      double[][] specUncertainty2 = specChannel2.getSpecUncertainty();
+      int[] specCount2 = specChannel2.getFlatSpecCount();
+      double[] specUncertainty2 = specChannel2.getFlatSpecUncertainty();
 
-      for (int i = 0; i < specShape02; i++) {
-        for (int j = 0; j < specShape12; j++) {
-          specUncertainty[i][j] =
-              Math.sqrt(
-                  Math.pow(specCount2[i][j] * specUncertainty[i][j], 2)
-                      + Math.pow(specCount[i][j] * specUncertainty2[i][j], 2));
-          specCount[i][j] *= specCount2[i][j];
-        }
-      }
+      ChannelArithmetic.applyRows(
+          ChannelArithmetic.MULTIPLY,
+          specCount,
+          specUncertainty,
+          specCount2,
+          specUncertainty2,
+          specShape1);
+      countsChanged();
     }
 
     /** divide this spectrum by the parsed spectrum channel by channel */
@@ -1082,24 +1066,20 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
       if (!((specShape0 == specShape02) && (specShape1 == specShape12)))
         throw new SpecChannel.ShapeException("Spectrum must have the same shape ... ");
 
-      int[][] specCount = specChannel.getSpecCount();
-      double[][] specUncertainty = specChannel.getSpecUncertainty();
-
-      int[][] specCount2 = specChannel2.getSpecCount();
-      double[][] specUncertainty2 = specChannel2.getSpecUncertainty();
-
-      for (int i = 0; i < specShape02; i++) {
-        for (int j = 0; j < specShape12; j++) {
-          specUncertainty[i][j] =
-              (specCount[i][j] / specCount2[i][j])
-                  * Math.sqrt(
-                      (specUncertainty[i][j] * specUncertainty[i][j])
-                              / (specCount[i][j] * specCount[i][j])
-                          + (specUncertainty2[i][j] * specUncertainty2[i][j])
-                              / (specCount2[i][j] * specCount2[i][j]));
-          specCount[i][j] /= specCount2[i][j];
-        }
-      }
+      int[] specCount = specChannel.getFlatSpecCount();
+      double[] specUncertainty = specChannel.materializeSpecUncertainty();
+
+      int[] specCount2 = specChannel2.getFlatSpecCount();
+      double[] specUncertainty2 = specChannel2.getFlatSpecUncertainty();
+
+      ChannelArithmetic.applyRows(
+          ChannelArithmetic.DIVIDE,
+          specCount,
+          specUncertainty,
+          specCount2,
+          specUncertainty2,
+          specShape1);
+      countsChanged();
     }
 
     /**
@@ -1118,8 +1098,8 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
         throw new Exception(
             "Invalid exponent ... this reduces the number" + "of channels to a negative number");
 
-      int[][] specCount = specChannel.getSpecCount();
-      double[][] specUncertainty = specChannel.getSpecUncertainty();
+      int[] specCount = specChannel.getFlatSpecCount();
+      double[] specUncertainty = specChannel.getFlatSpecUncertainty();
 
       // get the number in Y & X direction that will be grouped together
       int numYInGroup = (int) Math.pow(2.0, (double) yExponent);
@@ -1129,28 +1109,19 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
       int newSpecShape0 = specShape0 / numYInGroup;
       int newSpecShape1 = specShape1 / numXInGroup;
       // calculate the new spec counts and uncertainties
-      int[][] newSpecCount = new int[newSpecShape0][newSpecShape1];
-      double[][] newSpecUncertainty = new double[newSpecShape0][newSpecShape1];
-      // holds the count and uncertainty sum before the cound is set
-      int countSum = 0;
-      double uncertaintySum = 0.0;
-
-      // loop through to set the newSpecCount for each channel in the new SpecChannel
-      for (int i = 0; i < newSpecShape0; i++) {
-        for (int j = 0; j < newSpecShape1; j++) {
-          // get the average over the rectangular region that is made into one channel
-          countSum = 0;
-          for (int a = i * numYInGroup; a < (i + 1) * numYInGroup; a++) {
-            for (int b = j * numXInGroup; b < (j + 1) * numXInGroup; b++) {
-              countSum = countSum + specCount[a][b];
-              uncertaintySum = uncertaintySum + (specUncertainty[a][b] * specUncertainty[a][b]);
-            }
-          }
-          // newSpecCount is the total area (sum of counts) over that rectangular region
-          newSpecCount[i][j] = countSum;
-          newSpecUncertainty[i][j] = Math.sqrt(uncertaintySum);
-        }
-      }
+      int[] newSpecCount = new int[newSpecShape0 * newSpecShape1];
+      double[] newSpecUncertainty = new double[newSpecShape0 * newSpecShape1];
+      // newSpecCount is the total area (sum of counts) over each rectangular region
+      ChannelArithmetic.compressRows(
+          specCount,
+          specUncertainty,
+          specShape1,
+          numYInGroup,
+          numXInGroup,
+          newSpecCount,
+          newSpecUncertainty,
+          newSpecShape0,
+          newSpecShape1);
 
       try {
         specChannel.setSpecChannelAttributes(
@@ -1162,32 +1133,51 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
 
     /** multiply the count for each channel by a double value */
     public void multiply(double value) {
-      int specShape0 = specChannel.getSpecShape0();
-      int specShape1 = specChannel.getSpecShape1();
+      int[] specCount = specChannel.getFlatSpecCount();
+      double[] specUncertainty = specChannel.materializeSpecUncertainty();
 
-      int[][] specCount = specChannel.getSpecCount();
-      double[][] specUncertainty = specChannel.getSpecUncertainty();
-
-      for (int i = 0; i < specShape0; i++) {
-        for (int j = 0; j < specShape1; j++) {
-          specCount[i][j] = (int) (specCount[i][j] * value);
-          specUncertainty[i][j] = specUncertainty[i][j] * value;
-        }
-      }
+      ChannelArithmetic.scaleRows(specCount, specUncertainty, value, specChannel.getStride());
+      countsChanged();
     }
 
     /** add an int value to the count for each channel */
     public void add(int value) {
-      int specShape0 = specChannel.getSpecShape0();
-      int specShape1 = specChannel.getSpecShape1();
+      int[] specCount = specChannel.getFlatSpecCount();
+      // the uncertainty does not change ... so it must not follow the counts from now on
+      specChannel.materializeSpecUncertainty();
 
-      int[][] specCount = specChannel.getSpecCount();
+      ChannelArithmetic.offsetRows(specCount, value, specChannel.getStride());
+      countsChanged();
+    }
 
-      for (int i = 0; i < specShape0; i++) {
-        for (int j = 0; j < specShape1; j++) {
-          specCount[i][j] += value;
-        }
-      }
+    /**
+     * find the area of a rectangular gate of channels (inclusive) ... the sum of the counts of the
+     * channels from {lowY, lowX} to {highY, highX}. Convention is that channels are labelled from 1
+     * to specShape0 (y) and 1 to specShape1 (x). As for 1-dimensional spectra, the low channel must
+     * be below the high channel in both dimensions. Taken from the summed area table of the spec
+     * channel, so it does not depend on the size of the gate
+     */
+    public int area(int lowY, int lowX, int highY, int highX) throws Exception {
+      if ((lowY < 1)
+          || (lowX < 1)
+          || (lowY >= highY)
+          || (lowX >= highX)
+          || (highY > specChannel.getSpecShape0())
+          || (highX > specChannel.getSpecShape1()))
+        throw new Exception("Invalid range of values");
+
+      return (int) specChannel.getCountSum(lowY - 1, lowX - 1, highY, highX);
+    }
+
+    /**
+     * find the average channel count of a rectangular gate of channels ... basically divide the
+     * area by the number of channels in the gate
+     */
+    public int average(int lowY, int lowX, int highY, int highX) throws Exception {
+      int area = area(lowY, lowX, highY, highX);
+      int average = area / ((highY - lowY + 1) * (highX - lowX + 1));
+
+      return average;
     }
 
     /*
@@ -1211,25 +1201,25 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
       if (!((specShape01 == specShape02) && (specShape11 == specShape12)))
         throw new SpecChannel.ShapeException("Spectrum must have the same shape ... ");
 
-      int[][] specCount1 = specChannel1.getSpecCount();
-      double[][] specUncertainty1 = specChannel1.getSpecUncertainty();
+      int[] specCount1 = specChannel1.getFlatSpecCount();
+      double[] specUncertainty1 = specChannel1.getFlatSpecUncertainty();
 
-      int[][] specCount2 = specChannel2.getSpecCount();
-      double[][] specUncertainty2 = specChannel2.getSpecUncertainty();
+      int[] specCount2 = specChannel2.getFlatSpecCount();
+      double[] specUncertainty2 = specChannel2.getFlatSpecUncertainty();
 
       SpecChannel.TwoDim specChannel;
-      int[][] specCount = new int[specShape01][specShape11];
-      double[][] specUncertainty = new double[specShape01][specShape11];
-
-      for (int i = 0; i < specShape01; i++) {
-        for (int j = 0; j < specShape11; j++) {
-          specUncertainty[i][j] =
-              Math.sqrt(
-                  (specUncertainty1[i][j] * specUncertainty1[i][j])
-                      + (specUncertainty2[i][j] * specUncertainty2[i][j]));
-          specCount[i][j] = specCount1[i][j] + specCount2[i][j];
-        }
-      }
+      int[] specCount = new int[specShape01 * specShape11];
+      double[] specUncertainty = new double[specShape01 * specShape11];
+
+      ChannelArithmetic.applyRows(
+          ChannelArithmetic.ADD,
+          specCount1,
+          specUncertainty1,
+          specCount2,
+          specUncertainty2,
+          specCount,
+          specUncertainty,
+          specShape11);
 
       String specName = spectrum1.getSpecName() + "_+_" + spectrum2.getSpecName();
       specChannel = new SpecChannel.TwoDim(specShape01, specShape11, specCount, specUncertainty);
@@ -1252,25 +1242,25 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
       if (!((specShape01 == specShape02) && (specShape11 == specShape12)))
         throw new SpecChannel.ShapeException("Spectrum must have the same shape ... ");
 
-      int[][] specCount1 = specChannel1.getSpecCount();
-      double[][] specUncertainty1 = specChannel1.getSpecUncertainty();
+      int[] specCount1 = specChannel1.getFlatSpecCount();
+      double[] specUncertainty1 = specChannel1.getFlatSpecUncertainty();
 
-      int[][] specCount2 = specChannel2.getSpecCount();
-      double[][] specUncertainty2 = specChannel2.getSpecUncertainty();
+      int[] specCount2 = specChannel2.getFlatSpecCount();
+      double[] specUncertainty2 = specChannel2.getFlatSpecUncertainty();
 
       SpecChannel.TwoDim specChannel;
-      int[][] specCount = new int[specShape01][specShape11];
-      double[][] specUncertainty = new double[specShape01][specShape11];
-
-      for (int i = 0; i < specShape01; i++) {
-        for (int j = 0; j < specShape11; j++) {
-          specUncertainty[i][j] =
-              Math.sqrt(
-                  (specUncertainty1[i][j] * specUncertainty1[i][j])
-                      + (specUncertainty2[i][j] * specUncertainty2[i][j]));
-          specCount[i][j] = specCount1[i][j] - specCount2[i][j];
-        }
-      }
+      int[] specCount = new int[specShape01 * specShape11];
+      double[] specUncertainty = new double[specShape01 * specShape11];
+
+      ChannelArithmetic.applyRows(
+          ChannelArithmetic.SUBTRACT,
+          specCount1,
+          specUncertainty1,
+          specCount2,
+          specUncertainty2,
+          specCount,
+          specUncertainty,
+          specShape11);
 
       String specName = spectrum1.getSpecName() + "_-_" + spectrum2.getSpecName();
       specChannel = new SpecChannel.TwoDim(specShape01, specShape11, specCount, specUncertainty);
@@ -1293,25 +1283,25 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
       if (!((specShape01 == specShape02) && (specShape11 == specShape12)))
         throw new SpecChannel.ShapeException("Spectrum must have the same shape ... ");
 
-      int[][] specCount1 = specChannel1.getSpecCount();
-      double[][] specUncertainty1 = specChannel1.getSpecUncertainty();
+      int[] specCount1 = specChannel1.getFlatSpecCount();
+      double[] specUncertainty1 = specChannel1.getFlatSpecUncertainty();
 
-      int[][] specCount2 = specChannel2.getSpecCount();
-      double[][] specUncertainty2 = specChannel2.getSpecUncertainty();
+      int[] specCount2 = specChannel2.getFlatSpecCount();
+      double[] specUncertainty2 = specChannel2.getFlatSpecUncertainty();
 
       SpecChannel.TwoDim specChannel;
-      int[][] specCount = new int[specShape01][specShape11];
-      double[][] specUncertainty = new double[specShape01][specShape11];
-
-      for (int i = 0; i < specShape01; i++) {
-        for (int j = 0; j < specShape11; j++) {
-          specUncertainty[i][j] =
-              Math.sqrt(
-                  Math.pow(specCount2[i][j] * specUncertainty1[i][j], 2)
-                      + Math.pow(specCount1[i][j] * specUncertainty2[i][j], 2));
-          specCount[i][j] = specCount1[i][j] * specCount2[i][j];
-        }
-      }
+      int[] specCount = new int[specShape01 * specShape11];
+      double[] specUncertainty = new double[specShape01 * specShape11];
+
+      ChannelArithmetic.applyRows(
+          ChannelArithmetic.MULTIPLY,
+          specCount1,
+          specUncertainty1,
+          specCount2,
+          specUncertainty2,
+          specCount,
+          specUncertainty,
+          specShape11);
 
       String specName = spectrum1.getSpecName() + "_*_" + spectrum2.getSpecName();
       specChannel = new SpecChannel.TwoDim(specShape01, specShape11, specCount, specUncertainty);
@@ -1334,28 +1324,25 @@ public abstract class Spectrum implements SpectrumInterface, Cloneable, Serializ
       if (!((specShape01 == specShape02) && (specShape11 == specShape12)))
         throw new SpecChannel.ShapeException("Spectrum must have the same shape ... ");
 
-      int[][] specCount1 = specChannel1.getSpecCount();
-      double[][] specUncertainty1 = specChannel1.getSpecUncertainty();
+      int[] specCount1 = specChannel1.getFlatSpecCount();
+      double[] specUncertainty1 = specChannel1.getFlatSpecUncertainty();
 
-      int[][] specCount2 = specChannel2.getSpecCount();
-      double[][] specUncertainty2 = specChannel2.getSpecUncertainty();
+      int[] specCount2 = specChannel2.getFlatSpecCount();
+      double[] specUncertainty2 = specChannel2.getFlatSpecUncertainty();
 
       SpecChannel.TwoDim specChannel;
-      int[][] specCount = new int[specShape01][specShape11];
-      double[][] specUncertainty = new double[specShape01][specShape11];
-
-      for (int i = 0; i < specShape01; i++) {
-        for (int j = 0; j < specShape11; j++) {
-          specUncertainty[i][j] =
-              (specCount1[i][j] / specCount2[i][j])
-                  * Math.sqrt(
-                      (specUncertainty1[i][j] * specUncertainty1[i][j])
-                              / (specCount1[i][j] * specCount1[i][j])
-                          + (specUncertainty2[i][j] * specUncertainty2[i][j])
-                              / (specCount2[i][j] * specCount2[i][j]));
-          specCount[i][j] = specCount1[i][j] + specCount2[i][j];
-        }
-      }
+      int[] specCount = new int[specShape01 * specShape11];
+      double[] specUncertainty = new double[specShape01 * specShape11];
+
+      ChannelArithmetic.applyRows(
+          ChannelArithmetic.DIVIDE,
+          specCount1,
+          specUncertainty1,
+          specCount2,
+          specUncertainty2,
+          specCount,
+          specUncertainty,
+          specShape11);
 
       String specName = spectrum1.getSpecName() + "_/_" + spectrum2.getSpecName();
       specChannel = new SpecChannel.TwoDim(specShape01, specShape11, specCount, specUncertainty);
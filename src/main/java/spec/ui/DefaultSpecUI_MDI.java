@@ -770,30 +770,27 @@ public class DefaultSpecUI_MDI implements SpecUI.MDI, SpecConstants, ActionListe
           }
 
           public void actionPerformed(ActionEvent e) {
-            try {
-              setWaitCursor();
-              DrawableSpectrum[] drawSpectra = spectrumManipulator.openSpectra();
-              DrawableSpectrum aDrawSpectrum;
-
-              // create an internal frame for the spectrum, add it to a desktop and
-              // ... add a spectrum to it, and passes it a reference to the SpectrumManipulator
-              for (int i = 0; i < drawSpectra.length; i++) {
-                aDrawSpectrum = drawSpectra[i];
-                if (aDrawSpectrum == null) continue;
-                try {
-                  PlotPanel.newSpecFrame(
-                      DefaultSpecUI_MDI.this, plotPanel, aDrawSpectrum, spectrumManipulator);
-                } catch (PlotPanel.PlotPanelException ppe) {
-                  JOptionPane.showMessageDialog(
-                      window,
-                      ppe.getMessage(),
-                      "Error displaying spectrum",
-                      JOptionPane.ERROR_MESSAGE);
-                }
-              }
-            } finally {
-              setDefaultCursor();
-            }
+            // the files are read in the background ... each spectrum gets its frame as it arrives
+            spectrumManipulator.openSpectraInBackground(
+                new SpectrumManipulator.OpenListener() {
+                  public void spectrumOpened(DrawableSpectrum aDrawSpectrum) {
+                    // create an internal frame for the spectrum, add it to a desktop and
+                    // ... add a spectrum to it, and passes it a reference to the
+                    // SpectrumManipulator
+                    try {
+                      PlotPanel.newSpecFrame(
+                          DefaultSpecUI_MDI.this, plotPanel, aDrawSpectrum, spectrumManipulator);
+                    } catch (PlotPanel.PlotPanelException ppe) {
+                      JOptionPane.showMessageDialog(
+                          window,
+                          ppe.getMessage(),
+                          "Error displaying spectrum",
+                          JOptionPane.ERROR_MESSAGE);
+                    }
+                  }
+
+                  public void openingDone(boolean cancelled) {}
+                });
           }
         };
 
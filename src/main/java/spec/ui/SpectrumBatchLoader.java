@@ -0,0 +1,204 @@
+package spec.ui;
+
+import java.awt.Component;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import spec.io.SpectrumReader;
+import spec.spectrum.Spectrum;
+
+/**
+ * Reads a batch of spectrum files in the background, so the event thread is never blocked by the
+ * decoding.
+ *
+ * <p>Each file is read with SpectrumReader.read (File) on a bounded pool of worker threads. The
+ * spectra are handed back to the Listener on the event thread in the same order as the files,
+ * each one as soon as it and all the files before it are done. At most twice the number of
+ * threads are being read or waiting for the event thread at any time, so a large batch does not
+ * pile up finished spectra in memory, however busy the event thread is. A ProgressMonitor shows how
+ * far the batch has got, and cancelling it (or calling cancel) stops the reading of the remaining
+ * files.
+ */
+public class SpectrumBatchLoader extends SwingWorker {
+  /**
+   * Receives the results of a SpectrumBatchLoader ... all methods are called on the event thread
+   */
+  public static interface Listener {
+    /** called for each file that was read successfully, in file order */
+    public void spectrumRead(File file, Spectrum spectrum);
+
+    /** called for each file that could not be read, in file order */
+    public void spectrumNotRead(File file, Throwable cause);
+
+    /** called once at the end, whether the batch completed or was cancelled */
+    public void batchDone(boolean cancelled);
+  }
+
+  private final File[] files;
+  private final Listener listener;
+  private final int numThreads;
+  /**
+   * one permit for each file that may be submitted to the pool ... taken when the file is
+   * submitted, and given back once its result has been handed to the listener
+   */
+  private final Semaphore readAhead;
+
+  private ProgressMonitor progressMonitor;
+
+  /** checks the progress monitor for a cancel, also while no file is being handed over */
+  private final Timer cancelTimer;
+
+  /**
+   * parent is used to position the progress monitor and can be null. numThreads is the size of the
+   * worker pool ... if not positive, the number of available processors is used.
+   */
+  public SpectrumBatchLoader(File[] files, Listener listener, Component parent, int numThreads) {
+    super();
+    this.files = files.clone();
+    this.listener = listener;
+
+    if (numThreads <= 0) numThreads = Runtime.getRuntime().availableProcessors();
+    this.numThreads = Math.max(1, Math.min(numThreads, this.files.length));
+    readAhead = new Semaphore(2 * this.numThreads);
+
+    progressMonitor =
+        new ProgressMonitor(parent, "Reading " + this.files.length + " spectra", "", 0, 100);
+    progressMonitor.setMillisToDecideToPopup(250);
+
+    cancelTimer =
+        new Timer(
+            100,
+            new ActionListener() {
+              public void actionPerformed(ActionEvent e) {
+                if (progressMonitor.isCanceled()) cancel(true);
+              }
+            });
+  }
+
+  public SpectrumBatchLoader(File[] files, Listener listener, Component parent) {
+    this(files, listener, parent, 0);
+  }
+
+  /** reads the files ... runs on the worker thread of the SwingWorker */
+  protected Object doInBackground() throws Exception {
+    cancelTimer.start();
+
+    ExecutorService pool =
+        Executors.newFixedThreadPool(
+            numThreads,
+            new ThreadFactory() {
+              public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "SpectrumBatchLoader");
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+              }
+            });
+
+    LinkedList pending = new LinkedList();
+    int next = 0;
+
+    try {
+      for (int i = 0; i < files.length && !(isCancelled()); i++) {
+        // keep the pool busy, but do not read too far ahead of the listener ... wait for a
+        // permit only if there is nothing else to wait on
+        if (next == i) {
+          readAhead.acquire();
+          pending.addLast(pool.submit(new ReadTask(files[next])));
+          next++;
+        }
+        while (next < files.length && readAhead.tryAcquire()) {
+          pending.addLast(pool.submit(new ReadTask(files[next])));
+          next++;
+        }
+
+        Future future = (Future) pending.removeFirst();
+        Result result;
+        try {
+          result = new Result(files[i], (Spectrum) future.get(), null);
+        } catch (ExecutionException ee) {
+          result = new Result(files[i], null, ee.getCause());
+        }
+
+        publish(new Object[] {result});
+        setProgress((100 * (i + 1)) / files.length);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+
+    return null;
+  }
+
+  /** hands the results to the listener ... runs on the event thread */
+  protected void process(List results) {
+    for (int i = 0; i < results.size(); i++) {
+      readAhead.release();
+      if (isCancelled()) continue;
+
+      Result result = (Result) results.get(i);
+      if (result.spectrum != null) listener.spectrumRead(result.file, result.spectrum);
+      else listener.spectrumNotRead(result.file, result.cause);
+    }
+
+    if (isCancelled()) return;
+    progressMonitor.setNote(((Result) results.get(results.size() - 1)).file.getName());
+    progressMonitor.setProgress(getProgress());
+    if (progressMonitor.isCanceled()) cancel(true);
+  }
+
+  /** runs on the event thread once the batch has completed or been cancelled */
+  protected void done() {
+    cancelTimer.stop();
+    progressMonitor.close();
+
+    if (!(isCancelled())) {
+      try {
+        get();
+      } catch (Exception e) {
+        // the reading itself failed (rather than any one file) ... report it as a failure
+        listener.spectrumNotRead(null, (e instanceof ExecutionException) ? e.getCause() : e);
+      }
+    }
+
+    listener.batchDone(isCancelled());
+  }
+
+  /** reads one file */
+  private static final class ReadTask implements Callable {
+    private final File file;
+
+    ReadTask(File file) {
+      this.file = file;
+    }
+
+    public Object call() throws Exception {
+      return SpectrumReader.read(file);
+    }
+  }
+
+  /** the outcome of reading one file ... either the spectrum or the cause of the failure */
+  private static final class Result {
+    final File file;
+    final Spectrum spectrum;
+    final Throwable cause;
+
+    Result(File file, Spectrum spectrum, Throwable cause) {
+      this.file = file;
+      this.spectrum = spectrum;
+      this.cause = cause;
+    }
+  }
+}
@@ -7,6 +7,7 @@ import javax.swing.JComboBox;
 import javax.swing.JFileChooser;
 import javax.swing.JPanel;
 import javax.swing.JTextArea;
+import javax.swing.filechooser.FileView;
 import spec.io.SpecFormat;
 import spec.main.SpecConstants;
 
@@ -58,6 +59,9 @@ public class SpectrumFileChooser extends JFileChooser implements SpecConstants {
 
     setFileSelectionMode(JFileChooser.FILES_ONLY);
     setDialogType(JFileChooser.CUSTOM_DIALOG);
+
+    // describe the spectrum files from their headers only
+    setFileView(new SpecFileView(allSpecFormatsFilter));
   }
 
   /** override the default SaveDialog to remove some file filters when saving */
@@ -137,6 +141,43 @@ public class SpectrumFileChooser extends JFileChooser implements SpecConstants {
     }
   }
 
+  /**
+   * FileView that describes spectrum files using SpecFormat.probe ... only the header of each file
+   * is read (and cached), so large run directories can be listed without decoding any spectra.
+   * Files the filter does not accept are left to the default view.
+   */
+  public static class SpecFileView extends FileView {
+    private Filter filter;
+
+    public SpecFileView(Filter filter) {
+      super();
+      this.filter = filter;
+    }
+
+    /** the probed header of the file, or null if it is not a spectrum file */
+    protected SpecFormat.SpecHeader getSpecHeader(File f) {
+      if (f.isDirectory() || !(filter.accept(f))) return null;
+
+      try {
+        return SpecFormat.probe(f.toPath());
+      } catch (SpecFormat.IOException e) {
+        return null;
+      }
+    }
+
+    public String getDescription(File f) {
+      SpecFormat.SpecHeader specHeader = getSpecHeader(f);
+      if (specHeader == null) return null;
+      else return specHeader.toString();
+    }
+
+    public String getTypeDescription(File f) {
+      SpecFormat.SpecHeader specHeader = getSpecHeader(f);
+      if (specHeader == null) return null;
+      else return SpecFormat.getInstance(specHeader.getExtension()).toString();
+    }
+  }
+
   public static class SpecFileChooserAccesory extends JPanel {
     JComboBox formatList;
     JTextArea textArea;
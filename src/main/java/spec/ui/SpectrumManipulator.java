@@ -417,6 +417,20 @@ public class SpectrumManipulator implements ActionListener {
     return (drawSpec);
   }
 
+  /** Is told about the drawable spectra opened by openSpectraInBackground, on the event thread */
+  public static interface OpenListener {
+    /** called for each drawable spectrum, once it is in the spectrumList */
+    public void spectrumOpened(DrawableSpectrum drawSpec);
+
+    /** called once all the files have been read, or the reading was cancelled */
+    public void openingDone(boolean cancelled);
+  }
+
+  /** open multiple spectra in the background, with the file chooser of this manipulator */
+  public SpectrumBatchLoader openSpectraInBackground(OpenListener listener) {
+    return (openSpectraInBackground(fileChooser, listener));
+  }
+
   /** static method to open multiple spectra */
   public DrawableSpectrum[] openSpectra() {
     return (openSpectra(fileChooser));
@@ -496,6 +510,111 @@ public class SpectrumManipulator implements ActionListener {
     return (drawSpectra);
   }
 
+  /**
+   * reads some drawable spectra from files in the background (see SpectrumBatchLoader), so the UI
+   * does not freeze while a large batch is decoded. As each spectrum arrives (on the event thread,
+   * in file order), it is put into the spectrumList and passed on to the listener, which can be
+   * null. The files that could not be opened are told about in one message at the end. Returns the
+   * running loader (so it can be cancelled), or null if no file was selected.
+   */
+  public SpectrumBatchLoader openSpectraInBackground(
+      final JFileChooser fileChooser, final OpenListener listener) {
+    // first set the selected file to null ...
+    boolean selectionMode = fileChooser.isMultiSelectionEnabled();
+    if (!(selectionMode)) fileChooser.setMultiSelectionEnabled(true);
+
+    fileChooser.setSelectedFile(null);
+    int returnVal = fileChooser.showOpenDialog(fileChooser);
+    File[] files = fileChooser.getSelectedFiles();
+
+    if (!(selectionMode)) fileChooser.setMultiSelectionEnabled(selectionMode);
+    if (returnVal != JFileChooser.APPROVE_OPTION) return null;
+
+    // return if no file was selected
+    if (files == null || files.length == 0) {
+      JOptionPane.showMessageDialog(
+          fileChooser, "No file was selected", "Error reading spectrum", JOptionPane.ERROR_MESSAGE);
+      return null;
+    }
+
+    // leave out files that a spectrum has already been opened from
+    java.util.List toRead = new ArrayList();
+    // the messages for the files that could not be opened ... shown together at the end
+    final java.util.List failures = new ArrayList();
+    for (int i = 0; i < files.length; i++) {
+      String filePath = files[i].getAbsolutePath();
+      if (spectrumToFilenameMap.containsValue(filePath)) {
+        Object[] aSpecArray = (Misc.getKeysForValue(spectrumToFilenameMap, filePath));
+        String aSpecName = ((DrawableSpectrum) aSpecArray[0]).getSpectrum().getSpecName();
+
+        failures.add(
+            files[i].getName() + ": a spectrum: " + aSpecName + " has already been opened from it");
+      } else toRead.add(files[i]);
+    }
+
+    File[] filesToRead = (File[]) toRead.toArray(new File[toRead.size()]);
+    if (filesToRead.length == 0) {
+      showFailures(fileChooser, failures);
+      return null;
+    }
+
+    SpectrumBatchLoader loader =
+        new SpectrumBatchLoader(
+            filesToRead,
+            new SpectrumBatchLoader.Listener() {
+              public void spectrumRead(File file, Spectrum spectrum) {
+                DrawableSpectrum drawSpec;
+                try {
+                  drawSpec = getDrawableSpectrum(spectrum);
+                } catch (SpectrumException se) {
+                  spectrumNotRead(file, se);
+                  return;
+                }
+
+                addDrawableSpectrum(drawSpec);
+                mapSpectrumToFilename(drawSpec, file);
+                if (listener != null) listener.spectrumOpened(drawSpec);
+              }
+
+              public void spectrumNotRead(File file, Throwable cause) {
+                String message = String.valueOf(cause.getMessage()).trim();
+                failures.add((file != null) ? file.getName() + ": " + message : message);
+              }
+
+              public void batchDone(boolean cancelled) {
+                showFailures(fileChooser, failures);
+                if (listener != null) listener.openingDone(cancelled);
+              }
+            },
+            contentPane);
+
+    loader.execute();
+    return loader;
+  }
+
+  /** number of failures listed by showFailures ... the rest are only counted */
+  private static final int MAX_FAILURES_SHOWN = 20;
+
+  /** shows the messages for the files that could not be opened in one dialog, if there are any */
+  private static void showFailures(java.awt.Component parent, java.util.List failures) {
+    if (failures.isEmpty()) return;
+
+    StringBuffer message = new StringBuffer();
+    message.append(failures.size() == 1 ? "1 file" : failures.size() + " files");
+    message.append(" could not be opened:\n");
+    for (int i = 0; i < failures.size() && i < MAX_FAILURES_SHOWN; i++) {
+      message.append("\n").append(failures.get(i));
+    }
+    if (failures.size() > MAX_FAILURES_SHOWN)
+      message.append("\n... and ").append(failures.size() - MAX_FAILURES_SHOWN).append(" more");
+
+    JOptionPane.showMessageDialog(
+        parent,
+        message.toString(),
+        "Error reading or displaying spectrum",
+        JOptionPane.ERROR_MESSAGE);
+  }
+
   /**
    * writes a selected spectrum to a file
    *